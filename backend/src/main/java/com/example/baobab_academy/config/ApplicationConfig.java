@@ -4,9 +4,11 @@ import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.EnableMongoAuditing; // Import this
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
 @EnableMongoAuditing // Add this annotation
+@EnableScheduling
 public class ApplicationConfig {
 
     @Bean
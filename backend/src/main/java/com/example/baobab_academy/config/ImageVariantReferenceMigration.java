@@ -0,0 +1,78 @@
+package com.example.baobab_academy.config;
+
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.ImageVariantSet;
+import com.example.baobab_academy.services.MediaDeletionOutbox;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rattache les cours à leur jeu de variantes et compte les références des jeux créés avant le comptage.
+ * Idempotent : ne traite que les cours sans coverVariantSetId et les jeux sans refCount ; un jeu que plus
+ * aucun cours n'utilise est retiré (ses fichiers partent dans l'outbox, ou à défaut à la réconciliation).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantReferenceMigration implements CommandLineRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaDeletionOutbox mediaDeletionOutbox;
+
+    @Override
+    public void run(String... args) {
+        Query unlinked = Query.query(Criteria.where("coverImageVariants").ne(null).and("coverVariantSetId").exists(false));
+        unlinked.fields().include("coverImageVariants");
+        List<Course> courses = mongoTemplate.find(unlinked, Course.class);
+
+        int linked = 0;
+        for (Course course : courses) {
+            if (course.getCoverImageVariants().isEmpty()) {
+                continue;
+            }
+            // Une seule variante suffit : ses clés dérivent du contenu de l'image source
+            Map.Entry<String, String> variant = course.getCoverImageVariants().entrySet().iterator().next();
+            Query setQuery = Query.query(Criteria.where("variants." + variant.getKey()).is(variant.getValue()));
+            setQuery.fields().include("_id");
+            ImageVariantSet set = mongoTemplate.findOne(setQuery, ImageVariantSet.class);
+            if (set != null) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(course.getId())
+                                .and("coverVariantSetId").exists(false)),
+                        new Update().set("coverVariantSetId", set.getId()), Course.class);
+                linked++;
+            }
+        }
+
+        List<ImageVariantSet> uncounted = mongoTemplate.find(
+                Query.query(Criteria.where("refCount").exists(false)), ImageVariantSet.class);
+        int removed = 0;
+        for (ImageVariantSet set : uncounted) {
+            long references = mongoTemplate.count(
+                    Query.query(Criteria.where("coverVariantSetId").is(set.getId())), Course.class);
+            if (references > 0) {
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(set.getId()).and("refCount").exists(false)),
+                        new Update().set("refCount", references), ImageVariantSet.class);
+            } else if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(set.getId())
+                    .and("refCount").exists(false)), ImageVariantSet.class).getDeletedCount() > 0) {
+                if (set.getMedia() != null) {
+                    mediaDeletionOutbox.enqueueAll(set.getMedia().values());
+                }
+                removed++;
+            }
+        }
+
+        if (linked + uncounted.size() > 0) {
+            log.info("🖼️ Variantes d'images: {} cours rattachés, {} jeux comptés, {} jeux inutilisés retirés",
+                    linked, uncounted.size() - removed, removed);
+        }
+    }
+}
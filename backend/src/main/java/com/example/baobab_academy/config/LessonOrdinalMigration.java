@@ -0,0 +1,77 @@
+package com.example.baobab_academy.config;
+
+import com.example.baobab_academy.models.Chapter;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.repositories.ChapterRepository;
+import com.example.baobab_academy.services.CourseStructureCache;
+import com.example.baobab_academy.services.LessonOrdinalAllocator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Attribue un ordinal aux leçons créées avant l'introduction des vecteurs de complétion,
+ * dans l'ordre du cours (chapitre puis leçon). Idempotent : ne traite que les leçons sans ordinal.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LessonOrdinalMigration implements CommandLineRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final ChapterRepository chapterRepository;
+    private final LessonOrdinalAllocator lessonOrdinalAllocator;
+    private final CourseStructureCache courseStructureCache;
+
+    @Override
+    public void run(String... args) {
+        List<Lesson> lessons = mongoTemplate.find(
+                Query.query(Criteria.where("ordinal").exists(false)), Lesson.class);
+        if (lessons.isEmpty()) {
+            return;
+        }
+
+        log.info("🔢 Attribution des ordinaux à {} leçons existantes", lessons.size());
+
+        Map<String, Chapter> chaptersById = chapterRepository.findAllById(
+                        lessons.stream().map(Lesson::getChapterId).distinct().collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(Chapter::getId, chapter -> chapter));
+
+        Map<String, List<Lesson>> lessonsByCourse = lessons.stream()
+                .filter(lesson -> chaptersById.containsKey(lesson.getChapterId()))
+                .collect(Collectors.groupingBy(lesson -> chaptersById.get(lesson.getChapterId()).getCourseId()));
+
+        Comparator<Lesson> courseOrder = Comparator
+                .comparing((Lesson lesson) -> chaptersById.get(lesson.getChapterId()).getOrderIndex(),
+                        Comparator.nullsLast(Integer::compareTo))
+                .thenComparing(Lesson::getChapterId)
+                .thenComparing(Lesson::getOrderIndex, Comparator.nullsLast(Integer::compareTo));
+
+        lessonsByCourse.forEach((courseId, courseLessons) -> {
+            courseLessons.sort(courseOrder);
+            int ordinal = lessonOrdinalAllocator.allocate(courseId, courseLessons.size());
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Lesson.class);
+            for (Lesson lesson : courseLessons) {
+                bulk.updateOne(Query.query(Criteria.where("_id").is(lesson.getId()).and("ordinal").exists(false)),
+                        new Update().set("ordinal", ordinal++));
+            }
+            bulk.execute();
+            courseStructureCache.evict(courseId);
+        });
+
+        log.info("✅ Ordinaux attribués pour {} cours", lessonsByCourse.size());
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.baobab_academy.config;
+
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.ImageVariantSet;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaAsset;
+import com.example.baobab_academy.models.MediaDescriptor;
+import com.example.baobab_academy.services.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Renseigne les MediaDescriptor des cours, leçons, assets et variantes d'image antérieurs à leur introduction :
+ * l'identifiant est déduit une dernière fois de l'URL (seul endroit où elle est analysée), puis les métadonnées
+ * (taille, durée, dimensions) sont demandées au stockage. Idempotent : seuls les médias sans descripteur sont
+ * traités, en arrière-plan pour ne pas retarder le démarrage. La réconciliation attend la fin de la migration.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MediaDescriptorMigration implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore mediaStore;
+
+    @Value("${app.media.descriptors.fetch-metadata:true}")
+    private boolean fetchMetadata;
+
+    private volatile boolean completed;
+
+    @Override
+    public void run(String... args) {
+        Thread.ofVirtual().name("media-descriptor-migration").start(this::migrate);
+    }
+
+    /**
+     * Vrai quand tous les médias de ce stockage référencés en base ont un descripteur
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    private void migrate() {
+        try {
+            long covers = backfill(Course.class, "coverImage", "coverMedia", "image");
+            long videos = backfill(Lesson.class, "videoUrl", "videoMedia", "video");
+            long documents = backfill(Lesson.class, "documentUrl", "documentMedia", "raw");
+            long assets = backfillAssets();
+            long variantSets = backfillVariantSets();
+
+            if (covers + videos + documents + assets + variantSets > 0) {
+                log.info("✅ Descripteurs de médias renseignés: {} couvertures, {} vidéos, {} documents, {} assets, {} jeux de variantes",
+                        covers, videos, documents, assets, variantSets);
+            }
+            completed = true;
+        } catch (Exception e) {
+            log.error("❌ Migration des descripteurs de médias interrompue: {}", e.getMessage());
+        }
+    }
+
+    private long backfill(Class<?> type, String urlField, String mediaField, String resourceType) {
+        Query query = Query.query(Criteria.where(urlField).ne(null).and(mediaField).exists(false))
+                .cursorBatchSize(BATCH_SIZE);
+        query.fields().include(urlField);
+
+        long migrated = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+
+        try (Stream<Document> cursor = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(type))) {
+            for (Document document : (Iterable<Document>) cursor::iterator) {
+                String url = document.getString(urlField);
+                MediaDescriptor media = describe(url, resourceType);
+                if (media == null) {
+                    continue; // URL externe (YouTube, Vimeo...) : pas de descripteur
+                }
+
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+                }
+                // L'URL a pu changer depuis la lecture : ne pas lui associer un descripteur périmé
+                bulk.updateOne(Query.query(Criteria.where("_id").is(document.get("_id"))
+                                .and(urlField).is(url).and(mediaField).exists(false)),
+                        new Update().set(mediaField, media));
+                migrated++;
+
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+
+        if (bulk != null) {
+            bulk.execute();
+        }
+        return migrated;
+    }
+
+    /**
+     * Assets dédupliqués enregistrés avant les descripteurs : identifiant déjà connu, aucune analyse d'URL
+     */
+    private long backfillAssets() {
+        Query query = Query.query(Criteria.where("media").exists(false)).cursorBatchSize(BATCH_SIZE);
+        long migrated = 0;
+        BulkOperations bulk = null;
+        int pending = 0;
+
+        try (Stream<MediaAsset> cursor = mongoTemplate.stream(query, MediaAsset.class)) {
+            for (MediaAsset asset : (Iterable<MediaAsset>) cursor::iterator) {
+                if (asset.getPublicId() == null) {
+                    continue;
+                }
+                MediaDescriptor media = MediaDescriptor.builder()
+                        .store(mediaStore.name())
+                        .publicId(asset.getPublicId())
+                        .resourceType(asset.getResourceType())
+                        .url(asset.getUrl())
+                        .bytes(asset.getBytes())
+                        .contentHash(asset.getContentHash())
+                        .build();
+
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MediaAsset.class);
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(asset.getId()).and("media").exists(false)),
+                        new Update().set("media", media));
+                migrated++;
+
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+
+        if (bulk != null) {
+            bulk.execute();
+        }
+        return migrated;
+    }
+
+    private long backfillVariantSets() {
+        Query query = Query.query(Criteria.where("media").exists(false)).cursorBatchSize(BATCH_SIZE);
+        long migrated = 0;
+
+        try (Stream<ImageVariantSet> cursor = mongoTemplate.stream(query, ImageVariantSet.class)) {
+            for (ImageVariantSet set : (Iterable<ImageVariantSet>) cursor::iterator) {
+                Map<String, MediaDescriptor> media = new LinkedHashMap<>();
+                if (set.getVariants() != null) {
+                    set.getVariants().forEach((name, url) -> {
+                        MediaDescriptor descriptor = describe(url, "image");
+                        if (descriptor != null) {
+                            media.put(name, descriptor);
+                        }
+                    });
+                }
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(set.getId()).and("media").exists(false)),
+                        new Update().set("media", media), ImageVariantSet.class);
+                migrated++;
+            }
+        }
+        return migrated;
+    }
+
+    private MediaDescriptor describe(String url, String resourceType) {
+        MediaDescriptor media = mediaStore.describeUrl(url, resourceType);
+        if (media != null && fetchMetadata) {
+            try {
+                media = mediaStore.fetchMetadata(media);
+            } catch (Exception e) {
+                log.warn("⚠️ Métadonnées indisponibles pour {}: {}", media.getPublicId(), e.getMessage());
+            }
+        }
+        return media;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.baobab_academy.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -62,11 +63,15 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Dispatch asynchrone (SSE) : la requête initiale a déjà été authentifiée
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoints publics
                         .requestMatchers("/", "/actuator/**").permitAll() // Autorise le health check de Render
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/courses/public/**").permitAll()
                         .requestMatchers("/api/categories/**").permitAll()
+                        .requestMatchers("/api/media/**").permitAll() // Médias du stockage local (URLs publiques)
 
                         // Documentation Swagger - ENDPOINTS COMPLETS
                         .requestMatchers("/swagger-ui/**").permitAll()
@@ -113,8 +118,10 @@ public class SecurityConfig {
             ));
         }
 
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "HEAD", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // En-têtes des uploads reprenables lus par le client
+        configuration.setExposedHeaders(Arrays.asList("Location", "Upload-Offset", "Upload-Length", "Tus-Resumable"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
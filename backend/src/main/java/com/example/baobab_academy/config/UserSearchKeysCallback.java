@@ -0,0 +1,19 @@
+package com.example.baobab_academy.config;
+
+import com.example.baobab_academy.models.User;
+import com.example.baobab_academy.services.UserSearchKeys;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recalcule les clés de recherche normalisées avant chaque écriture d'un utilisateur
+ */
+@Component
+public class UserSearchKeysCallback implements BeforeConvertCallback<User> {
+
+    @Override
+    public User onBeforeConvert(User user, String collection) {
+        UserSearchKeys.apply(user);
+        return user;
+    }
+}
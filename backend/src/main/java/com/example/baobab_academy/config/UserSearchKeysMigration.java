@@ -0,0 +1,60 @@
+package com.example.baobab_academy.config;
+
+import com.example.baobab_academy.models.User;
+import com.example.baobab_academy.services.UserSearchKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Renseigne les clés de recherche des comptes créés avant leur introduction, par lots.
+ * Idempotent : ne traite que les utilisateurs sans searchEmail.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchKeysMigration implements CommandLineRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        long migrated = 0;
+
+        while (true) {
+            Query query = Query.query(Criteria.where("searchEmail").exists(false)).limit(BATCH_SIZE);
+            query.fields().include("firstName", "lastName", "email");
+
+            List<User> users = mongoTemplate.find(query, User.class);
+            if (users.isEmpty()) {
+                break;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+            for (User user : users) {
+                UserSearchKeys.apply(user);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(user.getId())), new Update()
+                        .set("searchFirstName", user.getSearchFirstName())
+                        .set("searchLastName", user.getSearchLastName())
+                        .set("searchEmail", user.getSearchEmail() != null ? user.getSearchEmail() : "")
+                        .set("emailGrams", user.getEmailGrams()));
+            }
+            bulk.execute();
+            migrated += users.size();
+        }
+
+        if (migrated > 0) {
+            log.info("✅ Clés de recherche renseignées pour {} utilisateurs", migrated);
+        }
+    }
+}
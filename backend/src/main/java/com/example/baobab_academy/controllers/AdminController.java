@@ -1,8 +1,14 @@
 package com.example.baobab_academy.controllers;
 
 import com.example.baobab_academy.dtos.ApiResponse;
+import com.example.baobab_academy.dtos.UserImportReport;
 import com.example.baobab_academy.dtos.UserResponse;
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.MediaReconciliationReport;
 import com.example.baobab_academy.services.AdminService;
+import com.example.baobab_academy.services.DataExportService;
+import com.example.baobab_academy.services.MediaReconciliationService;
+import com.example.baobab_academy.services.UserImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +17,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -24,6 +37,9 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final AdminService adminService;
+    private final UserImportService userImportService;
+    private final DataExportService dataExportService;
+    private final MediaReconciliationService mediaReconciliationService;
 
     @Operation(summary = "Récupérer la liste des utilisateurs")
     @GetMapping("/users")
@@ -48,14 +64,62 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Liste des utilisateurs récupérée avec succès", users));
     }
 
+    @Operation(summary = "Importer des utilisateurs en masse (CSV ou NDJSON)")
+    @PostMapping("/users/import")
+    public ResponseEntity<ApiResponse<UserImportReport>> importUsers(@RequestParam("file") MultipartFile file) {
+        log.info("Import d'utilisateurs depuis le fichier {} ({} octets)", file.getOriginalFilename(), file.getSize());
+
+        try {
+            UserImportReport report = userImportService.importUsers(file.getInputStream(), file.getOriginalFilename());
+            return ResponseEntity.ok(ApiResponse.success("Import terminé", report));
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de l'import d'utilisateurs: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Erreur lors de l'import: " + e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Supprimer un utilisateur")
     @DeleteMapping("/users/{userId}")
-    public ResponseEntity<ApiResponse<Object>> deleteUser(@PathVariable String userId) {
+    public ResponseEntity<ApiResponse<CleanupJob>> deleteUser(@PathVariable String userId) {
         log.info("Suppression de l'utilisateur avec l'ID: {}", userId);
         
-        adminService.deleteUser(userId);
+        CleanupJob job = adminService.deleteUser(userId);
         
-        return ResponseEntity.ok(ApiResponse.success("Utilisateur supprimé avec succès"));
+        // Les données associées sont supprimées en arrière-plan
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Utilisateur supprimé avec succès", job));
+    }
+
+    @Operation(summary = "Suivre une tâche de nettoyage")
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<CleanupJob>> getCleanupJob(@PathVariable String jobId) {
+        CleanupJob job = adminService.getCleanupJob(jobId);
+        return ResponseEntity.ok(ApiResponse.success("Tâche récupérée avec succès", job));
+    }
+
+    @Operation(summary = "Lancer une réconciliation des médias orphelins (simulation par défaut)")
+    @PostMapping("/media/reconciliations")
+    public ResponseEntity<ApiResponse<MediaReconciliationReport>> startMediaReconciliation(
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        log.info("Réconciliation des médias demandée - dryRun: {}", dryRun);
+
+        try {
+            MediaReconciliationReport report = mediaReconciliationService.start(dryRun);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Réconciliation lancée", report));
+        } catch (Exception e) {
+            log.error("❌ Erreur lors du lancement de la réconciliation: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Rapport d'une réconciliation des médias")
+    @GetMapping("/media/reconciliations/{reportId}")
+    public ResponseEntity<ApiResponse<MediaReconciliationReport>> getMediaReconciliation(@PathVariable String reportId) {
+        MediaReconciliationReport report = mediaReconciliationService.getReport(reportId);
+        return ResponseEntity.ok(ApiResponse.success("Rapport récupéré avec succès", report));
     }
 
     @Operation(summary = "Changer le rôle d'un utilisateur")
@@ -73,11 +137,46 @@ public class AdminController {
 
     @Operation(summary = "Obtenir les statistiques de la plateforme")
     @GetMapping("/stats")
-    public ResponseEntity<ApiResponse<Object>> getPlatformStats() {
+    public ResponseEntity<ApiResponse<Object>> getPlatformStats(
+            @RequestParam(defaultValue = "30") int days) {
         log.info("Récupération des statistiques de la plateforme");
         
-        Object stats = adminService.getPlatformStats();
+        Object stats = adminService.getPlatformStats(days);
         
         return ResponseEntity.ok(ApiResponse.success("Statistiques récupérées avec succès", stats));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Exporter les utilisateurs, la progression ou les notes (NDJSON ou CSV, en flux)")
+    @GetMapping("/exports/{dataset}")
+    public ResponseEntity<?> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Export {} - format: {}, champs: {}, du {} au {}, gzip: {}", dataset, format, fields, from, to, gzip);
+
+        // Paramètres validés avant l'ouverture du flux : une erreur est encore une réponse JSON
+        DataExportService.ExportRequest request;
+        try {
+            request = dataExportService.prepare(dataset, format, fields, from, to, gzip);
+        } catch (Exception e) {
+            log.error("❌ Export {} refusé: {}", dataset, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + dataExportService.filename(request) + "\"");
+        if (gzip) {
+            response.contentType(MediaType.parseMediaType("application/gzip"));
+        } else {
+            response.contentType(request.format() == DataExportService.Format.CSV
+                    ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                    : MediaType.parseMediaType("application/x-ndjson"));
+        }
+        return response.body(dataExportService.stream(request));
+    }
+}
@@ -3,19 +3,33 @@ package com.example.baobab_academy.controllers;
 import com.example.baobab_academy.dtos.ApiResponse;
 import com.example.baobab_academy.dtos.ChapterCreateRequest;
 import com.example.baobab_academy.dtos.CourseCreateRequest;
+import com.example.baobab_academy.dtos.CourseFunnelResponse;
 import com.example.baobab_academy.dtos.CourseResponse;
 import com.example.baobab_academy.dtos.CourseUpdateRequest;
 import com.example.baobab_academy.dtos.LessonCreateRequest;
+import com.example.baobab_academy.dtos.MediaUploadJobResponse;
+import com.example.baobab_academy.dtos.ResumableUploadResponse;
+import com.example.baobab_academy.exceptions.UploadOffsetConflictException;
+import com.example.baobab_academy.exceptions.UploadQueueFullException;
 import com.example.baobab_academy.models.Chapter;
+import com.example.baobab_academy.models.CleanupJob;
 import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaUploadJob;
+import com.example.baobab_academy.models.ResumableUpload;
 import com.example.baobab_academy.models.User;
+import com.example.baobab_academy.services.CourseFunnelService;
 import com.example.baobab_academy.services.CourseService;
+import com.example.baobab_academy.services.LessonEngagementService;
+import com.example.baobab_academy.services.MediaUploadService;
+import com.example.baobab_academy.services.ResumableUploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -25,8 +39,11 @@ import org.springframework.web.multipart.MultipartFile;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 
 @RestController
 @RequestMapping("/api/admin/courses")
@@ -37,6 +54,15 @@ import java.io.IOException;
 public class CourseController {
 
     private final CourseService courseService;
+    private final LessonEngagementService lessonEngagementService;
+    private final CourseFunnelService courseFunnelService;
+    private final MediaUploadService mediaUploadService;
+    private final ResumableUploadService resumableUploadService;
+
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
 
     @Operation(summary = "Créer un nouveau cours")
     @PostMapping
@@ -189,7 +215,7 @@ public class CourseController {
     // 🆕 NOUVEAU : Upload vidéo locale pour une leçon
     @Operation(summary = "Upload une vidéo locale pour une leçon")
     @PostMapping("/lessons/{lessonId}/video")
-    public ResponseEntity<ApiResponse<Lesson>> uploadLessonVideo(
+    public ResponseEntity<ApiResponse<MediaUploadJobResponse>> uploadLessonVideo(
             @PathVariable String lessonId,
             @RequestParam("file") MultipartFile file,
             Authentication authentication) {
@@ -198,10 +224,17 @@ public class CourseController {
         
         try {
             String instructorId = getUserIdFromAuthentication(authentication);
-            Lesson lesson = courseService.uploadLessonVideo(lessonId, file, instructorId);
+            MediaUploadJob job = courseService.uploadLessonVideo(lessonId, file, instructorId);
             
-            return ResponseEntity.ok(ApiResponse.success("Vidéo uploadée avec succès", lesson));
+            // L'envoi vers Cloudinary continue en arrière-plan : suivre la tâche via /uploads/{jobId}
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Vidéo reçue, upload en cours", toResponse(job)));
             
+        } catch (UploadQueueFullException e) {
+            log.warn("⏳ File d'upload pleine: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (IOException e) {
             log.error("❌ Erreur lors de l'upload de la vidéo: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -213,6 +246,110 @@ public class CourseController {
         }
     }
 
+    @Operation(summary = "Suivre l'upload d'une vidéo de leçon")
+    @GetMapping("/uploads/{jobId}")
+    public ResponseEntity<ApiResponse<MediaUploadJobResponse>> getUploadJob(
+            @PathVariable String jobId,
+            Authentication authentication) {
+
+        try {
+            String instructorId = getUserIdFromAuthentication(authentication);
+            MediaUploadJob job = mediaUploadService.getJob(jobId, instructorId);
+
+            return ResponseEntity.ok(ApiResponse.success("Tâche d'upload récupérée avec succès", toResponse(job)));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la récupération de la tâche d'upload {}: {}", jobId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Créer un upload vidéo reprenable pour une leçon (Upload-Length, Upload-Metadata filename)")
+    @PostMapping("/lessons/{lessonId}/video/resumable")
+    public ResponseEntity<ApiResponse<ResumableUploadResponse>> createResumableVideoUpload(
+            @PathVariable String lessonId,
+            @RequestHeader("Upload-Length") long length,
+            @RequestHeader(value = "Upload-Metadata", required = false) String metadata,
+            @RequestParam(required = false) String filename,
+            Authentication authentication) {
+
+        try {
+            String instructorId = getUserIdFromAuthentication(authentication);
+            String name = filename != null ? filename : uploadMetadataValue(metadata, "filename");
+            ResumableUpload upload = courseService.createResumableLessonVideoUpload(lessonId, length, name, instructorId);
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(HttpHeaders.LOCATION, "/api/admin/courses/uploads/resumable/" + upload.getId())
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, "0")
+                    .body(ApiResponse.success("Upload créé", toResponse(upload)));
+
+        } catch (UploadQueueFullException e) {
+            log.warn("⏳ File d'upload pleine: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la création de l'upload reprenable: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Envoyer un morceau d'un upload reprenable à l'offset courant")
+    @PatchMapping(value = "/uploads/resumable/{uploadId}", consumes = "application/offset+octet-stream")
+    public ResponseEntity<ApiResponse<ResumableUploadResponse>> appendResumableVideoChunk(
+            @PathVariable String uploadId,
+            @RequestHeader("Upload-Offset") long offset,
+            HttpServletRequest request,
+            Authentication authentication) {
+
+        try {
+            String instructorId = getUserIdFromAuthentication(authentication);
+            // Corps lu en flux : la mémoire reste bornée au tampon, quelle que soit la taille du morceau
+            ResumableUpload upload = resumableUploadService.append(uploadId, instructorId, offset, request.getInputStream());
+
+            return ResponseEntity.ok()
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                    .body(ApiResponse.success(upload.getJobId() != null
+                            ? "Upload complet, envoi en cours" : "Morceau reçu", toResponse(upload)));
+
+        } catch (UploadOffsetConflictException e) {
+            log.warn("⚠️ Conflit d'offset pour l'upload {}: {}", uploadId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de l'envoi d'un morceau de l'upload {}: {}", uploadId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Offset courant d'un upload reprenable")
+    @RequestMapping(value = "/uploads/resumable/{uploadId}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getResumableUploadOffset(
+            @PathVariable String uploadId,
+            Authentication authentication) {
+
+        try {
+            String instructorId = getUserIdFromAuthentication(authentication);
+            ResumableUpload upload = resumableUploadService.getUpload(uploadId, instructorId);
+
+            return ResponseEntity.ok()
+                    .header(TUS_RESUMABLE, TUS_VERSION)
+                    .header(UPLOAD_OFFSET, String.valueOf(upload.getOffset()))
+                    .header(UPLOAD_LENGTH, String.valueOf(upload.getLength()))
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     // 🆕 NOUVEAU : Définir URL vidéo externe pour une leçon
     @Operation(summary = "Définir l'URL d'une vidéo externe pour une leçon")
     @PutMapping("/lessons/{lessonId}/video-url")
@@ -330,9 +467,49 @@ public class CourseController {
         }
     }
 
+    @Operation(summary = "Heatmaps d'engagement et rétention par leçon")
+    @GetMapping("/{courseId}/engagement")
+    public ResponseEntity<ApiResponse<LessonEngagementService.CourseEngagementDto>> getCourseEngagement(
+            @PathVariable String courseId,
+            @RequestParam(required = false) Integer hours,
+            Authentication authentication) {
+
+        try {
+            String instructorId = getUserIdFromAuthentication(authentication);
+            LessonEngagementService.CourseEngagementDto engagement =
+                    lessonEngagementService.getCourseEngagement(courseId, instructorId, hours);
+
+            return ResponseEntity.ok(ApiResponse.success("Engagement récupéré avec succès", engagement));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la récupération de l'engagement du cours {}: {}", courseId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Entonnoir de complétion par chapitre et par leçon")
+    @GetMapping("/{courseId}/funnel")
+    public ResponseEntity<ApiResponse<CourseFunnelResponse>> getCourseFunnel(
+            @PathVariable String courseId,
+            Authentication authentication) {
+
+        try {
+            String instructorId = getUserIdFromAuthentication(authentication);
+            CourseFunnelResponse funnel = courseFunnelService.getCourseFunnel(courseId, instructorId);
+
+            return ResponseEntity.ok(ApiResponse.success("Entonnoir récupéré avec succès", funnel));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la récupération de l'entonnoir du cours {}: {}", courseId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Supprimer un cours")
     @DeleteMapping("/{courseId}")
-    public ResponseEntity<ApiResponse<Void>> deleteCourse(
+    public ResponseEntity<ApiResponse<CleanupJob>> deleteCourse(
             @PathVariable String courseId,
             Authentication authentication) {
         
@@ -340,9 +517,10 @@ public class CourseController {
         
         try {
             String instructorId = getUserIdFromAuthentication(authentication);
-            courseService.deleteCourse(courseId, instructorId);
+            CleanupJob job = courseService.deleteCourse(courseId, instructorId);
             
-            return ResponseEntity.ok(ApiResponse.success("Cours supprimé avec succès", null));
+            // Les données associées sont supprimées en arrière-plan
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Cours supprimé avec succès", job));
             
         } catch (Exception e) {
             log.error("❌ Erreur lors de la suppression: {}", e.getMessage());
@@ -354,7 +532,7 @@ public class CourseController {
     // 🆕 NOUVEAU : Supprimer un chapitre
     @Operation(summary = "Supprimer un chapitre")
     @DeleteMapping("/chapters/{chapterId}")
-    public ResponseEntity<ApiResponse<Void>> deleteChapter(
+    public ResponseEntity<ApiResponse<CleanupJob>> deleteChapter(
             @PathVariable String chapterId,
             Authentication authentication) {
         
@@ -362,9 +540,10 @@ public class CourseController {
         
         try {
             String instructorId = getUserIdFromAuthentication(authentication);
-            courseService.deleteChapter(chapterId, instructorId);
+            CleanupJob job = courseService.deleteChapter(chapterId, instructorId);
             
-            return ResponseEntity.ok(ApiResponse.success("Chapitre supprimé avec succès", null));
+            // Les données associées sont supprimées en arrière-plan
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Chapitre supprimé avec succès", job));
             
         } catch (Exception e) {
             log.error("❌ Erreur lors de la suppression du chapitre: {}", e.getMessage());
@@ -418,9 +597,52 @@ public class CourseController {
         }
     }
 
+    // Vue client d'une tâche d'envoi : le chemin du spool reste côté serveur
+    private MediaUploadJobResponse toResponse(MediaUploadJob job) {
+        return MediaUploadJobResponse.builder()
+                .id(job.getId())
+                .lessonId(job.getLessonId())
+                .courseId(job.getCourseId())
+                .status(job.getStatus())
+                .bytesTotal(job.getBytesTotal())
+                .bytesUploaded(job.getBytesUploaded())
+                .resultUrl(job.getResultUrl())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    // Vue client d'un upload reprenable : le chemin du spool reste côté serveur
+    private ResumableUploadResponse toResponse(ResumableUpload upload) {
+        return ResumableUploadResponse.builder()
+                .id(upload.getId())
+                .lessonId(upload.getLessonId())
+                .offset(upload.getOffset())
+                .length(upload.getLength())
+                .jobId(upload.getJobId())
+                .expiresAt(upload.getExpiresAt())
+                .build();
+    }
+
     /**
      * Extrait l'ID utilisateur depuis l'authentification
      */
+    // Valeur d'une clé de l'en-tête Upload-Metadata ("clé base64,clé base64")
+    private String uploadMetadataValue(String metadata, String key) {
+        if (metadata == null) {
+            return null;
+        }
+        for (String pair : metadata.split(",")) {
+            String[] parts = pair.trim().split(" ", 2);
+            if (parts[0].equals(key) && parts.length == 2) {
+                return new String(Base64.getDecoder().decode(parts[1].trim()), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
     private String getUserIdFromAuthentication(Authentication authentication) {
         log.info("🔍 Extraction de l'ID utilisateur de l'authentification");
         log.info("📋 Nom d'authentification: {}", authentication.getName());
@@ -74,6 +74,23 @@ public class CoursePublicController {
         }
     }
 
+    @Operation(summary = "Récupérer les cours similaires (les étudiants ont aussi suivi)")
+    @GetMapping("/{courseId}/similar")
+    public ResponseEntity<ApiResponse<List<CourseResponse>>> getSimilarCourses(
+            @PathVariable String courseId,
+            @RequestParam(defaultValue = "6") int limit) {
+
+        try {
+            List<CourseResponse> courses = coursePublicService.getSimilarCourses(courseId, limit);
+            return ResponseEntity.ok(ApiResponse.success("Cours similaires récupérés avec succès", courses));
+
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la récupération des cours similaires {}: {}", courseId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Erreur lors de la récupération des cours similaires"));
+        }
+    }
+
     @Operation(summary = "Récupérer les cours populaires")
     @GetMapping("/popular")
     public ResponseEntity<ApiResponse<List<CourseResponse>>> getPopularCourses(
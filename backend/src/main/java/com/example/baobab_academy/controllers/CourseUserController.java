@@ -5,10 +5,12 @@ import com.example.baobab_academy.dtos.CourseRatingRequest;
 import com.example.baobab_academy.dtos.CourseRatingResponse;
 import com.example.baobab_academy.dtos.CourseResponse;
 import com.example.baobab_academy.dtos.RatingStatsResponse;
+import com.example.baobab_academy.exceptions.StreamLimitExceededException;
 import com.example.baobab_academy.models.User;
 import com.example.baobab_academy.models.UserProgress;
 import com.example.baobab_academy.services.CoursePublicService;
 import com.example.baobab_academy.services.CourseRatingService;
+import com.example.baobab_academy.services.ProgressStreamService;
 import com.example.baobab_academy.services.UserProgressService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -37,6 +40,7 @@ public class CourseUserController {
     private final CoursePublicService coursePublicService;
     private final UserProgressService userProgressService;
     private final CourseRatingService courseRatingService; 
+    private final ProgressStreamService progressStreamService;
 
     @Operation(summary = "Récupérer un cours avec progression utilisateur")
     @GetMapping("/{courseId}")
@@ -68,6 +72,7 @@ public class CourseUserController {
                     response.setProgressPercentage(progress.getProgressPercentage());
                     response.setCompletedLessons(progress.getCompletedLessons());
                     response.setTotalLessons(progress.getTotalLessons());
+                    response.setNextLessonId(progress.getNextLessonId());
 
                     // 🆕 NOUVEAUTÉ : Récupérer la progression détaillée par leçon
                     List<UserProgress> detailedProgress = userProgressService.getDetailedCourseProgress(userId,
@@ -149,18 +154,53 @@ public class CourseUserController {
         }
     }
 
+    @Operation(summary = "Flux SSE des mises à jour de progression d'un cours (synchronisation multi-appareils)")
+    @GetMapping(value = "/{courseId}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamCourseProgress(
+            @PathVariable String courseId,
+            Authentication authentication) {
+
+        // Les erreurs sont rendues en JSON malgré l'en-tête Accept du flux (type de contenu imposé)
+        try {
+            String userId = getUserIdFromAuthentication(authentication);
+
+            if (!userProgressService.isUserEnrolledInCourse(userId, courseId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(ApiResponse.error("Vous n'êtes pas inscrit à ce cours"));
+            }
+
+            return ResponseEntity.ok(progressStreamService.subscribe(userId, courseId));
+
+        } catch (StreamLimitExceededException e) {
+            log.warn("⏳ Flux de progression refusé pour le cours {}: {}", courseId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de l'ouverture du flux de progression {}: {}", courseId, e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(ApiResponse.error("Erreur lors de l'ouverture du flux: " + e.getMessage()));
+        }
+    }
+
     @Operation(summary = "Mettre à jour la progression d'une leçon")
     @PutMapping("/lessons/{lessonId}/progress")
     public ResponseEntity<ApiResponse<Object>> updateLessonProgress(
             @PathVariable String lessonId,
             @RequestParam int progressPercentage,
             @RequestParam(defaultValue = "0") int watchTimeSeconds,
+            @RequestParam(required = false) Integer segmentStart,
+            @RequestParam(required = false) Integer segmentEnd,
+            @RequestParam(required = false) Integer durationSeconds,
             Authentication authentication) {
 
         try {
             String userId = getUserIdFromAuthentication(authentication);
 
-            userProgressService.updateLessonProgress(userId, lessonId, progressPercentage, watchTimeSeconds);
+            userProgressService.updateLessonProgress(userId, lessonId, progressPercentage, watchTimeSeconds,
+                    segmentStart, segmentEnd, durationSeconds);
 
             return ResponseEntity.ok(ApiResponse.success("Progression mise à jour"));
 
@@ -297,6 +337,7 @@ public class CourseUserController {
         dto.setCompleted(userProgress.isCompleted());
         dto.setProgressPercentage(userProgress.getProgressPercentage());
         dto.setWatchTimeSeconds(userProgress.getWatchTimeSeconds());
+        dto.setWatchedSeconds(userProgress.getWatchedSeconds());
         return dto;
     }
 
@@ -308,6 +349,7 @@ public class CourseUserController {
         private double progressPercentage;
         private int completedLessons;
         private int totalLessons;
+        private String nextLessonId;
         private List<UserLessonProgressDto> userProgress; // 🆕 AJOUTÉ
     }
 
@@ -318,5 +360,6 @@ public class CourseUserController {
         private boolean completed;
         private int progressPercentage;
         private int watchTimeSeconds;
+        private int watchedSeconds;
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.example.baobab_academy.controllers;
+
+import com.example.baobab_academy.services.LocalMediaStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sert les médias du stockage local : requêtes Range (lecture vidéo avec avance rapide), ETag et 304.
+ * Le corps est envoyé par sendfile (zéro copie) quand Tomcat le permet ; sinon, repli sur une copie
+ * par tampon vers le flux de la réponse. Les fichiers cachés et les écritures en cours (.part) ne sont jamais servis.
+ */
+@RestController
+@RequestMapping("/api/media")
+@ConditionalOnProperty(name = "app.media.store", havingValue = "local")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Médias", description = "Fichiers du stockage local")
+public class MediaController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final LocalMediaStore localMediaStore;
+
+    @Operation(summary = "Télécharger ou lire un média (Range supporté)")
+    @GetMapping("/**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String prefix = request.getContextPath() + LocalMediaStore.URL_PREFIX;
+        String key = URLDecoder.decode(request.getRequestURI().substring(prefix.length()), StandardCharsets.UTF_8);
+
+        Path file = localMediaStore.resolvePublic(key);
+        if (file == null || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        // Les clés sont horodatées et jamais réécrites : taille + date suffisent comme validateur fort
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] requested = parseRange(range, length);
+            if (requested == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (requested.length == 2) {
+                start = requested[0];
+                end = requested[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        response.setContentLengthLong(end - start + 1);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        // Zéro copie : le connecteur Tomcat envoie le fichier lui-même (sendfile) après le retour de la méthode
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        // Repli sans sendfile : le flux de la réponse n'est pas un canal, transferTo se réduit ici à une copie par tampon
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = end - start + 1;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        } catch (IOException e) {
+            log.debug("🔌 Lecture du média {} interrompue par le client: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Plage unique "bytes=a-b", "bytes=a-" ou "bytes=-n". Renvoie [début, fin], un tableau vide
+     * pour servir le fichier entier (plages multiples ou en-tête non reconnu), ou null si la plage est hors du fichier
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+
+        try {
+            String from = spec.substring(0, dash).trim();
+            String to = spec.substring(dash + 1).trim();
+            if (from.isEmpty()) {
+                long suffix = Long.parseLong(to);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[] {Math.max(0, length - suffix), length - 1};
+            }
+
+            long start = Long.parseLong(from);
+            long end = to.isEmpty() ? length - 1 : Math.min(Long.parseLong(to), length - 1);
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
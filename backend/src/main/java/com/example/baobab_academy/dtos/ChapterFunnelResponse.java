@@ -0,0 +1,15 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Data;
+import lombok.Builder;
+import java.util.List;
+
+@Data
+@Builder
+public class ChapterFunnelResponse {
+    private String chapterId;
+    private String chapterTitle;
+    private double completionRate;
+    private double lastLessonCompletionRate;
+    private List<LessonFunnelResponse> lessons;
+}
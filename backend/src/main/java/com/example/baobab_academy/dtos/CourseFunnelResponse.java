@@ -0,0 +1,15 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Data;
+import lombok.Builder;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class CourseFunnelResponse {
+    private String courseId;
+    private long enrolled;
+    private List<ChapterFunnelResponse> chapters;
+    private LocalDateTime computedAt;
+}
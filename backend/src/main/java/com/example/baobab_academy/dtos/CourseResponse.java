@@ -1,10 +1,12 @@
 package com.example.baobab_academy.dtos;
 
+import com.example.baobab_academy.models.MediaDescriptor;
 import com.example.baobab_academy.models.enums.CourseLevel;
 import com.example.baobab_academy.models.enums.CourseStatus;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class CourseResponse {
@@ -12,6 +14,8 @@ public class CourseResponse {
     private String title;
     private String description;
     private String coverImage;
+    private MediaDescriptor coverMedia;
+    private Map<String, String> coverImageVariants;
     private String categoryId;
     private String categoryName;
     private String instructorId;
@@ -24,4 +28,5 @@ public class CourseResponse {
     private LocalDateTime updatedAt;
     private List<ChapterResponse> chapters;
     private Long totalRatings;
+    private Long videoDurationSeconds; // Somme des durées des vidéos hébergées (détail du cours)
 }
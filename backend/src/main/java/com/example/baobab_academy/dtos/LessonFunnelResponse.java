@@ -0,0 +1,16 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Data;
+import lombok.Builder;
+
+@Data
+@Builder
+public class LessonFunnelResponse {
+    private String lessonId;
+    private String lessonTitle;
+    private long started;
+    private long completed;
+    private double averageProgress;
+    private double startRate;
+    private double completionRate;
+}
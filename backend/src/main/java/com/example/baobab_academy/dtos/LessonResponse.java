@@ -1,5 +1,6 @@
 package com.example.baobab_academy.dtos;
 
+import com.example.baobab_academy.models.MediaDescriptor;
 import com.example.baobab_academy.models.enums.ContentType;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -12,6 +13,8 @@ public class LessonResponse {
     private ContentType contentType;
     private String videoUrl;
     private String documentUrl;
+    private MediaDescriptor videoMedia;
+    private MediaDescriptor documentMedia;
     private String chapterId;
     private Integer orderIndex;
     private LocalDateTime createdAt;
@@ -0,0 +1,26 @@
+package com.example.baobab_academy.dtos;
+
+import com.example.baobab_academy.models.enums.MediaUploadStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'une tâche d'envoi vidéo exposé au client (sans le chemin du fichier de spool)
+ */
+@Data
+@Builder
+public class MediaUploadJobResponse {
+    private String id;
+    private String lessonId;
+    private String courseId;
+    private MediaUploadStatus status;
+    private long bytesTotal;
+    private long bytesUploaded;
+    private String resultUrl;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,21 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Résultat d'un upload, quel que soit le MediaStore utilisé
+ */
+@Data
+@Builder
+public class MediaUploadResult {
+    private String publicId;
+    private String url;
+    private String secureUrl;
+    private String format;
+    private Integer width;
+    private Integer height;
+    private Integer bytes;
+    private Double duration; // Pour les vidéos
+    private boolean success;
+}
@@ -0,0 +1,20 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * État d'un upload reprenable exposé au client (sans le chemin du fichier de spool)
+ */
+@Data
+@Builder
+public class ResumableUploadResponse {
+    private String id;
+    private String lessonId;
+    private long offset;
+    private long length;
+    private String jobId; // Tâche d'envoi, une fois l'upload complet
+    private LocalDateTime expiresAt;
+}
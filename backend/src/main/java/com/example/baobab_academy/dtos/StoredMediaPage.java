@@ -0,0 +1,25 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Page du listing des médias d'un MediaStore ; nextCursor null sur la dernière page
+ */
+@Data
+@Builder
+public class StoredMediaPage {
+    private List<Item> resources;
+    private String nextCursor;
+
+    @Data
+    @Builder
+    public static class Item {
+        private String publicId;
+        private Instant createdAt;
+        private long bytes;
+    }
+}
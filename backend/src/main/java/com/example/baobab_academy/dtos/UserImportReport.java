@@ -0,0 +1,25 @@
+package com.example.baobab_academy.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'un import d'utilisateurs. Seules les premières erreurs sont détaillées.
+ */
+@Data
+public class UserImportReport {
+    private long totalRows;
+    private long created;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Data
+    public static class RowError {
+        private final long line;
+        private final String email;
+        private final String message;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Un cours vient d'être publié
+ */
+public record CoursePublishedEvent(String courseId) implements DomainEvent {
+}
@@ -0,0 +1,7 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Les chapitres ou les leçons d'un cours ont changé
+ */
+public record CourseStructureChangedEvent(String courseId) implements DomainEvent {
+}
@@ -0,0 +1,7 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Événement métier publié sur le DomainEventBus après l'écriture qui l'a produit
+ */
+public interface DomainEvent {
+}
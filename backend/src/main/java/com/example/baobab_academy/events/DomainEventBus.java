@@ -0,0 +1,200 @@
+package com.example.baobab_academy.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus d'événements en mémoire basé sur un tampon circulaire pré-alloué (multi-producteurs).
+ * Chaque DomainEventListener possède son curseur et son thread, et consomme les événements par lots,
+ * hors du thread de la requête. Un producteur n'attend que si le consommateur le plus lent a un tour de retard.
+ */
+@Component
+@Slf4j
+public class DomainEventBus implements SmartLifecycle {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ObjectProvider<DomainEventListener> listenerProvider;
+    private final int batchSize;
+
+    private final DomainEvent[] ring;
+    private final AtomicLongArray published; // Séquence publiée dans chaque case
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+
+    private volatile List<Consumer> consumers = List.of();
+    private volatile boolean running = false;
+
+    public DomainEventBus(ObjectProvider<DomainEventListener> listenerProvider,
+            @Value("${app.events.ring-size:8192}") int ringSize,
+            @Value("${app.events.batch-size:256}") int batchSize) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("app.events.ring-size doit être une puissance de 2");
+        }
+        this.listenerProvider = listenerProvider;
+        this.batchSize = batchSize;
+        this.ring = new DomainEvent[ringSize];
+        this.published = new AtomicLongArray(ringSize);
+        this.mask = ringSize - 1;
+        for (int i = 0; i < ringSize; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Publie un événement après la validation de la transaction courante (ou immédiatement s'il n'y en a pas)
+     */
+    public void publish(DomainEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(event);
+                }
+            });
+        } else {
+            enqueue(event);
+        }
+    }
+
+    private void enqueue(DomainEvent event) {
+        List<Consumer> currentConsumers = consumers;
+        if (!running || currentConsumers.isEmpty()) {
+            log.debug("⚠️ Bus d'événements arrêté, événement ignoré: {}", event);
+            return;
+        }
+
+        long sequence = claimed.incrementAndGet();
+
+        // Attendre que le consommateur le plus lent ait libéré la case
+        long wrapPoint = sequence - ring.length;
+        while (wrapPoint > minimumCursor(currentConsumers)) {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+
+        int index = (int) (sequence & mask);
+        ring[index] = event;
+        published.set(index, sequence);
+
+        for (Consumer consumer : currentConsumers) {
+            consumer.wakeUp();
+        }
+    }
+
+    private long minimumCursor(List<Consumer> currentConsumers) {
+        long minimum = Long.MAX_VALUE;
+        for (Consumer consumer : currentConsumers) {
+            minimum = Math.min(minimum, consumer.cursor.get());
+        }
+        return minimum;
+    }
+
+    @Override
+    public void start() {
+        List<Consumer> started = new ArrayList<>();
+        long startSequence = claimed.get();
+
+        listenerProvider.orderedStream().forEach(listener -> {
+            Consumer consumer = new Consumer(listener, startSequence);
+            consumer.thread = Thread.ofVirtual()
+                    .name("domain-events-" + listener.getClass().getSimpleName())
+                    .unstarted(consumer);
+            started.add(consumer);
+        });
+
+        consumers = List.copyOf(started);
+        running = true;
+        consumers.forEach(consumer -> consumer.thread.start());
+
+        log.info("✅ Bus d'événements démarré: {} consommateurs, tampon de {} cases", consumers.size(), ring.length);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Consumer consumer : consumers) {
+            consumer.wakeUp();
+            try {
+                consumer.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.info("🛑 Bus d'événements arrêté");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Consommateur par lots : lit toutes les cases publiées contiguës après son curseur
+     */
+    private final class Consumer implements Runnable {
+
+        private final DomainEventListener listener;
+        private final AtomicLong cursor;
+        private final List<DomainEvent> batch;
+        private Thread thread;
+
+        private Consumer(DomainEventListener listener, long startSequence) {
+            this.listener = listener;
+            this.cursor = new AtomicLong(startSequence);
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        private void wakeUp() {
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                long next = cursor.get() + 1;
+                long last = next - 1;
+
+                while (last - next + 1 < batchSize && published.get((int) ((last + 1) & mask)) == last + 1) {
+                    last++;
+                }
+
+                if (last < next) {
+                    // Arrêt seulement une fois tout ce qui a été réservé consommé
+                    if (!running && cursor.get() >= claimed.get()) {
+                        return;
+                    }
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+
+                batch.clear();
+                for (long sequence = next; sequence <= last; sequence++) {
+                    batch.add(ring[(int) (sequence & mask)]);
+                }
+
+                try {
+                    listener.onEvents(batch);
+                } catch (Exception e) {
+                    log.error("❌ Erreur du consommateur {} sur un lot de {} événements: {}",
+                            listener.getClass().getSimpleName(), batch.size(), e.getMessage(), e);
+                }
+
+                batch.clear();
+                cursor.lazySet(last);
+            }
+        }
+    }
+}
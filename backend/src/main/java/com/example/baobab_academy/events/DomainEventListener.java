@@ -0,0 +1,12 @@
+package com.example.baobab_academy.events;
+
+import java.util.List;
+
+/**
+ * Consommateur du DomainEventBus. Chaque consommateur a son propre thread et reçoit les événements par lots,
+ * dans l'ordre de publication. La liste est réutilisée entre deux lots : ne pas la conserver.
+ */
+public interface DomainEventListener {
+
+    void onEvents(List<DomainEvent> events);
+}
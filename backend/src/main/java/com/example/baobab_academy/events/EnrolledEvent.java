@@ -0,0 +1,7 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Un utilisateur s'est inscrit à un cours
+ */
+public record EnrolledEvent(String userId, String courseId, String courseTitle) implements DomainEvent {
+}
@@ -0,0 +1,17 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Une inscription a été supprimée avec son cours. Les compteurs sont ceux de l'inscription au moment
+ * de la suppression, pour que les statistiques matérialisées retirent exactement ce qu'elles avaient compté.
+ */
+public record EnrollmentRemovedEvent(String userId, String courseId, long completedLessons, long totalLessons,
+        long watchTimeSeconds) implements DomainEvent {
+
+    public boolean isCourseCompleted() {
+        return totalLessons > 0 && completedLessons >= totalLessons;
+    }
+
+    public boolean isCourseInProgress() {
+        return completedLessons > 0 && !isCourseCompleted();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Une leçon vient d'être terminée. Les compteurs sont ceux observés au moment de l'écriture,
+ * ce qui permet aux consommateurs de détecter le démarrage et la fin du cours sans relire la base.
+ */
+public record LessonCompletedEvent(String userId, String courseId, String lessonId, String lessonTitle,
+        long completedLessons, long totalLessons) implements DomainEvent {
+
+    public boolean isCourseCompleted() {
+        return totalLessons > 0 && completedLessons == totalLessons;
+    }
+}
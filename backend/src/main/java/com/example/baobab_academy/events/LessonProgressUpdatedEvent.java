@@ -0,0 +1,10 @@
+package com.example.baobab_academy.events;
+
+/**
+ * La progression d'une leçon a été mise à jour (heartbeat du lecteur).
+ * segmentStart/segmentEnd : segment vu retenu par le serveur (null pour les anciens clients).
+ */
+public record LessonProgressUpdatedEvent(String userId, String courseId, String lessonId,
+        int previousPercentage, int progressPercentage, long watchTimeDeltaSeconds,
+        Integer segmentStart, Integer segmentEnd, Integer durationSeconds) implements DomainEvent {
+}
@@ -0,0 +1,8 @@
+package com.example.baobab_academy.events;
+
+/**
+ * Une note a été créée, modifiée ou supprimée (previousRating null = création, newRating null = suppression)
+ */
+public record RatingChangedEvent(String courseId, String userId, Integer previousRating, Integer newRating)
+        implements DomainEvent {
+}
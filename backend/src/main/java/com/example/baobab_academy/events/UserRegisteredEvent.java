@@ -0,0 +1,9 @@
+package com.example.baobab_academy.events;
+
+import com.example.baobab_academy.models.enums.UserRole;
+
+/**
+ * Un nouveau compte a été créé
+ */
+public record UserRegisteredEvent(String userId, UserRole role) implements DomainEvent {
+}
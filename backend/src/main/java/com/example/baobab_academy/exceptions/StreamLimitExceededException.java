@@ -0,0 +1,7 @@
+package com.example.baobab_academy.exceptions;
+
+public class StreamLimitExceededException extends RuntimeException {
+    public StreamLimitExceededException(String message) {
+        super(message);
+    }
+}
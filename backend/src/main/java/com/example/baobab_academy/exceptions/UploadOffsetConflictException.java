@@ -0,0 +1,7 @@
+package com.example.baobab_academy.exceptions;
+
+public class UploadOffsetConflictException extends RuntimeException {
+    public UploadOffsetConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.baobab_academy.exceptions;
+
+public class UploadQueueFullException extends RuntimeException {
+    public UploadQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
@@ -28,6 +29,7 @@ public class Chapter {
     private String title;
 
     @NotNull(message = "Le cours est obligatoire")
+    @Indexed
     private String courseId; // Référence vers Course
 
     @NotNull(message = "L'ordre est obligatoire")
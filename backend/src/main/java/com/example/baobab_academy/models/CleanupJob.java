@@ -0,0 +1,61 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+
+import com.example.baobab_academy.models.enums.CleanupJobStatus;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tâche de nettoyage en arrière-plan (suppression en cascade). Chaque phase est idempotente :
+ * une tâche interrompue est reprise au démarrage depuis sa phase courante.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "cleanup_jobs")
+@CompoundIndex(name = "type_target_idx", def = "{'type': 1, 'targetId': 1}")
+@CompoundIndex(name = "status_idx", def = "{'status': 1}")
+public class CleanupJob {
+    @Id
+    private String id;
+
+    private CleanupJobType type;
+
+    private String targetId;
+
+    private String scopeId; // Parent de la cible (cours d'un chapitre supprimé)
+
+    @Builder.Default
+    private CleanupJobStatus status = CleanupJobStatus.PENDING;
+
+    private String phase; // Phase en cours
+
+    @Builder.Default
+    private Map<String, Long> deletedCounts = new HashMap<>(); // Documents supprimés par collection
+
+    @Builder.Default
+    private Map<String, Set<String>> checkpoints = new HashMap<>(); // Identifiants retenus par une phase, relus à la reprise
+
+    @Builder.Default
+    private int attempts = 0;
+
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
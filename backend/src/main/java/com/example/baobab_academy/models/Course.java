@@ -8,6 +8,7 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.Indexed;
 
 import com.example.baobab_academy.models.enums.CourseLevel;
 import com.example.baobab_academy.models.enums.CourseStatus;
@@ -17,6 +18,7 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.DecimalMin;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -37,6 +39,12 @@ public class Course {
 
     private String coverImage; 
 
+    private MediaDescriptor coverMedia; // Description structurée de coverImage (stockage, publicId, dimensions...)
+
+    private Map<String, String> coverImageVariants; // URLs des variantes (card, hero, thumbnail), clés par hash du contenu
+
+    private String coverVariantSetId; // Jeu de variantes référencé (image_variants), libéré au remplacement ou à la suppression
+
     @NotNull(message = "La catégorie est obligatoire")
     private String categoryId;
 
@@ -56,6 +64,7 @@ public class Course {
     @Builder.Default
     private Double rating = 0.0; // Note moyenne sur 5
 
+    @Indexed
     @Builder.Default
     private CourseStatus status = CourseStatus.DRAFT;
 
@@ -0,0 +1,60 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inscription d'un utilisateur à un cours avec son vecteur de complétion :
+ * le bit n°ordinal est levé quand la leçon d'ordinal correspondant est terminée.
+ * Les mots de 64 bits sont indexés par leur rang ("0", "1", ...) pour que $bit puisse créer un mot absent.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "course_enrollments")
+@CompoundIndex(name = "user_course_idx", def = "{'userId': 1, 'courseId': 1}", unique = true)
+@CompoundIndex(name = "course_idx", def = "{'courseId': 1}")
+public class CourseEnrollment {
+    @Id
+    private String id;
+
+    private String userId;
+
+    private String courseId;
+
+    @Builder.Default
+    private Map<String, Long> completionWords = new HashMap<>();
+
+    @Builder.Default
+    private int completedCount = 0; // Nombre de bits levés
+
+    private LocalDateTime enrolledAt;
+
+    private LocalDateTime updatedAt;
+
+    public static String wordKey(int ordinal) {
+        return Integer.toString(ordinal >>> 6);
+    }
+
+    public static long bitMask(int ordinal) {
+        return 1L << (ordinal & 63);
+    }
+
+    public boolean isCompleted(Integer ordinal) {
+        if (ordinal == null || completionWords == null) {
+            return false;
+        }
+        Long word = completionWords.get(wordKey(ordinal));
+        return word != null && (word & bitMask(ordinal)) != 0;
+    }
+}
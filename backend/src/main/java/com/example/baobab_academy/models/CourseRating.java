@@ -9,6 +9,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Min;
@@ -30,6 +31,7 @@ public class CourseRating {
     private String courseId;
 
     @NotNull(message = "L'ID de l'utilisateur est obligatoire")
+    @Indexed
     private String userId;
 
     @NotNull(message = "La note est obligatoire")
@@ -0,0 +1,50 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ligne creuse de la matrice de co-inscription d'un cours ("les étudiants ont aussi suivi").
+ * L'identifiant du document est l'identifiant du cours.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "course_recommendations")
+public class CourseRecommendation {
+    @Id
+    private String id; // = courseId
+
+    @Builder.Default
+    private long enrollments = 0; // Nombre d'inscriptions au cours
+
+    @Builder.Default
+    private Map<String, Long> coEnrollments = new HashMap<>(); // autre courseId -> étudiants communs
+
+    @Builder.Default
+    private List<SimilarCourse> similarCourses = new ArrayList<>(); // Top-N précalculé
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SimilarCourse {
+        private String courseId;
+        private long coEnrollments;
+        private double score; // Similarité cosinus
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Variantes générées pour une image source, id = SHA-256 du contenu : une image déjà traitée n'est jamais retraitée.
+ * refCount compte les cours qui l'utilisent en couverture ; les variantes sont supprimées à zéro.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "image_variants")
+@CompoundIndex(name = "thumbnail_public_id_idx", def = "{'media.thumbnail.publicId': 1}")
+@CompoundIndex(name = "card_public_id_idx", def = "{'media.card.publicId': 1}")
+@CompoundIndex(name = "hero_public_id_idx", def = "{'media.hero.publicId': 1}")
+public class ImageVariantSet {
+    @Id
+    private String id;
+
+    private Map<String, String> variants; // Nom de variante -> URL
+
+    private Map<String, MediaDescriptor> media; // Nom de variante -> descripteur (suppression, réconciliation)
+
+    private int sourceWidth;
+
+    private int sourceHeight;
+
+    private long refCount;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.example.baobab_academy.models.enums.ContentType;
@@ -39,13 +40,22 @@ public class Lesson {
     // 🆕 NOUVEAU CHAMP POUR LES DOCUMENTS
     private String documentUrl; // URL Cloudinary pour les documents uploadés
 
+    private MediaDescriptor videoMedia; // Vidéo hébergée (null pour une URL externe)
+
+    private MediaDescriptor documentMedia;
+
     @NotNull(message = "Le chapitre est obligatoire")
+    @Indexed
     private String chapterId; // Référence vers Chapter
 
     @NotNull(message = "L'ordre est obligatoire")
     @Min(value = 1, message = "L'ordre doit être supérieur à 0")
     private Integer orderIndex;
 
+    private Integer ordinal; // Position stable dans le cours (bit du vecteur de complétion), jamais réutilisée
+
+    private String mediaReleasedBy; // Nettoyage : lot qui a libéré les références aux médias (rejeu sans double décrément)
+
     @CreatedDate
     private LocalDateTime createdAt;
 
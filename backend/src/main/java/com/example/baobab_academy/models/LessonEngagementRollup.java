@@ -0,0 +1,53 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Histogrammes d'engagement pré-agrégés d'un cours, un document par heure (id = courseId:yyyy-MM-ddTHH)
+ * et un document cumulé (id = courseId:total, hour = null). Les compteurs ne sont modifiés que par $inc.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "lesson_engagement_rollups")
+@CompoundIndex(name = "course_hour_idx", def = "{'courseId': 1, 'hour': 1}")
+public class LessonEngagementRollup {
+    @Id
+    private String id;
+
+    private String courseId;
+
+    private LocalDateTime hour; // Début de l'heure, null pour le cumul
+
+    @Builder.Default
+    private Map<String, LessonHistogram> lessons = new HashMap<>(); // Par lessonId
+
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class LessonHistogram {
+        @Builder.Default
+        private Map<String, Long> positionSeconds = new HashMap<>(); // Secondes vues par tranche de la vidéo
+
+        @Builder.Default
+        private Map<String, Long> reached = new HashMap<>(); // Apprenants ayant atteint chaque palier de 10 %
+
+        private long started; // Apprenants ayant commencé la leçon
+
+        private long heartbeats;
+    }
+}
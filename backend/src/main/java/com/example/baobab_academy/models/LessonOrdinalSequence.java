@@ -0,0 +1,25 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Compteur des ordinaux de leçons d'un cours. Séparé du document Course pour qu'une sauvegarde
+ * complète du cours ne puisse pas faire reculer la séquence.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "lesson_ordinal_sequences")
+public class LessonOrdinalSequence {
+    @Id
+    private String id; // courseId
+
+    @Builder.Default
+    private int next = 0; // Prochain ordinal à attribuer
+}
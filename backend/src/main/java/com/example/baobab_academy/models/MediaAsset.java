@@ -0,0 +1,48 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Média stocké identifié par son contenu, id = resourceType:sha256.
+ * refCount compte les leçons qui pointent vers l'URL ; la ressource n'est supprimée qu'à zéro.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "media_assets")
+public class MediaAsset {
+    @Id
+    private String id;
+
+    private String contentHash; // SHA-256 hexadécimal
+
+    private String resourceType; // video ou raw
+
+    @Indexed
+    private String url;
+
+    private String publicId;
+
+    private long bytes;
+
+    private MediaDescriptor media; // Descripteur copié dans les leçons qui rattachent ce contenu
+
+    private long refCount;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public static String key(String resourceType, String contentHash) {
+        return resourceType + ":" + contentHash;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Suppression de média en attente (outbox), id = resourceType:publicId pour dédoublonner.
+ * Le document est retiré une fois la ressource supprimée côté Cloudinary ; nextAttemptAt = null après
+ * épuisement des tentatives.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "media_deletions")
+public class MediaDeletion {
+    @Id
+    private String id;
+
+    private String publicId;
+
+    private String resourceType; // image, video ou raw
+
+    private int attempts;
+
+    @Indexed
+    private LocalDateTime nextAttemptAt;
+
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    public static String key(String resourceType, String publicId) {
+        return resourceType + ":" + publicId;
+    }
+}
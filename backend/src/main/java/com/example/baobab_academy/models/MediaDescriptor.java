@@ -0,0 +1,51 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * Description d'un média stocké, embarquée dans Course et Lesson à côté de l'URL : suppression,
+ * réconciliation et durées sans analyser l'URL. publicId est null pour un média hérité pas encore migré
+ * (MediaDescriptorMigration) : un tel média n'est jamais supprimé sur la foi de son URL.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaDescriptor {
+    private String store; // cloudinary ou local
+
+    private String publicId;
+
+    private String resourceType; // image, video ou raw
+
+    private String url;
+
+    private String format;
+
+    private Long bytes;
+
+    private Double durationSeconds; // Vidéos
+
+    private Integer width;
+
+    private Integer height;
+
+    private String contentHash; // SHA-256, si calculé à l'upload
+
+    /**
+     * Descripteur d'un champ média : celui enregistré s'il correspond encore à l'URL, sinon un descripteur
+     * réduit à l'URL (données antérieures à la migration), ou null sans URL
+     */
+    public static MediaDescriptor of(MediaDescriptor media, String url, String resourceType) {
+        if (url == null) {
+            return null;
+        }
+        if (media != null && url.equals(media.getUrl())) {
+            return media;
+        }
+        return MediaDescriptor.builder().url(url).resourceType(resourceType).build();
+    }
+}
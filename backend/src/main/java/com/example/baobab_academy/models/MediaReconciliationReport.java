@@ -0,0 +1,58 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.baobab_academy.models.enums.CleanupJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rapport d'une réconciliation des médias : références vivantes en base comparées au listing du stockage.
+ * En mode dryRun, les orphelins sont seulement comptés et échantillonnés, rien n'est supprimé.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "media_reconciliations")
+public class MediaReconciliationReport {
+    @Id
+    private String id;
+
+    private boolean dryRun;
+
+    @Builder.Default
+    private CleanupJobStatus status = CleanupJobStatus.RUNNING;
+
+    private long liveReferences; // Identifiants distincts référencés en base
+
+    @Builder.Default
+    private Map<String, Long> scanned = new LinkedHashMap<>(); // Médias listés par type de ressource
+
+    @Builder.Default
+    private Map<String, Long> orphans = new LinkedHashMap<>(); // Orphelins plus anciens que le délai de grâce
+
+    private long skippedRecent; // Orphelins apparents encore dans le délai de grâce (upload en cours...)
+
+    private long scheduledDeletions; // Suppressions confiées à l'outbox (0 en dryRun)
+
+    private boolean truncated; // Plafond de suppressions par exécution atteint
+
+    @Builder.Default
+    private List<String> orphanSample = new ArrayList<>();
+
+    private String error;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+}
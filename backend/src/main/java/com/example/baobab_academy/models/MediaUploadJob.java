@@ -0,0 +1,55 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.baobab_academy.models.enums.MediaUploadStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Upload de vidéo de leçon en arrière-plan : le fichier est mis en spool sur disque,
+ * puis envoyé à Cloudinary par le worker qui met la leçon à jour à la fin
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "media_upload_jobs")
+public class MediaUploadJob {
+    @Id
+    private String id;
+
+    private String lessonId;
+
+    private String courseId;
+
+    private String instructorId;
+
+    @Indexed
+    @Builder.Default
+    private MediaUploadStatus status = MediaUploadStatus.QUEUED;
+
+    private String spoolPath; // Fichier temporaire local (supprimé à la fin)
+
+    private String contentHash; // SHA-256 calculé pendant la mise en spool (déduplication)
+
+    private long bytesTotal;
+
+    private long bytesUploaded; // Progression de l'envoi vers Cloudinary
+
+    private String resultUrl;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime completedAt;
+}
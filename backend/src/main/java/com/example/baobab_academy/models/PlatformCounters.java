@@ -0,0 +1,35 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs globaux de la plateforme (document unique), maintenus par $inc et réconciliés périodiquement
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "platform_counters")
+public class PlatformCounters {
+    public static final String GLOBAL_ID = "global";
+
+    @Id
+    private String id;
+
+    private long enrollments;
+
+    private long completions; // Cours terminés
+
+    private long ratings;
+
+    private LocalDateTime rebuiltAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDate;
+
+/**
+ * Activité de la plateforme sur une journée (id = yyyy-MM-dd), pour les courbes de croissance
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "platform_daily_stats")
+public class PlatformDailyStats {
+    @Id
+    private String id;
+
+    @Indexed
+    private LocalDate date;
+
+    private long newUsers;
+
+    private long publishedCourses;
+
+    private long enrollments;
+
+    private long completions;
+
+    private long ratings;
+}
@@ -0,0 +1,50 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Upload vidéo reprenable (protocole inspiré de tus) : les morceaux sont ajoutés à un fichier de spool
+ * local et offset ne progresse qu'après fsync. Une fois complet, le fichier est confié à MediaUploadService.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "resumable_uploads")
+public class ResumableUpload {
+    @Id
+    private String id;
+
+    private String lessonId;
+
+    private String courseId;
+
+    private String instructorId;
+
+    private String filename;
+
+    private String extension;
+
+    private long length; // Taille totale annoncée (Upload-Length)
+
+    private long offset; // Octets reçus et synchronisés sur disque (Upload-Offset)
+
+    private String spoolPath;
+
+    private String jobId; // Tâche d'envoi créée quand le fichier est complet
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Indexed
+    private LocalDateTime expiresAt; // Uploads incomplets abandonnés au-delà
+}
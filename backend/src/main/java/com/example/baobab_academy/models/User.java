@@ -20,6 +20,7 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -46,8 +47,22 @@ public class User implements UserDetails {
     @Size(min = 2, max = 50, message = "Le nom doit contenir entre 2 et 50 caractères")
     private String lastName;
 
+    @Indexed
     private UserRole role = UserRole.USER;
 
+    // Clés de recherche normalisées (minuscules, sans accents), calculées à chaque sauvegarde
+    @Indexed
+    private String searchFirstName;
+
+    @Indexed
+    private String searchLastName;
+
+    @Indexed
+    private String searchEmail;
+
+    @Indexed
+    private List<String> emailGrams; // Trigrammes de l'email pour la recherche par infixe
+
     @CreatedDate
     private LocalDateTime createdAt;
 
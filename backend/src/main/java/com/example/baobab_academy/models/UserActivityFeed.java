@@ -0,0 +1,50 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.example.baobab_academy.models.enums.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fil d'activité d'un utilisateur : tableau borné, les entrées les plus anciennes sont évincées.
+ * L'identifiant du document est l'identifiant de l'utilisateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "user_activity_feeds")
+public class UserActivityFeed {
+    @Id
+    private String id; // = userId
+
+    @Builder.Default
+    private List<ActivityEntry> entries = new ArrayList<>(); // Du plus ancien au plus récent
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ActivityEntry {
+        private String id;
+        private ActivityType type;
+        private String description;
+        private String courseId;
+        private String courseTitle; // Dénormalisé à l'écriture
+        private String lessonId;
+        private String lessonTitle; // Dénormalisé à l'écriture
+        private LocalDateTime createdAt;
+    }
+}
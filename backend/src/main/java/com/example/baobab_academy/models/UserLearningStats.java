@@ -0,0 +1,44 @@
+package com.example.baobab_academy.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Statistiques d'apprentissage matérialisées d'un utilisateur.
+ * L'identifiant du document est l'identifiant de l'utilisateur.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "user_learning_stats")
+public class UserLearningStats {
+    @Id
+    private String id; // = userId
+
+    @Builder.Default
+    private int enrolledCourses = 0;
+
+    @Builder.Default
+    private int completedCourses = 0;
+
+    @Builder.Default
+    private int inProgressCourses = 0; // Au moins une leçon terminée, cours non terminé
+
+    @Builder.Default
+    private long totalWatchTimeSeconds = 0;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public double getCompletionRate() {
+        return enrolledCourses == 0 ? 0.0 : (double) completedCourses / enrolledCourses * 100;
+    }
+}
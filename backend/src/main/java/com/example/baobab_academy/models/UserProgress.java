@@ -12,6 +12,8 @@ import org.springframework.data.mongodb.core.index.CompoundIndex;
 
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -20,6 +22,7 @@ import java.time.LocalDateTime;
 @Document(collection = "user_progress")
 @CompoundIndex(name = "user_lesson_idx", def = "{'userId': 1, 'lessonId': 1}", unique = true)
 @CompoundIndex(name = "user_course_idx", def = "{'userId': 1, 'courseId': 1}")
+@CompoundIndex(name = "course_lesson_idx", def = "{'courseId': 1, 'lessonId': 1}")
 public class UserProgress {
     @Id
     private String id;
@@ -42,6 +45,14 @@ public class UserProgress {
     @Builder.Default
     private int progressPercentage = 0; // Pourcentage de progression (0-100)
 
+    @Builder.Default
+    private List<Integer> watchedRuns = new ArrayList<>(); // Intervalles vus [début, fin[ aplatis, triés et disjoints
+
+    @Builder.Default
+    private int watchedSeconds = 0; // Secondes distinctes réellement vues (couverture)
+
+    private Integer durationSeconds; // Durée de la vidéo : descripteur serveur, sinon lecteur (statistiques seulement)
+
     private LocalDateTime completedAt; // Date de completion
 
     @CreatedDate
@@ -59,6 +70,62 @@ public class UserProgress {
         this.progressPercentage = 0;
     }
 
+    /**
+     * Fusionne un segment vu [start, end[ dans les intervalles. Au-delà de maxRuns intervalles,
+     * le plus court est abandonné : le coût et la taille restent bornés à chaque heartbeat.
+     */
+    public int recordWatchedSegment(int start, int end, int maxRuns) {
+        List<Integer> runs = watchedRuns != null ? watchedRuns : List.of();
+        List<Integer> merged = new ArrayList<>(runs.size() + 2);
+        boolean inserted = false;
+
+        for (int i = 0; i + 1 < runs.size(); i += 2) {
+            int runStart = runs.get(i);
+            int runEnd = runs.get(i + 1);
+            if (runEnd < start) {
+                merged.add(runStart);
+                merged.add(runEnd);
+            } else if (runStart > end) {
+                if (!inserted) {
+                    merged.add(start);
+                    merged.add(end);
+                    inserted = true;
+                }
+                merged.add(runStart);
+                merged.add(runEnd);
+            } else {
+                start = Math.min(start, runStart);
+                end = Math.max(end, runEnd);
+            }
+        }
+        if (!inserted) {
+            merged.add(start);
+            merged.add(end);
+        }
+
+        // Au-delà du plafond, la plage la plus courte est oubliée : la couverture ne peut que baisser,
+        // jamais compter des secondes non vues (réunir deux plages compterait l'écart entre elles)
+        while (merged.size() / 2 > maxRuns) {
+            int shortest = 0;
+            for (int i = 2; i + 1 < merged.size(); i += 2) {
+                if (merged.get(i + 1) - merged.get(i) < merged.get(shortest + 1) - merged.get(shortest)) {
+                    shortest = i;
+                }
+            }
+            merged.remove(shortest + 1);
+            merged.remove(shortest);
+        }
+
+        int covered = 0;
+        for (int i = 0; i + 1 < merged.size(); i += 2) {
+            covered += merged.get(i + 1) - merged.get(i);
+        }
+
+        this.watchedRuns = merged;
+        this.watchedSeconds = covered;
+        return covered;
+    }
+
     public void markAsCompleted() {
         this.completed = true;
         this.progressPercentage = 100;
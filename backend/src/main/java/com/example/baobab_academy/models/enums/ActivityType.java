@@ -0,0 +1,7 @@
+package com.example.baobab_academy.models.enums;
+
+public enum ActivityType {
+    COURSE_ENROLLED,
+    LESSON_COMPLETED,
+    COURSE_COMPLETED
+}
@@ -0,0 +1,8 @@
+package com.example.baobab_academy.models.enums;
+
+public enum CleanupJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
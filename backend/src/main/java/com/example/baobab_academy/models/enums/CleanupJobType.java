@@ -0,0 +1,7 @@
+package com.example.baobab_academy.models.enums;
+
+public enum CleanupJobType {
+    USER_DELETION,
+    COURSE_DELETION,
+    CHAPTER_DELETION
+}
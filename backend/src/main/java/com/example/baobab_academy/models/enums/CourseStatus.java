@@ -3,5 +3,6 @@ package com.example.baobab_academy.models.enums;
 public enum CourseStatus {
     DRAFT,
     PUBLISHED,
-    ARCHIVED
+    ARCHIVED,
+    DELETED // Suppression logique, nettoyage en arrière-plan
 }
\ No newline at end of file
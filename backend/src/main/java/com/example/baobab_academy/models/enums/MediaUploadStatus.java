@@ -0,0 +1,8 @@
+package com.example.baobab_academy.models.enums;
+
+public enum MediaUploadStatus {
+    QUEUED,
+    UPLOADING,
+    COMPLETED,
+    FAILED
+}
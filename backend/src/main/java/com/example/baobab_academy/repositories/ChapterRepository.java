@@ -4,6 +4,7 @@ import com.example.baobab_academy.models.Chapter;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,6 +13,9 @@ public interface ChapterRepository extends MongoRepository<Chapter, String> {
     // Trouver les chapitres d'un cours, ordonnés par orderIndex
     List<Chapter> findByCourseIdOrderByOrderIndex(String courseId);
     
+    // Trouver les chapitres de plusieurs cours en une seule requête
+    List<Chapter> findByCourseIdIn(Collection<String> courseIds);
+    
     // Compter les chapitres d'un cours
     long countByCourseId(String courseId);
     
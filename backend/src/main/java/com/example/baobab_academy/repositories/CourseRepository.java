@@ -15,6 +15,7 @@ public interface CourseRepository extends MongoRepository<Course, String> {
     
     // Trouver les cours par instructeur
     Page<Course> findByInstructorId(String instructorId, Pageable pageable);
+    Page<Course> findByInstructorIdAndStatusNot(String instructorId, CourseStatus status, Pageable pageable);
     List<Course> findByInstructorId(String instructorId);
     
     // Trouver les cours par statut
@@ -14,4 +14,5 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     List<User> findAllByRole(UserRole role);
+    long countByRole(UserRole role);
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.example.baobab_academy.services;
 
 import com.example.baobab_academy.dtos.UserResponse;
+import com.example.baobab_academy.models.CleanupJob;
 import com.example.baobab_academy.models.User;
+import com.example.baobab_academy.models.enums.CleanupJobType;
 import com.example.baobab_academy.models.enums.UserRole;
 import com.example.baobab_academy.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.core.MongoTemplate;
@@ -15,9 +18,10 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -27,18 +31,18 @@ public class AdminService {
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
     private final MongoTemplate mongoTemplate;
+    private final PlatformStatsService platformStatsService;
+    private final CleanupJobService cleanupJobService;
+
+    @Value("${app.users.infix-search:true}")
+    private boolean infixSearch;
 
     public Page<UserResponse> getAllUsers(Pageable pageable, String search) {
         Query query = new Query();
 
-        // Ajouter la recherche si fournie
+        // Ajouter la recherche si fournie (préfixe ancré sur les clés normalisées indexées)
         if (search != null && !search.trim().isEmpty()) {
-            Criteria searchCriteria = new Criteria().orOperator(
-                Criteria.where("firstName").regex(search, "i"),
-                Criteria.where("lastName").regex(search, "i"),
-                Criteria.where("email").regex(search, "i")
-            );
-            query.addCriteria(searchCriteria);
+            query.addCriteria(buildSearchCriteria(UserSearchKeys.normalize(search)));
         }
 
         // Appliquer la pagination
@@ -62,7 +66,28 @@ public class AdminService {
         );
     }
 
-    public void deleteUser(String userId) {
+    private Criteria buildSearchCriteria(String term) {
+        String prefix = "^" + Pattern.quote(term);
+        List<Criteria> alternatives = new ArrayList<>(List.of(
+                Criteria.where("searchFirstName").regex(prefix),
+                Criteria.where("searchLastName").regex(prefix),
+                Criteria.where("searchEmail").regex(prefix)));
+
+        // Infixe dans l'email : l'index des trigrammes sélectionne les candidats, la regex élimine les faux positifs
+        List<String> grams = UserSearchKeys.grams(term);
+        if (infixSearch && !grams.isEmpty()) {
+            alternatives.add(new Criteria().andOperator(
+                    Criteria.where("emailGrams").all(grams),
+                    Criteria.where("searchEmail").regex(Pattern.quote(term))));
+        }
+
+        return new Criteria().orOperator(alternatives);
+    }
+
+    /**
+     * Supprime le compte immédiatement et planifie la suppression en cascade de ses données
+     */
+    public CleanupJob deleteUser(String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
         
@@ -71,8 +96,15 @@ public class AdminService {
             throw new RuntimeException("Impossible de supprimer un administrateur");
         }
         
+        // La tâche est persistée avant la suppression du compte : la cascade ne peut pas être perdue
+        CleanupJob job = cleanupJobService.submit(CleanupJobType.USER_DELETION, userId);
         userRepository.delete(user);
-        log.info("Utilisateur supprimé: {}", userId);
+        log.info("Utilisateur supprimé: {} (nettoyage en arrière-plan: {})", userId, job.getId());
+        return job;
+    }
+
+    public CleanupJob getCleanupJob(String jobId) {
+        return cleanupJobService.getJob(jobId);
     }
 
     public UserResponse changeUserRole(String userId, String roleString) {
@@ -91,18 +123,8 @@ public class AdminService {
         }
     }
 
-    public Map<String, Object> getPlatformStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // Compter les utilisateurs par rôle
-        long totalUsers = userRepository.count();
-        long totalAdmins = userRepository.findAllByRole(UserRole.ADMIN).size();
-        long totalStudents = userRepository.findAllByRole(UserRole.USER).size();
-        
-        stats.put("totalUsers", totalUsers);
-        stats.put("totalAdmins", totalAdmins);
-        stats.put("totalStudents", totalStudents);
-        
-        return stats;
+    public Map<String, Object> getPlatformStats(int days) {
+        // Comptages indexés et compteurs incrémentaux : aucun document utilisateur chargé
+        return platformStatsService.getPlatformStats(days);
     }
 }
\ No newline at end of file
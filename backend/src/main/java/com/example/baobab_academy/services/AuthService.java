@@ -5,6 +5,8 @@ import com.example.baobab_academy.dtos.LoginRequest;
 import com.example.baobab_academy.dtos.RegisterRequest;
 import com.example.baobab_academy.dtos.UpdateProfileRequest;
 import com.example.baobab_academy.dtos.UserResponse;
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.UserRegisteredEvent;
 import com.example.baobab_academy.exceptions.EmailAlreadyExistsException;
 import com.example.baobab_academy.exceptions.InvalidCredentialsException;
 import com.example.baobab_academy.exceptions.PasswordMismatchException;
@@ -32,6 +34,7 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final ModelMapper modelMapper;
+    private final DomainEventBus domainEventBus;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -58,6 +61,7 @@ public class AuthService {
         // Sauvegarder l'utilisateur
         User savedUser = userRepository.save(user);
         log.info("Utilisateur créé avec succès: {}", savedUser.getEmail());
+        domainEventBus.publish(new UserRegisteredEvent(savedUser.getId(), savedUser.getRole()));
 
         // Authentifier automatiquement l'utilisateur
         Authentication authentication = authenticationManager.authenticate(
@@ -0,0 +1,29 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Nettoyage des leçons d'un chapitre déjà retiré de la structure du cours (scopeId = cours)
+ */
+@Component
+@RequiredArgsConstructor
+public class ChapterDeletionHandler implements CleanupJobHandler {
+
+    private final CourseContentCleaner courseContentCleaner;
+
+    @Override
+    public CleanupJobType type() {
+        return CleanupJobType.CHAPTER_DELETION;
+    }
+
+    @Override
+    public void run(CleanupJob job, CleanupJobService.Progress progress) {
+        progress.phase("lessons");
+        courseContentCleaner.deleteLessons(job.getScopeId(), List.of(job.getTargetId()), true, progress);
+    }
+}
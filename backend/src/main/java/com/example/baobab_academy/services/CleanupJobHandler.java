@@ -0,0 +1,15 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+
+/**
+ * Exécute un type de tâche de nettoyage. Les phases doivent être idempotentes : une tâche
+ * interrompue est relancée depuis le début au redémarrage.
+ */
+public interface CleanupJobHandler {
+
+    CleanupJobType type();
+
+    void run(CleanupJob job, CleanupJobService.Progress progress);
+}
@@ -0,0 +1,189 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.enums.CleanupJobStatus;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Planifie et exécute les tâches de nettoyage sur un thread dédié (une à la fois, pour borner la charge
+ * sur la base). L'avancement est persisté dans cleanup_jobs ; les tâches non terminées sont reprises au démarrage.
+ */
+@Service
+@Slf4j
+public class CleanupJobService {
+
+    private static final List<CleanupJobStatus> ACTIVE = List.of(CleanupJobStatus.PENDING, CleanupJobStatus.RUNNING);
+
+    private final MongoTemplate mongoTemplate;
+    private final Map<CleanupJobType, CleanupJobHandler> handlers;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("cleanup-jobs").daemon(true).factory());
+
+    public CleanupJobService(MongoTemplate mongoTemplate, List<CleanupJobHandler> handlers) {
+        this.mongoTemplate = mongoTemplate;
+        this.handlers = handlers.stream().collect(Collectors.toMap(CleanupJobHandler::type, Function.identity()));
+    }
+
+    /**
+     * Crée (ou retrouve, si elle est déjà en cours) une tâche et la met en file
+     */
+    public CleanupJob submit(CleanupJobType type, String targetId) {
+        return submit(type, targetId, null);
+    }
+
+    public CleanupJob submit(CleanupJobType type, String targetId, String scopeId) {
+        CleanupJob existing = mongoTemplate.findOne(Query.query(Criteria.where("type").is(type)
+                .and("targetId").is(targetId)
+                .and("status").in(ACTIVE)), CleanupJob.class);
+        if (existing != null) {
+            return existing;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CleanupJob job = mongoTemplate.insert(CleanupJob.builder()
+                .type(type)
+                .targetId(targetId)
+                .scopeId(scopeId)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        schedule(job);
+        log.info("🧹 Tâche {} planifiée pour {} ({})", type, targetId, job.getId());
+        return job;
+    }
+
+    public CleanupJob getJob(String jobId) {
+        CleanupJob job = mongoTemplate.findById(jobId, CleanupJob.class);
+        if (job == null) {
+            throw new RuntimeException("Tâche non trouvée");
+        }
+        return job;
+    }
+
+    /**
+     * Reprend les tâches interrompues par un arrêt de l'application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        List<CleanupJob> pending = mongoTemplate.find(
+                Query.query(Criteria.where("status").in(ACTIVE)), CleanupJob.class);
+        if (!pending.isEmpty()) {
+            log.info("🔁 Reprise de {} tâches de nettoyage", pending.size());
+            pending.forEach(this::schedule);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void schedule(CleanupJob job) {
+        worker.execute(() -> execute(job));
+    }
+
+    private void execute(CleanupJob job) {
+        CleanupJobHandler handler = handlers.get(job.getType());
+        if (handler == null) {
+            fail(job.getId(), "Aucun gestionnaire pour " + job.getType());
+            return;
+        }
+
+        mongoTemplate.updateFirst(byId(job.getId()), new Update()
+                .set("status", CleanupJobStatus.RUNNING)
+                .inc("attempts", 1)
+                .set("updatedAt", LocalDateTime.now()), CleanupJob.class);
+
+        try {
+            handler.run(job, new Progress(job.getId()));
+            mongoTemplate.updateFirst(byId(job.getId()), new Update()
+                    .set("status", CleanupJobStatus.COMPLETED)
+                    .set("phase", null)
+                    .set("completedAt", LocalDateTime.now())
+                    .set("updatedAt", LocalDateTime.now()), CleanupJob.class);
+            log.info("✅ Tâche {} terminée pour {}", job.getType(), job.getTargetId());
+        } catch (Exception e) {
+            log.error("❌ Échec de la tâche {} pour {}: {}", job.getType(), job.getTargetId(), e.getMessage(), e);
+            fail(job.getId(), e.getMessage());
+        }
+    }
+
+    private void fail(String jobId, String error) {
+        mongoTemplate.updateFirst(byId(jobId), new Update()
+                .set("status", CleanupJobStatus.FAILED)
+                .set("lastError", error)
+                .set("updatedAt", LocalDateTime.now()), CleanupJob.class);
+    }
+
+    private static Query byId(String jobId) {
+        return Query.query(Criteria.where("_id").is(jobId));
+    }
+
+    /**
+     * Persiste l'avancement d'une tâche (phase courante et compteurs de suppression)
+     */
+    public final class Progress {
+
+        private final String jobId;
+
+        Progress(String jobId) {
+            this.jobId = jobId;
+        }
+
+        public void phase(String phase) {
+            mongoTemplate.updateFirst(byId(jobId), new Update()
+                    .set("phase", phase)
+                    .set("updatedAt", LocalDateTime.now()), CleanupJob.class);
+        }
+
+        /**
+         * Retient des identifiants dans la tâche ($addToSet) : une phase reprise après un arrêt les relit
+         * au lieu de les redéduire de données déjà supprimées
+         */
+        public void record(String checkpoint, Collection<String> ids) {
+            if (!ids.isEmpty()) {
+                mongoTemplate.updateFirst(byId(jobId), new Update()
+                        .addToSet("checkpoints." + checkpoint).each(ids.toArray())
+                        .set("updatedAt", LocalDateTime.now()), CleanupJob.class);
+            }
+        }
+
+        public Set<String> recorded(String checkpoint) {
+            Query query = byId(jobId);
+            query.fields().include("checkpoints." + checkpoint);
+            CleanupJob job = mongoTemplate.findOne(query, CleanupJob.class);
+            if (job == null || job.getCheckpoints() == null) {
+                return Set.of();
+            }
+            return job.getCheckpoints().getOrDefault(checkpoint, Set.of());
+        }
+
+        public void deleted(String collection, long count) {
+            if (count > 0) {
+                mongoTemplate.updateFirst(byId(jobId), new Update()
+                        .inc("deletedCounts." + collection, count)
+                        .set("updatedAt", LocalDateTime.now()), CleanupJob.class);
+            }
+        }
+    }
+}
@@ -3,20 +3,36 @@ package com.example.baobab_academy.services;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 
+import com.example.baobab_academy.dtos.MediaUploadResult;
+import com.example.baobab_academy.dtos.StoredMediaPage;
+import com.example.baobab_academy.models.MediaDescriptor;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Map;
-import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Stockage des médias sur Cloudinary (backend par défaut, app.media.store=cloudinary)
+ */
 @Service
+@ConditionalOnProperty(name = "app.media.store", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
 @Slf4j
-public class CloudinaryService {
+public class CloudinaryService implements MediaStore {
+
+    private final MediaFileValidator mediaFileValidator;
 
     @Value("${cloudinary.cloud-name}")
     private String cloudName;
@@ -27,6 +43,11 @@ public class CloudinaryService {
     @Value("${cloudinary.api-secret}")
     private String apiSecret;
 
+    private static final int DELETE_BATCH_SIZE = 100;
+
+    @Value("${app.media.upload-chunk-size:6291456}")
+    private int uploadChunkSize; // Taille des morceaux d'upload vidéo (minimum Cloudinary : 5 Mo)
+
     private Cloudinary cloudinary;
 
     @PostConstruct
@@ -39,11 +60,17 @@ public class CloudinaryService {
         log.info("✅ Service Cloudinary initialisé");
     }
 
+    @Override
+    public String name() {
+        return "cloudinary";
+    }
+
     /**
      * Upload une image de couverture de cours
      */
-    public CloudinaryUploadResult uploadCourseImage(MultipartFile file, String courseId) throws IOException {
-        validateImageFile(file);
+    @Override
+    public MediaUploadResult uploadCourseImage(MultipartFile file, String courseId) throws IOException {
+        mediaFileValidator.validateImageFile(file);
         
         String publicId = generateCourseImagePublicId(courseId);
         
@@ -55,12 +82,11 @@ public class CloudinaryService {
                 "format", "webp"
         );
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> result = cloudinary.uploader().upload(file.getBytes(), uploadOptions);
+        Map<String, Object> result = uploadFromDisk(file, uploadOptions);
         
         log.info("✅ Image de cours uploadée: {}", result.get("secure_url"));
         
-        return CloudinaryUploadResult.builder()
+        return MediaUploadResult.builder()
                 .publicId((String) result.get("public_id"))
                 .url((String) result.get("url"))
                 .secureUrl((String) result.get("secure_url"))
@@ -73,11 +99,11 @@ public class CloudinaryService {
     }
 
     /**
-     * Upload une vidéo pour une leçon
+     * Upload une vidéo pour une leçon depuis un flux (fichier en spool), lu morceau par morceau
      */
-    public CloudinaryUploadResult uploadLessonVideo(MultipartFile file, String courseId, String lessonId) throws IOException {
-        validateVideoFile(file);
-        
+    @SuppressWarnings("unchecked")
+    @Override
+    public MediaUploadResult uploadLessonVideo(InputStream input, String courseId, String lessonId) throws IOException {
         String publicId = generateLessonVideoPublicId(courseId, lessonId);
         
         @SuppressWarnings("unchecked")
@@ -85,15 +111,16 @@ public class CloudinaryService {
                 "public_id", publicId,
                 "folder", "baobab-academy/lessons/videos",
                 "resource_type", "video",
-                "transformation", "q_auto:good,f_auto"
+                "transformation", "q_auto:good,f_auto",
+                "chunk_size", uploadChunkSize
         );
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> result = cloudinary.uploader().upload(file.getBytes(), uploadOptions);
+        // Upload découpé en morceaux : mémoire bornée par chunk_size quelle que soit la taille de la vidéo
+        Map<String, Object> result = cloudinary.uploader().uploadLarge(input, uploadOptions);
         
         log.info("✅ Vidéo de leçon uploadée: {}", result.get("secure_url"));
         
-        return CloudinaryUploadResult.builder()
+        return MediaUploadResult.builder()
                 .publicId((String) result.get("public_id"))
                 .url((String) result.get("url"))
                 .secureUrl((String) result.get("secure_url"))
@@ -109,8 +136,9 @@ public class CloudinaryService {
     /**
      * Upload un document pour une leçon - SOLUTION ROBUSTE
      */
-    public CloudinaryUploadResult uploadLessonDocument(MultipartFile file, String courseId, String lessonId) throws IOException {
-        validateDocumentFile(file);
+    @Override
+    public MediaUploadResult uploadLessonDocument(MultipartFile file, String courseId, String lessonId) throws IOException {
+        mediaFileValidator.validateDocumentFile(file);
         
         String originalFilename = file.getOriginalFilename();
         String publicId = generateLessonDocumentPublicId(courseId, lessonId, originalFilename);
@@ -123,12 +151,11 @@ public class CloudinaryService {
                 // 🆕 ON ENLÈVE use_filename et unique_filename pour avoir plus de contrôle
         );
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> result = cloudinary.uploader().upload(file.getBytes(), uploadOptions);
+        Map<String, Object> result = uploadFromDisk(file, uploadOptions);
         
         log.info("✅ Document de leçon uploadé: {}", result.get("secure_url"));
         
-        return CloudinaryUploadResult.builder()
+        return MediaUploadResult.builder()
                 .publicId((String) result.get("public_id"))
                 .url((String) result.get("url"))
                 .secureUrl((String) result.get("secure_url"))
@@ -138,6 +165,48 @@ public class CloudinaryService {
                 .build();
     }
 
+    /**
+     * Stocke un fichier sous un publicId fixe (clé sans son extension, le format est déduit par Cloudinary)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public MediaUploadResult storeFile(Path file, String key, String resourceType) throws IOException {
+        String publicId = key.contains(".") ? key.substring(0, key.lastIndexOf('.')) : key;
+
+        Map<String, Object> result = cloudinary.uploader().upload(file.toFile(), ObjectUtils.asMap(
+                "public_id", "baobab-academy/" + publicId,
+                "resource_type", resourceType,
+                "overwrite", true
+        ));
+
+        return MediaUploadResult.builder()
+                .publicId((String) result.get("public_id"))
+                .url((String) result.get("url"))
+                .secureUrl((String) result.get("secure_url"))
+                .format((String) result.get("format"))
+                .width((Integer) result.get("width"))
+                .height((Integer) result.get("height"))
+                .bytes((Integer) result.get("bytes"))
+                .success(true)
+                .build();
+    }
+
+    /**
+     * Déplace la partie multipart vers un fichier temporaire (sans passer par le heap) puis l'envoie
+     * en flux à Cloudinary ; le fichier est supprimé après l'envoi
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> uploadFromDisk(MultipartFile file, Map<String, Object> uploadOptions)
+            throws IOException {
+        Path spooled = Files.createTempFile("baobab-upload-", ".part");
+        try {
+            file.transferTo(spooled);
+            return cloudinary.uploader().upload(spooled.toFile(), uploadOptions);
+        } finally {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
     /**
      * 🆕 MÉTHODE CORRIGÉE pour générer un publicId avec extension
      */
@@ -176,53 +245,79 @@ public class CloudinaryService {
     }
 
     /**
-     * Supprime une ressource de Cloudinary
+     * Supprime jusqu'à 100 ressources d'un même type en un appel (API Admin) ;
+     * renvoie le statut par publicId ("deleted", "not_found", ...). Les erreurs sont propagées à l'appelant.
+     * Seul point de suppression : les services passent par MediaDeletionOutbox, qui appelle cette méthode.
      */
-    public void deleteResource(String publicId, String resourceType) {
-        try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> deleteOptions = ObjectUtils.asMap("resource_type", resourceType);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> result = cloudinary.uploader().destroy(publicId, deleteOptions);
-            
-            String deleteResult = (String) result.get("result");
-            if ("ok".equals(deleteResult)) {
-                log.info("✅ Ressource supprimée: {}", publicId);
-            } else {
-                log.warn("⚠️ Ressource non trouvée ou déjà supprimée: {}", publicId);
-            }
-        } catch (Exception e) {
-            log.error("❌ Erreur lors de la suppression de la ressource {}: {}", publicId, e.getMessage());
+    @SuppressWarnings("unchecked")
+    @Override
+    public Map<String, String> deleteResources(List<String> publicIds, String resourceType) throws Exception {
+        if (publicIds.size() > DELETE_BATCH_SIZE) {
+            throw new IllegalArgumentException("Au plus " + DELETE_BATCH_SIZE + " ressources par appel");
         }
+        Map<String, Object> result = cloudinary.api().deleteResources(publicIds,
+                ObjectUtils.asMap("resource_type", resourceType));
+        Object deleted = result.get("deleted");
+        return deleted instanceof Map ? (Map<String, String>) deleted : Map.of();
     }
 
-    /**
-     * Supprime une image
-     */
-    public void deleteImage(String publicId) {
-        deleteResource(publicId, "image");
+    @Override
+    @SuppressWarnings("unchecked")
+    public StoredMediaPage listResources(String resourceType, String cursor, int pageSize) throws Exception {
+        Map<String, Object> options = ObjectUtils.asMap(
+                "resource_type", resourceType,
+                "type", "upload",
+                "prefix", "baobab-academy/",
+                "max_results", Math.min(pageSize, 500) // Maximum de l'Admin API
+        );
+        if (cursor != null) {
+            options.put("next_cursor", cursor);
+        }
+
+        Map<String, Object> result = cloudinary.api().resources(options);
+        List<Map<String, Object>> resources = (List<Map<String, Object>>) result.getOrDefault("resources", List.of());
+        return StoredMediaPage.builder()
+                .resources(resources.stream()
+                        .map(resource -> StoredMediaPage.Item.builder()
+                                .publicId((String) resource.get("public_id"))
+                                .createdAt(Instant.parse((String) resource.get("created_at")))
+                                .bytes(((Number) resource.getOrDefault("bytes", 0)).longValue())
+                                .build())
+                        .collect(Collectors.toList()))
+                .nextCursor((String) result.get("next_cursor"))
+                .build();
     }
 
-    /**
-     * Supprime une vidéo
-     */
-    public void deleteVideo(String publicId) {
-        deleteResource(publicId, "video");
+    @Override
+    public MediaDescriptor describeUrl(String url, String resourceType) {
+        MediaDescriptor media = MediaStore.super.describeUrl(url, resourceType);
+        // Les ressources raw gardent l'extension dans leur publicId
+        if (media != null && "raw".equals(resourceType) && media.getFormat() != null) {
+            media.setPublicId(media.getPublicId() + "." + media.getFormat());
+        }
+        return media;
     }
 
-    /**
-     * Supprime un document
-     */
-    public void deleteDocument(String publicId) {
-        deleteResource(publicId, "raw");
+    @Override
+    @SuppressWarnings("unchecked")
+    public MediaDescriptor fetchMetadata(MediaDescriptor media) throws Exception {
+        Map<String, Object> resource = cloudinary.api().resource(media.getPublicId(),
+                ObjectUtils.asMap("resource_type", media.getResourceType()));
+        media.setFormat((String) resource.getOrDefault("format", media.getFormat()));
+        media.setBytes(resource.get("bytes") instanceof Number bytes ? bytes.longValue() : null);
+        media.setWidth(resource.get("width") instanceof Number width ? width.intValue() : null);
+        media.setHeight(resource.get("height") instanceof Number height ? height.intValue() : null);
+        media.setDurationSeconds(resource.get("duration") instanceof Number duration ? duration.doubleValue() : null);
+        return media;
     }
 
     /**
      * Extrait le publicId d'une URL Cloudinary
      */
+    @Override
     public String extractPublicIdFromUrl(String url) {
-        if (url == null || url.isEmpty()) {
-            return null;
+        if (url == null || url.isEmpty() || !url.contains("cloudinary.com")) {
+            return null; // URL externe (YouTube, Vimeo...) : pas un média géré
         }
 
         try {
@@ -269,76 +364,6 @@ public class CloudinaryService {
         }
     }
 
-    // Méthodes de validation
-    private void validateImageFile(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            throw new IOException("Le fichier est vide");
-        }
-
-        long maxSize = 5 * 1024 * 1024; // 5MB
-        if (file.getSize() > maxSize) {
-            throw new IOException("Le fichier image est trop volumineux (max 5MB)");
-        }
-
-        String fileName = file.getOriginalFilename();
-        if (fileName == null) {
-            throw new IOException("Nom de fichier invalide");
-        }
-
-        List<String> allowedExtensions = Arrays.asList(".jpg", ".jpeg", ".png", ".gif", ".webp");
-        String extension = fileName.toLowerCase().substring(fileName.lastIndexOf("."));
-        
-        if (!allowedExtensions.contains(extension)) {
-            throw new IOException("Format d'image non supporté. Utilisez: JPG, PNG, GIF, WebP");
-        }
-    }
-
-    private void validateVideoFile(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            throw new IOException("Le fichier est vide");
-        }
-
-        long maxSize = 100 * 1024 * 1024; // 100MB
-        if (file.getSize() > maxSize) {
-            throw new IOException("Le fichier vidéo est trop volumineux (max 100MB)");
-        }
-
-        String fileName = file.getOriginalFilename();
-        if (fileName == null) {
-            throw new IOException("Nom de fichier invalide");
-        }
-
-        List<String> allowedExtensions = Arrays.asList(".mp4", ".mov", ".avi", ".mkv", ".webm");
-        String extension = fileName.toLowerCase().substring(fileName.lastIndexOf("."));
-        
-        if (!allowedExtensions.contains(extension)) {
-            throw new IOException("Format vidéo non supporté. Utilisez: MP4, MOV, AVI, MKV, WebM");
-        }
-    }
-
-    private void validateDocumentFile(MultipartFile file) throws IOException {
-        if (file.isEmpty()) {
-            throw new IOException("Le fichier est vide");
-        }
-
-        long maxSize = 10 * 1024 * 1024; // 10MB
-        if (file.getSize() > maxSize) {
-            throw new IOException("Le fichier document est trop volumineux (max 10MB)");
-        }
-
-        String fileName = file.getOriginalFilename();
-        if (fileName == null) {
-            throw new IOException("Nom de fichier invalide");
-        }
-
-        List<String> allowedExtensions = Arrays.asList(".pdf", ".doc", ".docx", ".ppt", ".pptx", ".txt");
-        String extension = fileName.toLowerCase().substring(fileName.lastIndexOf("."));
-        
-        if (!allowedExtensions.contains(extension)) {
-            throw new IOException("Format de document non supporté. Utilisez: PDF, DOC, DOCX, PPT, PPTX, TXT");
-        }
-    }
-
     // Méthodes de génération de publicId
     private String generateCourseImagePublicId(String courseId) {
         return String.format("courses/%s/cover_%d", courseId, System.currentTimeMillis());
@@ -349,18 +374,4 @@ public class CloudinaryService {
     }
 
 
-    // Classe interne pour le résultat d'upload
-    @lombok.Data
-    @lombok.Builder
-    public static class CloudinaryUploadResult {
-        private String publicId;
-        private String url;
-        private String secureUrl;
-        private String format;
-        private Integer width;
-        private Integer height;
-        private Integer bytes;
-        private Double duration; // Pour les vidéos
-        private boolean success;
-    }
-}
\ No newline at end of file
+}
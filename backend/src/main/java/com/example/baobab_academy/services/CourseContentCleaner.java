@@ -0,0 +1,125 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaDescriptor;
+import com.example.baobab_academy.models.UserProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Suppression par lots des leçons de chapitres supprimés : références aux médias libérées par type (outbox au dernier référent),
+ * progression en un deleteMany par lot, puis les leçons elles-mêmes. Les leçons ne disparaissent
+ * qu'en fin de lot, donc un lot interrompu est simplement rejoué à la reprise : chaque leçon est marquée
+ * avant la libération de ses médias, et un rejeu ne décrémente jamais deux fois le même compteur.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseContentCleaner {
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaDeletionOutbox mediaDeletionOutbox;
+    private final MediaAssetRegistry mediaAssetRegistry;
+    private final CourseEnrollmentService courseEnrollmentService;
+    private final ImageVariantService imageVariantService;
+
+    @Value("${app.cleanup.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Supprime les leçons des chapitres donnés ; {@code clearEnrollmentBits} abaisse leurs bits
+     * dans les inscriptions (inutile quand les inscriptions du cours sont supprimées en bloc)
+     */
+    public void deleteLessons(String courseId, Collection<String> chapterIds, boolean clearEnrollmentBits,
+            CleanupJobService.Progress progress) {
+        if (chapterIds.isEmpty()) {
+            return;
+        }
+
+        while (true) {
+            Query query = Query.query(Criteria.where("chapterId").in(chapterIds))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(batchSize);
+            query.fields().include("videoUrl", "documentUrl", "videoMedia", "documentMedia", "ordinal");
+            List<Lesson> lessons = mongoTemplate.find(query, Lesson.class);
+            if (lessons.isEmpty()) {
+                return;
+            }
+
+            List<String> lessonIds = lessons.stream().map(Lesson::getId).collect(Collectors.toList());
+            deleteMedia(claimMediaRelease(lessons, lessonIds));
+
+            progress.deleted("user_progress", mongoTemplate.remove(
+                    Query.query(Criteria.where("lessonId").in(lessonIds)), UserProgress.class).getDeletedCount());
+
+            if (clearEnrollmentBits) {
+                lessons.forEach(lesson -> courseEnrollmentService.clearLesson(courseId, lesson.getOrdinal()));
+            }
+
+            progress.deleted("lessons", mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").in(lessonIds)), Lesson.class).getDeletedCount());
+        }
+    }
+
+    /**
+     * Planifie la suppression de l'image de couverture d'un cours et libère son jeu de variantes. Le jeu est
+     * détaché du cours avant d'être libéré : une tâche rejouée ne le libère pas une seconde fois.
+     */
+    public void deleteCoverImage(Course course) {
+        mediaDeletionOutbox.enqueue(MediaDescriptor.of(course.getCoverMedia(), course.getCoverImage(), "image"));
+
+        Course detached = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(course.getId()).and("coverVariantSetId").exists(true)),
+                new Update().unset("coverVariantSetId"), Course.class);
+        if (detached != null) {
+            imageVariantService.release(detached.getCoverVariantSetId());
+        }
+    }
+
+    /**
+     * Marque les leçons du lot dont les médias n'ont pas encore été libérés et ne renvoie que celles-ci.
+     * Le marquage précède le $inc : un lot interrompu entre les deux laisse au pire une référence en trop,
+     * jamais un compteur décrémenté deux fois (qui supprimerait un média encore utilisé par un autre cours).
+     */
+    private List<Lesson> claimMediaRelease(List<Lesson> lessons, List<String> lessonIds) {
+        String releaseToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(lessonIds).and("mediaReleasedBy").exists(false)),
+                new Update().set("mediaReleasedBy", releaseToken), Lesson.class);
+
+        Query claimedQuery = Query.query(Criteria.where("_id").in(lessonIds).and("mediaReleasedBy").is(releaseToken));
+        claimedQuery.fields().include("_id");
+        Set<String> claimed = mongoTemplate.find(claimedQuery, Lesson.class).stream()
+                .map(Lesson::getId)
+                .collect(Collectors.toSet());
+        if (claimed.size() < lessons.size()) {
+            log.info("🔁 {} leçons déjà libérées lors d'un passage précédent", lessons.size() - claimed.size());
+        }
+        return lessons.stream().filter(lesson -> claimed.contains(lesson.getId())).collect(Collectors.toList());
+    }
+
+    private void deleteMedia(List<Lesson> lessons) {
+        if (lessons.isEmpty()) {
+            return;
+        }
+        mediaAssetRegistry.releaseAll(lessons.stream()
+                .map(lesson -> MediaDescriptor.of(lesson.getVideoMedia(), lesson.getVideoUrl(), "video"))
+                .collect(Collectors.toList()));
+        mediaAssetRegistry.releaseAll(lessons.stream()
+                .map(lesson -> MediaDescriptor.of(lesson.getDocumentMedia(), lesson.getDocumentUrl(), "raw"))
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.models.Chapter;
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.CourseEnrollment;
+import com.example.baobab_academy.models.CourseRating;
+import com.example.baobab_academy.models.LessonEngagementRollup;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Nettoyage d'un cours supprimé logiquement (statut DELETED) : inscriptions par lots (décomptées des statistiques
+ * des apprenants), autres données d'apprentissage en deleteMany par courseId, leçons et médias par lots,
+ * puis chapitres, séquence d'ordinaux et le cours lui-même.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseDeletionHandler implements CleanupJobHandler {
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseContentCleaner courseContentCleaner;
+    private final LessonOrdinalAllocator lessonOrdinalAllocator;
+    private final CourseStructureCache courseStructureCache;
+    private final DomainEventBus domainEventBus;
+
+    @Value("${app.cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public CleanupJobType type() {
+        return CleanupJobType.COURSE_DELETION;
+    }
+
+    @Override
+    public void run(CleanupJob job, CleanupJobService.Progress progress) {
+        String courseId = job.getTargetId();
+        Query byCourse = Query.query(Criteria.where("courseId").is(courseId));
+
+        progress.phase("learning-data");
+        // Inscriptions d'abord : le temps de visionnage de chaque apprenant est lu avant la suppression de sa progression
+        removeEnrollments(courseId, progress);
+        progress.deleted("user_progress", mongoTemplate.remove(byCourse, UserProgress.class).getDeletedCount());
+        progress.deleted("course_ratings", mongoTemplate.remove(byCourse, CourseRating.class).getDeletedCount());
+        progress.deleted("lesson_engagement_rollups",
+                mongoTemplate.remove(byCourse, LessonEngagementRollup.class).getDeletedCount());
+
+        progress.phase("lessons");
+        Query chaptersQuery = Query.query(Criteria.where("courseId").is(courseId));
+        chaptersQuery.fields().include("_id");
+        List<String> chapterIds = mongoTemplate.find(chaptersQuery, Chapter.class).stream()
+                .map(Chapter::getId)
+                .toList();
+        courseContentCleaner.deleteLessons(courseId, chapterIds, false, progress);
+
+        progress.phase("structure");
+        progress.deleted("chapters", mongoTemplate.remove(byCourse, Chapter.class).getDeletedCount());
+        lessonOrdinalAllocator.delete(courseId);
+
+        Course course = mongoTemplate.findById(courseId, Course.class);
+        if (course != null) {
+            courseContentCleaner.deleteCoverImage(course);
+        }
+        progress.deleted("courses", mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(courseId)), Course.class).getDeletedCount());
+    }
+
+    /**
+     * Supprime les inscriptions par lots et publie pour chacune ce que les statistiques matérialisées doivent
+     * décompter. Chaque inscription est supprimée avant la publication : une tâche rejouée ne décompte jamais
+     * deux fois le même apprenant.
+     */
+    private void removeEnrollments(String courseId, CleanupJobService.Progress progress) {
+        long totalLessons = courseStructureCache.get(courseId).getTotalLessons();
+
+        while (true) {
+            Query batchQuery = Query.query(Criteria.where("courseId").is(courseId)).limit(batchSize);
+            batchQuery.fields().include("userId", "completedCount");
+            List<CourseEnrollment> enrollments = mongoTemplate.find(batchQuery, CourseEnrollment.class);
+            if (enrollments.isEmpty()) {
+                return;
+            }
+
+            Map<String, Long> watchTime = sumWatchTime(courseId,
+                    enrollments.stream().map(CourseEnrollment::getUserId).collect(Collectors.toList()));
+
+            long removed = 0;
+            for (CourseEnrollment enrollment : enrollments) {
+                if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(enrollment.getId())),
+                        CourseEnrollment.class).getDeletedCount() == 0) {
+                    continue;
+                }
+                removed++;
+                domainEventBus.publish(new EnrollmentRemovedEvent(enrollment.getUserId(), courseId,
+                        enrollment.getCompletedCount(), totalLessons,
+                        watchTime.getOrDefault(enrollment.getUserId(), 0L)));
+            }
+            progress.deleted("course_enrollments", removed);
+        }
+    }
+
+    private Map<String, Long> sumWatchTime(String courseId, List<String> userIds) {
+        TypedAggregation<UserProgress> aggregation = Aggregation.newAggregation(UserProgress.class,
+                Aggregation.match(Criteria.where("courseId").is(courseId).and("userId").in(userIds)),
+                Aggregation.group("userId").sum("watchTimeSeconds").as("total"));
+
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults().stream()
+                .collect(Collectors.toMap(result -> result.getString("_id"),
+                        result -> ((Number) result.get("total")).longValue()));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.CourseEnrollment;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.services.CourseStructureCache.ChapterNode;
+import com.example.baobab_academy.services.CourseStructureCache.CourseStructure;
+import com.example.baobab_academy.services.CourseStructureCache.LessonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gère les vecteurs de complétion des inscriptions (un bit par leçon, indexé par l'ordinal stable).
+ * Terminer une leçon est une seule mise à jour $bit conditionnée sur le bit encore à 0, ce qui garde
+ * le compteur completedCount exact même en cas de requêtes concurrentes.
+ * Les inscriptions antérieures sans document sont reconstruites à la demande depuis user_progress.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseEnrollmentService {
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseStructureCache courseStructureCache;
+
+    /**
+     * Crée le document d'inscription s'il n'existe pas encore
+     */
+    public void enroll(String userId, String courseId) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .setOnInsert("completionWords", new HashMap<String, Long>())
+                .setOnInsert("completedCount", 0)
+                .setOnInsert("enrolledAt", now)
+                .set("updatedAt", now);
+
+        mongoTemplate.upsert(byUserAndCourse(userId, courseId), update, CourseEnrollment.class);
+    }
+
+    /**
+     * Lève le bit de la leçon et renvoie le nombre de leçons terminées après l'opération
+     */
+    public int markLessonCompleted(String userId, String courseId, Integer ordinal) {
+        if (ordinal == null) {
+            log.warn("⚠️ Leçon sans ordinal dans le cours {}, reconstruction du vecteur", courseId);
+            return rebuild(userId, courseId).getCompletedCount();
+        }
+
+        String word = "completionWords." + CourseEnrollment.wordKey(ordinal);
+        int bit = ordinal & 63;
+
+        // Ne correspond que si le bit est encore à 0 : l'incrément n'est jamais appliqué deux fois
+        Query query = byUserAndCourse(userId, courseId);
+        query.addCriteria(new Criteria().orOperator(
+                Criteria.where(word).exists(false),
+                Criteria.where(word).bits().allClear(List.of(bit))));
+
+        Update update = new Update()
+                .inc("completedCount", 1)
+                .set("updatedAt", LocalDateTime.now());
+        update.bitwise(word).or(CourseEnrollment.bitMask(ordinal));
+
+        CourseEnrollment updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), CourseEnrollment.class);
+        if (updated != null) {
+            return updated.getCompletedCount();
+        }
+
+        // Bit déjà levé, ou inscription antérieure sans vecteur
+        CourseEnrollment existing = mongoTemplate.findOne(byUserAndCourse(userId, courseId), CourseEnrollment.class);
+        return existing != null ? existing.getCompletedCount() : rebuild(userId, courseId).getCompletedCount();
+    }
+
+    /**
+     * Récupère l'inscription, en la reconstruisant si l'utilisateur a une progression sans vecteur
+     */
+    public CourseEnrollment getEnrollment(String userId, String courseId) {
+        CourseEnrollment enrollment = mongoTemplate.findOne(byUserAndCourse(userId, courseId), CourseEnrollment.class);
+        if (enrollment != null) {
+            return enrollment;
+        }
+
+        boolean hasProgress = mongoTemplate.exists(
+                Query.query(Criteria.where("userId").is(userId).and("courseId").is(courseId)), UserProgress.class);
+        return hasProgress ? rebuild(userId, courseId) : null;
+    }
+
+    /**
+     * Première leçon, dans l'ordre du cours, dont le bit n'est pas levé
+     */
+    public LessonNode findNextLesson(CourseEnrollment enrollment, CourseStructure structure) {
+        for (ChapterNode chapter : structure.getChapters()) {
+            for (LessonNode lesson : chapter.getLessons()) {
+                if (enrollment == null || !enrollment.isCompleted(lesson.getOrdinal())) {
+                    return lesson;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recalcule le vecteur d'une inscription depuis les lignes user_progress terminées
+     */
+    public CourseEnrollment rebuild(String userId, String courseId) {
+        log.info("🔄 Reconstruction du vecteur de complétion de l'utilisateur {} pour le cours {}", userId, courseId);
+
+        Query completedQuery = Query.query(Criteria.where("userId").is(userId)
+                .and("courseId").is(courseId)
+                .and("completed").is(true));
+        Set<String> completedLessonIds = new HashSet<>(
+                mongoTemplate.findDistinct(completedQuery, "lessonId", UserProgress.class, String.class));
+
+        Map<String, Long> words = new HashMap<>();
+        int completedCount = 0;
+        for (ChapterNode chapter : courseStructureCache.get(courseId).getChapters()) {
+            for (LessonNode lesson : chapter.getLessons()) {
+                if (lesson.getOrdinal() != null && completedLessonIds.contains(lesson.getId())) {
+                    words.merge(CourseEnrollment.wordKey(lesson.getOrdinal()),
+                            CourseEnrollment.bitMask(lesson.getOrdinal()), (a, b) -> a | b);
+                    completedCount++;
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("completionWords", words)
+                .set("completedCount", completedCount)
+                .set("updatedAt", now)
+                .setOnInsert("enrolledAt", now);
+
+        return mongoTemplate.findAndModify(byUserAndCourse(userId, courseId), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), CourseEnrollment.class);
+    }
+
+    /**
+     * Abaisse le bit d'une leçon supprimée dans toutes les inscriptions du cours
+     */
+    public void clearLesson(String courseId, Integer ordinal) {
+        if (ordinal == null) {
+            return;
+        }
+
+        String word = "completionWords." + CourseEnrollment.wordKey(ordinal);
+        Query query = Query.query(Criteria.where("courseId").is(courseId)
+                .and(word).bits().anySet(List.of(ordinal & 63)));
+
+        Update update = new Update()
+                .inc("completedCount", -1)
+                .set("updatedAt", LocalDateTime.now());
+        update.bitwise(word).and(~CourseEnrollment.bitMask(ordinal));
+
+        long modified = mongoTemplate.updateMulti(query, update, CourseEnrollment.class).getModifiedCount();
+        log.debug("🧹 Bit {} abaissé dans {} inscriptions du cours {}", ordinal, modified, courseId);
+    }
+
+    /**
+     * Supprime les inscriptions d'un cours
+     */
+    public void deleteByCourseId(String courseId) {
+        mongoTemplate.remove(Query.query(Criteria.where("courseId").is(courseId)), CourseEnrollment.class);
+    }
+
+    private Query byUserAndCourse(String userId, String courseId) {
+        return Query.query(Criteria.where("userId").is(userId).and("courseId").is(courseId));
+    }
+}
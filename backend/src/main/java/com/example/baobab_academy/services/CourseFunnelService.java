@@ -0,0 +1,176 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.dtos.ChapterFunnelResponse;
+import com.example.baobab_academy.dtos.CourseFunnelResponse;
+import com.example.baobab_academy.dtos.LessonFunnelResponse;
+import com.example.baobab_academy.events.CourseStructureChangedEvent;
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.services.CourseStructureCache.ChapterNode;
+import com.example.baobab_academy.services.CourseStructureCache.LessonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entonnoir de complétion d'un cours (par chapitre et par leçon), calculé par une seule agrégation
+ * $group sur user_progress puis ordonné avec la structure en cache. Le résultat est mis en cache
+ * avec un TTL court ; un seul calcul est lancé à la fois par cours, les lectures concurrentes attendent son résultat.
+ */
+@Service
+@Slf4j
+public class CourseFunnelService implements DomainEventListener {
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseRepository courseRepository;
+    private final CourseStructureCache courseStructureCache;
+    private final long ttlMillis;
+
+    private final Map<String, CachedFunnel> cache = new ConcurrentHashMap<>();
+
+    public CourseFunnelService(MongoTemplate mongoTemplate, CourseRepository courseRepository,
+            CourseStructureCache courseStructureCache,
+            @Value("${app.cache.course-funnel-ttl-seconds:60}") long ttlSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.courseRepository = courseRepository;
+        this.courseStructureCache = courseStructureCache;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Entonnoir d'un cours, réservé à son instructeur
+     */
+    public CourseFunnelResponse getCourseFunnel(String courseId, String instructorId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
+
+        if (!course.getInstructorId().equals(instructorId)) {
+            throw new RuntimeException("Accès non autorisé à ce cours");
+        }
+
+        return getCached(course);
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof CourseStructureChangedEvent changed && changed.courseId() != null) {
+                cache.remove(changed.courseId());
+            }
+        }
+    }
+
+    /**
+     * Anti-stampede : le premier appelant après expiration installe un futur et calcule, les autres le partagent
+     */
+    private CourseFunnelResponse getCached(Course course) {
+        long now = System.currentTimeMillis();
+        CompletableFuture<CourseFunnelResponse> created = new CompletableFuture<>();
+
+        CachedFunnel entry = cache.compute(course.getId(), (courseId, existing) ->
+                existing != null && (existing.expiresAt() > now || !existing.funnel().isDone())
+                        ? existing
+                        : new CachedFunnel(created, now + ttlMillis));
+
+        if (entry.funnel() == created) {
+            try {
+                created.complete(compute(course));
+            } catch (RuntimeException e) {
+                cache.remove(course.getId(), entry); // Ne pas mettre l'échec en cache
+                created.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return entry.funnel().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private CourseFunnelResponse compute(Course course) {
+        long started = System.currentTimeMillis();
+
+        TypedAggregation<UserProgress> aggregation = Aggregation.newAggregation(UserProgress.class,
+                Aggregation.match(Criteria.where("courseId").is(course.getId())),
+                Aggregation.group("lessonId")
+                        .count().as("started")
+                        .sum(ConditionalOperators.when(Criteria.where("completed").is(true)).then(1).otherwise(0))
+                        .as("completed")
+                        .avg("progressPercentage").as("averageProgress"));
+
+        Map<String, Document> byLesson = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            byLesson.put(row.getString("_id"), row);
+        }
+
+        long enrolled = course.getStudents() != null ? course.getStudents() : 0;
+        List<ChapterFunnelResponse> chapters = new ArrayList<>();
+        for (ChapterNode chapter : courseStructureCache.get(course.getId()).getChapters()) {
+            List<LessonFunnelResponse> lessons = new ArrayList<>();
+            for (LessonNode lesson : chapter.getLessons()) {
+                Document row = byLesson.get(lesson.getId());
+                long lessonStarted = row != null ? ((Number) row.get("started")).longValue() : 0;
+                long lessonCompleted = row != null ? ((Number) row.get("completed")).longValue() : 0;
+                double averageProgress = row != null && row.get("averageProgress") != null
+                        ? ((Number) row.get("averageProgress")).doubleValue() : 0;
+
+                lessons.add(LessonFunnelResponse.builder()
+                        .lessonId(lesson.getId())
+                        .lessonTitle(lesson.getTitle())
+                        .started(lessonStarted)
+                        .completed(lessonCompleted)
+                        .averageProgress(round(averageProgress))
+                        .startRate(rate(lessonStarted, enrolled))
+                        .completionRate(rate(lessonCompleted, enrolled))
+                        .build());
+            }
+
+            chapters.add(ChapterFunnelResponse.builder()
+                    .chapterId(chapter.getId())
+                    .chapterTitle(chapter.getTitle())
+                    // Taux du chapitre : moyenne des taux de ses leçons ; la dernière leçon donne le taux de sortie
+                    .completionRate(round(lessons.stream().mapToDouble(LessonFunnelResponse::getCompletionRate).average().orElse(0)))
+                    .lastLessonCompletionRate(lessons.isEmpty() ? 0 : lessons.get(lessons.size() - 1).getCompletionRate())
+                    .lessons(lessons)
+                    .build());
+        }
+
+        log.debug("📊 Entonnoir du cours {} calculé en {} ms", course.getId(), System.currentTimeMillis() - started);
+        return CourseFunnelResponse.builder()
+                .courseId(course.getId())
+                .enrolled(enrolled)
+                .chapters(chapters)
+                .computedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static double rate(long count, long total) {
+        return total > 0 ? round(Math.min(100.0, count * 100.0 / total)) : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private record CachedFunnel(CompletableFuture<CourseFunnelResponse> funnel, long expiresAt) {
+    }
+}
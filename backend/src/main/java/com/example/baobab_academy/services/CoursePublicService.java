@@ -19,6 +19,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +36,8 @@ public class CoursePublicService {
     private final LessonRepository lessonRepository;
     private final UserProgressRepository userProgressRepository;
     private final CourseRatingRepository courseRatingRepository;
+    private final CourseRecommendationService courseRecommendationService;
+    private final CourseStructureCache courseStructureCache;
     private final ModelMapper modelMapper;
 
     /**
@@ -100,6 +105,7 @@ public class CoursePublicService {
                 .collect(Collectors.toList());
 
         response.setChapters(chapterResponses);
+        response.setVideoDurationSeconds(courseStructureCache.get(courseId).getTotalVideoSeconds());
 
         return response;
     }
@@ -146,6 +152,29 @@ public class CoursePublicService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Récupère les cours suivis par les mêmes étudiants ("les étudiants ont aussi suivi")
+     */
+    public List<CourseResponse> getSimilarCourses(String courseId, int limit) {
+        log.info("🤝 Récupération des {} cours similaires au cours {}", limit, courseId);
+
+        List<String> similarCourseIds = courseRecommendationService.getSimilarCourseIds(courseId, limit);
+        if (similarCourseIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Course> coursesById = courseRepository.findAllById(similarCourseIds).stream()
+                .filter(course -> course.getStatus() == CourseStatus.PUBLISHED)
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        // Conserver l'ordre de similarité précalculé
+        return similarCourseIds.stream()
+                .map(coursesById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToCourseResponse)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Compte le nombre total de cours publiés
      */
@@ -3,32 +3,47 @@ package com.example.baobab_academy.services;
 import com.example.baobab_academy.dtos.CourseRatingRequest;
 import com.example.baobab_academy.dtos.CourseRatingResponse;
 import com.example.baobab_academy.dtos.RatingStatsResponse;
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.RatingChangedEvent;
 import com.example.baobab_academy.models.Course;
 import com.example.baobab_academy.models.CourseRating;
 import com.example.baobab_academy.repositories.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 @Transactional
-public class CourseRatingService {
+public class CourseRatingService implements DomainEventListener {
 
     private final CourseRatingRepository courseRatingRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
     private final UserProgressRepository userProgressRepository;
     private final ModelMapper modelMapper;
+    private final MongoTemplate mongoTemplate;
+    private final DomainEventBus domainEventBus;
 
     /**
      * Noter un cours ou mettre à jour une note existante
@@ -54,6 +69,8 @@ public class CourseRatingService {
         CourseRating existingRating = courseRatingRepository.findByCourseIdAndUserId(courseId, userId)
                 .orElse(null);
 
+        Integer previousRating = existingRating != null ? existingRating.getRating() : null;
+
         CourseRating rating;
         if (existingRating != null) {
             // Mettre à jour la note existante
@@ -73,8 +90,8 @@ public class CourseRatingService {
             log.info("✅ Nouvelle note créée pour le cours {}", courseId);
         }
 
-        // Mettre à jour la note moyenne du cours
-        updateCourseAverageRating(courseId);
+        // La note moyenne du cours est recalculée hors de la requête
+        domainEventBus.publish(new RatingChangedEvent(courseId, userId, previousRating, rating.getRating()));
 
         return mapToResponse(rating);
     }
@@ -156,34 +173,51 @@ public class CourseRatingService {
                 .orElseThrow(() -> new RuntimeException("Note non trouvée"));
 
         courseRatingRepository.delete(rating);
-        
-        // Mettre à jour la note moyenne du cours
-        updateCourseAverageRating(courseId);
-        
+
+        // La note moyenne du cours est recalculée hors de la requête
+        domainEventBus.publish(new RatingChangedEvent(courseId, userId, rating.getRating(), null));
+
         log.info("✅ Note supprimée");
     }
 
     /**
-     * Met à jour la note moyenne d'un cours
+     * Recalcule la note moyenne une seule fois par cours touché dans le lot
      */
-    private void updateCourseAverageRating(String courseId) {
-        List<CourseRating> ratings = courseRatingRepository.findByCourseId(courseId);
-        
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> courseIds = new LinkedHashSet<>();
+        for (DomainEvent event : events) {
+            if (event instanceof RatingChangedEvent ratingChanged) {
+                courseIds.add(ratingChanged.courseId());
+            }
+        }
 
-        if (ratings.isEmpty()) {
-            course.setRating(0.0);
-        } else {
-            double averageRating = ratings.stream()
-                    .mapToInt(CourseRating::getRating)
-                    .average()
-                    .orElse(0.0);
-            course.setRating(Math.round(averageRating * 10.0) / 10.0); // Arrondir à 1 décimale
+        for (String courseId : courseIds) {
+            try {
+                updateCourseAverageRating(courseId);
+            } catch (Exception e) {
+                log.error("❌ Erreur lors du recalcul de la note moyenne du cours {}: {}", courseId, e.getMessage());
+            }
         }
+    }
 
-        courseRepository.save(course);
-        log.info("📊 Note moyenne du cours {} mise à jour: {}", courseId, course.getRating());
+    /**
+     * Met à jour la note moyenne d'un cours ($avg côté base, sans charger les notes) ; recalcul absolu,
+     * donc sans effet s'il est rejoué
+     */
+    public void updateCourseAverageRating(String courseId) {
+        TypedAggregation<CourseRating> aggregation = Aggregation.newAggregation(CourseRating.class,
+                Aggregation.match(Criteria.where("courseId").is(courseId)),
+                Aggregation.group().avg("rating").as("average"));
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        double averageRating = result != null && result.get("average") != null
+                ? ((Number) result.get("average")).doubleValue() : 0.0;
+        double rounded = Math.round(averageRating * 10.0) / 10.0; // Arrondir à 1 décimale
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(courseId)),
+                new Update().set("rating", rounded), Course.class);
+        log.info("📊 Note moyenne du cours {} mise à jour: {}", courseId, rounded);
     }
 
     /**
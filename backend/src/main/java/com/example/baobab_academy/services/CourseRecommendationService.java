@@ -0,0 +1,267 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.EnrolledEvent;
+import com.example.baobab_academy.models.CourseRecommendation;
+import com.example.baobab_academy.models.UserProgress;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recommandations "les étudiants ont aussi suivi" basées sur une matrice creuse de co-inscriptions.
+ * La matrice est mise à jour à chaque inscription (via le DomainEventBus) et reconstruite périodiquement
+ * depuis user_progress.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CourseRecommendationService implements DomainEventListener {
+
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean rebuildRunning = new AtomicBoolean(false);
+
+    @Value("${app.recommendations.top-n:10}")
+    private int topN;
+
+    @Value("${app.recommendations.candidates:50}")
+    private int maxCandidates;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof EnrolledEvent enrolled) {
+                try {
+                    recordEnrollment(enrolled.userId(), enrolled.courseId());
+                } catch (Exception e) {
+                    log.error("❌ Erreur lors de la mise à jour des recommandations pour le cours {}: {}",
+                            enrolled.courseId(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Enregistre une inscription : incrémente la ligne du cours et les lignes des autres cours de l'utilisateur
+     */
+    public void recordEnrollment(String userId, String courseId) {
+        List<String> otherCourseIds = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("userId").is(userId).and("courseId").ne(courseId)),
+                "courseId", UserProgress.class, String.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseRecommendation.class);
+
+        Update courseUpdate = new Update().inc("enrollments", 1).set("updatedAt", now);
+        for (String otherCourseId : otherCourseIds) {
+            courseUpdate.inc("coEnrollments." + otherCourseId, 1);
+            bulk.upsert(Query.query(Criteria.where("_id").is(otherCourseId)),
+                    new Update().inc("coEnrollments." + courseId, 1).set("updatedAt", now));
+        }
+        bulk.upsert(Query.query(Criteria.where("_id").is(courseId)), courseUpdate);
+        bulk.execute();
+
+        refreshSimilarCourses(courseId);
+        otherCourseIds.forEach(this::refreshSimilarCourses);
+
+        log.debug("🤝 Co-inscriptions mises à jour pour le cours {} ({} cours liés)", courseId, otherCourseIds.size());
+    }
+
+    /**
+     * Retourne les identifiants des cours similaires précalculés, du plus au moins similaire
+     */
+    public List<String> getSimilarCourseIds(String courseId, int limit) {
+        Query query = Query.query(Criteria.where("_id").is(courseId));
+        query.fields().include("similarCourses");
+
+        CourseRecommendation row = mongoTemplate.findOne(query, CourseRecommendation.class);
+        if (row == null || row.getSimilarCourses() == null) {
+            return List.of();
+        }
+
+        return row.getSimilarCourses().stream()
+                .map(CourseRecommendation.SimilarCourse::getCourseId)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reconstruit toute la matrice en parcourant les inscriptions avec un curseur
+     */
+    @Scheduled(cron = "${app.recommendations.rebuild-cron:0 30 3 * * *}")
+    public void rebuildAll() {
+        if (!rebuildRunning.compareAndSet(false, true)) {
+            log.warn("⚠️ Reconstruction des recommandations déjà en cours");
+            return;
+        }
+
+        try {
+            log.info("🔄 Reconstruction de la matrice de co-inscriptions...");
+
+            Map<String, Map<String, Long>> matrix = new HashMap<>();
+            Map<String, Long> enrollments = new HashMap<>();
+
+            // Une ligne par couple (userId, courseId), triée par utilisateur
+            TypedAggregation<UserProgress> aggregation = Aggregation.newAggregation(UserProgress.class,
+                    Aggregation.group("userId", "courseId"),
+                    Aggregation.sort(Sort.Direction.ASC, "userId"))
+                    .withOptions(AggregationOptions.builder()
+                            .allowDiskUse(true)
+                            .cursorBatchSize(WRITE_BATCH_SIZE)
+                            .build());
+
+            long pairs = 0;
+            try (Stream<Document> stream = mongoTemplate.aggregateStream(aggregation, Document.class)) {
+                Iterator<Document> iterator = stream.iterator();
+                String currentUserId = null;
+                List<String> userCourseIds = new ArrayList<>();
+
+                while (iterator.hasNext()) {
+                    Document key = iterator.next().get("_id", Document.class);
+                    String userId = key.getString("userId");
+
+                    if (!Objects.equals(userId, currentUserId)) {
+                        accumulate(userCourseIds, matrix, enrollments);
+                        userCourseIds.clear();
+                        currentUserId = userId;
+                    }
+                    userCourseIds.add(key.getString("courseId"));
+                    pairs++;
+                }
+                accumulate(userCourseIds, matrix, enrollments);
+            }
+
+            writeMatrix(matrix, enrollments);
+
+            log.info("✅ Matrice reconstruite: {} inscriptions, {} cours", pairs, enrollments.size());
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de la reconstruction des recommandations: {}", e.getMessage(), e);
+        } finally {
+            rebuildRunning.set(false);
+        }
+    }
+
+    /**
+     * Recalcule le top-N d'un cours depuis sa ligne de co-inscriptions
+     */
+    private void refreshSimilarCourses(String courseId) {
+        CourseRecommendation row = mongoTemplate.findById(courseId, CourseRecommendation.class);
+        if (row == null) {
+            return;
+        }
+
+        List<String> candidates = row.getCoEnrollments().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(maxCandidates)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+
+        List<CourseRecommendation.SimilarCourse> similarCourses =
+                rankSimilarCourses(row.getEnrollments(), row.getCoEnrollments(), findEnrollments(candidates));
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(courseId)),
+                new Update().set("similarCourses", similarCourses),
+                CourseRecommendation.class);
+    }
+
+    private Map<String, Long> findEnrollments(Collection<String> courseIds) {
+        if (courseIds.isEmpty()) {
+            return Map.of();
+        }
+
+        Query query = Query.query(Criteria.where("_id").in(courseIds));
+        query.fields().include("enrollments");
+
+        return mongoTemplate.find(query, CourseRecommendation.class).stream()
+                .collect(Collectors.toMap(CourseRecommendation::getId, CourseRecommendation::getEnrollments));
+    }
+
+    /**
+     * Classe les cours liés par similarité cosinus : co / sqrt(inscriptions A * inscriptions B)
+     */
+    private List<CourseRecommendation.SimilarCourse> rankSimilarCourses(long enrollments,
+            Map<String, Long> coEnrollments, Map<String, Long> enrollmentsByCourse) {
+        return coEnrollments.entrySet().stream()
+                .filter(entry -> enrollmentsByCourse.containsKey(entry.getKey()))
+                .map(entry -> {
+                    long otherEnrollments = enrollmentsByCourse.get(entry.getKey());
+                    double denominator = Math.sqrt((double) Math.max(1, enrollments) * Math.max(1, otherEnrollments));
+                    return new CourseRecommendation.SimilarCourse(entry.getKey(), entry.getValue(),
+                            entry.getValue() / denominator);
+                })
+                .sorted(Comparator.comparingDouble(CourseRecommendation.SimilarCourse::getScore).reversed()
+                        .thenComparing(Comparator.comparingLong(CourseRecommendation.SimilarCourse::getCoEnrollments).reversed()))
+                .limit(topN)
+                .collect(Collectors.toList());
+    }
+
+    private void accumulate(List<String> userCourseIds, Map<String, Map<String, Long>> matrix,
+            Map<String, Long> enrollments) {
+        for (String courseId : userCourseIds) {
+            enrollments.merge(courseId, 1L, Long::sum);
+            Map<String, Long> row = matrix.computeIfAbsent(courseId, id -> new HashMap<>());
+            for (String otherCourseId : userCourseIds) {
+                if (!otherCourseId.equals(courseId)) {
+                    row.merge(otherCourseId, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    private void writeMatrix(Map<String, Map<String, Long>> matrix, Map<String, Long> enrollments) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseRecommendation.class);
+        int pending = 0;
+
+        for (Map.Entry<String, Long> entry : enrollments.entrySet()) {
+            Map<String, Long> row = matrix.getOrDefault(entry.getKey(), Map.of());
+            Update update = new Update()
+                    .set("enrollments", entry.getValue())
+                    .set("coEnrollments", row)
+                    .set("similarCourses", rankSimilarCourses(entry.getValue(), row, enrollments))
+                    .set("updatedAt", now);
+            bulk.upsert(Query.query(Criteria.where("_id").is(entry.getKey())), update);
+
+            if (++pending == WRITE_BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CourseRecommendation.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+
+        // Supprimer les lignes des cours qui n'ont plus d'inscriptions
+        mongoTemplate.remove(Query.query(Criteria.where("_id").nin(enrollments.keySet())), CourseRecommendation.class);
+    }
+}
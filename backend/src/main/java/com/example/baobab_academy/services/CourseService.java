@@ -5,7 +5,12 @@ import com.example.baobab_academy.dtos.CourseCreateRequest;
 import com.example.baobab_academy.dtos.CourseResponse;
 import com.example.baobab_academy.dtos.CourseUpdateRequest;
 import com.example.baobab_academy.dtos.LessonCreateRequest;
+import com.example.baobab_academy.dtos.MediaUploadResult;
+import com.example.baobab_academy.events.CoursePublishedEvent;
+import com.example.baobab_academy.events.CourseStructureChangedEvent;
+import com.example.baobab_academy.events.DomainEventBus;
 import com.example.baobab_academy.models.*;
+import com.example.baobab_academy.models.enums.CleanupJobType;
 import com.example.baobab_academy.models.enums.ContentType;
 import com.example.baobab_academy.models.enums.CourseStatus;
 import com.example.baobab_academy.repositories.*;
@@ -20,6 +25,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,7 +39,18 @@ public class CourseService {
     private final ChapterRepository chapterRepository;
     private final LessonRepository lessonRepository;
     private final UserProgressRepository userProgressRepository;
-    private final CloudinaryService cloudinaryService;
+    private final MediaStore mediaStore;
+    private final MediaDeletionOutbox mediaDeletionOutbox;
+    private final MediaUploadService mediaUploadService;
+    private final ResumableUploadService resumableUploadService;
+    private final MediaAssetRegistry mediaAssetRegistry;
+    private final MediaFileValidator mediaFileValidator;
+    private final ImageVariantService imageVariantService;
+    private final CourseStructureCache courseStructureCache;
+    private final CourseEnrollmentService courseEnrollmentService;
+    private final LessonOrdinalAllocator lessonOrdinalAllocator;
+    private final DomainEventBus domainEventBus;
+    private final CleanupJobService cleanupJobService;
     private final ModelMapper modelMapper;
 
     /**
@@ -67,7 +84,7 @@ public class CourseService {
     public CourseResponse uploadCourseImage(String courseId, MultipartFile file, String instructorId) throws IOException {
         log.info("📷 Upload image pour le cours: {}", courseId);
 
-        Course course = courseRepository.findById(courseId)
+        Course course = findActiveCourse(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         // Vérifier que l'utilisateur est le créateur du cours
@@ -75,20 +92,37 @@ public class CourseService {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
-        // Supprimer l'ancienne image si elle existe
-        if (course.getCoverImage() != null) {
-            String oldPublicId = cloudinaryService.extractPublicIdFromUrl(course.getCoverImage());
-            if (oldPublicId != null) {
-                cloudinaryService.deleteImage(oldPublicId);
-            }
+        MediaDescriptor oldCover = MediaDescriptor.of(course.getCoverMedia(), course.getCoverImage(), "image");
+
+        // Variantes redimensionnées pour le catalogue, calculées avant l'upload (qui peut déplacer le fichier
+        // temporaire) ; un échec n'annule pas l'upload
+        ImageVariantSet variants = null;
+        try {
+            variants = imageVariantService.acquire(file);
+        } catch (Exception e) {
+            log.warn("⚠️ Variantes non générées pour le cours {}: {}", courseId, e.getMessage());
         }
 
         // Upload la nouvelle image
-        CloudinaryService.CloudinaryUploadResult result = cloudinaryService.uploadCourseImage(file, courseId);
-        
+        MediaUploadResult result;
+        try {
+            result = mediaStore.uploadCourseImage(file, courseId);
+        } catch (IOException | RuntimeException e) {
+            imageVariantService.release(variants != null ? variants.getId() : null);
+            throw e;
+        }
+
+        String oldVariantSetId = course.getCoverVariantSetId();
         course.setCoverImage(result.getSecureUrl());
+        course.setCoverMedia(mediaStore.describe(result, "image", null));
+        course.setCoverImageVariants(variants != null ? variants.getVariants() : null);
+        course.setCoverVariantSetId(variants != null ? variants.getId() : null);
         Course updatedCourse = courseRepository.save(course);
 
+        // L'ancienne image et ses variantes ne sont libérées qu'une fois remplacées (suppression en arrière-plan)
+        mediaDeletionOutbox.enqueue(oldCover);
+        imageVariantService.release(oldVariantSetId);
+
         log.info("✅ Image de cours uploadée: {}", result.getSecureUrl());
         return mapToCourseResponse(updatedCourse);
     }
@@ -99,7 +133,7 @@ public class CourseService {
     public CourseResponse updateCourse(String courseId, CourseUpdateRequest request, String instructorId) {
         log.info("✏️ Mise à jour du cours: {}", courseId);
 
-        Course course = courseRepository.findById(courseId)
+        Course course = findActiveCourse(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         // Vérifier que l'utilisateur est le créateur du cours
@@ -107,6 +141,11 @@ public class CourseService {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
+        // La suppression passe par deleteCourse, qui planifie le nettoyage des données associées
+        if (request.getStatus() == CourseStatus.DELETED) {
+            throw new RuntimeException("Statut DELETED non autorisé, utilisez la suppression du cours");
+        }
+
         // Vérifier que la catégorie existe si elle a changé
         if (request.getCategoryId() != null && !request.getCategoryId().equals(course.getCategoryId())) {
             categoryRepository.findById(request.getCategoryId())
@@ -133,7 +172,7 @@ public class CourseService {
     public Chapter addChapterToCourse(String courseId, ChapterCreateRequest request, String instructorId) {
         log.info("📚 Ajout d'un chapitre au cours: {}", courseId);
 
-        Course course = courseRepository.findById(courseId)
+        Course course = findActiveCourse(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         // Vérifier que l'utilisateur est le créateur du cours
@@ -156,6 +195,7 @@ public class CourseService {
                 .build();
 
         Chapter savedChapter = chapterRepository.save(chapter);
+        onStructureChanged(courseId);
         log.info("✅ Chapitre créé avec l'ID: {}", savedChapter.getId());
 
         return savedChapter;
@@ -171,7 +211,7 @@ public class CourseService {
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
 
         // Vérifier que l'utilisateur est le créateur du cours
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
@@ -180,6 +220,7 @@ public class CourseService {
 
         chapter.setTitle(request.getTitle());
         Chapter updatedChapter = chapterRepository.save(chapter);
+        onStructureChanged(chapter.getCourseId());
 
         log.info("✅ Chapitre mis à jour: {}", updatedChapter.getId());
         return updatedChapter;
@@ -195,7 +236,7 @@ public class CourseService {
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
 
         // Vérifier que l'utilisateur est le créateur du cours
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
@@ -217,18 +258,20 @@ public class CourseService {
                 .videoUrl(request.getVideoUrl())
                 .chapterId(chapterId)
                 .orderIndex(orderIndex)
+                .ordinal(lessonOrdinalAllocator.allocate(course.getId()))
                 .build();
 
         Lesson savedLesson = lessonRepository.save(lesson);
+        onStructureChanged(course.getId());
         log.info("✅ Leçon créée avec l'ID: {}", savedLesson.getId());
 
         return savedLesson;
     }
 
     /**
-     *  Upload une vidéo locale pour une leçon
+     *  Upload une vidéo locale pour une leçon : mise en spool puis envoi en arrière-plan
      */
-    public Lesson uploadLessonVideo(String lessonId, MultipartFile file, String instructorId) throws IOException {
+    public MediaUploadJob uploadLessonVideo(String lessonId, MultipartFile file, String instructorId) throws IOException {
         log.info("🎥 Upload vidéo pour la leçon: {}", lessonId);
 
         Lesson lesson = lessonRepository.findById(lessonId)
@@ -238,29 +281,39 @@ public class CourseService {
         Chapter chapter = chapterRepository.findById(lesson.getChapterId())
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
         
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
-        // Supprimer l'ancienne vidéo si elle existe et qu'elle vient de Cloudinary
-        if (lesson.getVideoUrl() != null && lesson.getVideoUrl().contains("cloudinary.com")) {
-            String oldPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getVideoUrl());
-            if (oldPublicId != null) {
-                cloudinaryService.deleteVideo(oldPublicId);
-            }
-        }
+        // La leçon et l'ancienne vidéo sont mises à jour par le worker une fois l'envoi terminé
+        return mediaUploadService.submitLessonVideo(lesson, course.getId(), instructorId, file);
+    }
 
-        // Upload la nouvelle vidéo
-        CloudinaryService.CloudinaryUploadResult result = cloudinaryService.uploadLessonVideo(file, course.getId(), lessonId);
-        
-        lesson.setVideoUrl(result.getSecureUrl());
-        Lesson updatedLesson = lessonRepository.save(lesson);
+    /**
+     *  Crée un upload vidéo reprenable pour une leçon (envoi par morceaux, voir ResumableUploadService)
+     */
+    public ResumableUpload createResumableLessonVideoUpload(String lessonId, long length, String filename,
+            String instructorId) throws IOException {
+        log.info("🎥 Upload vidéo reprenable pour la leçon: {} ({} octets)", lessonId, length);
 
-        log.info("✅ Vidéo de leçon uploadée: {}", result.getSecureUrl());
-        return updatedLesson;
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new RuntimeException("Leçon non trouvée"));
+
+        // Vérifier l'autorisation
+        Chapter chapter = chapterRepository.findById(lesson.getChapterId())
+                .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
+
+        Course course = findActiveCourse(chapter.getCourseId())
+                .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
+
+        if (!course.getInstructorId().equals(instructorId)) {
+            throw new RuntimeException("Accès non autorisé à ce cours");
+        }
+
+        return resumableUploadService.create(lesson, course.getId(), instructorId, length, filename);
     }
 
     /**
@@ -276,24 +329,25 @@ public class CourseService {
         Chapter chapter = chapterRepository.findById(lesson.getChapterId())
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
         
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
-        // Si on remplace une vidéo Cloudinary par une URL externe, supprimer l'ancienne
-        if (lesson.getVideoUrl() != null && lesson.getVideoUrl().contains("cloudinary.com")) {
-            String oldPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getVideoUrl());
-            if (oldPublicId != null) {
-                cloudinaryService.deleteVideo(oldPublicId);
-            }
-        }
+        MediaDescriptor oldVideo = MediaDescriptor.of(lesson.getVideoMedia(), lesson.getVideoUrl(), "video");
 
         // Définir la nouvelle URL
         lesson.setVideoUrl(videoUrl);
+        lesson.setVideoMedia(null);
         Lesson updatedLesson = lessonRepository.save(lesson);
+        courseStructureCache.evict(course.getId()); // Durée vidéo cumulée du cours
+
+        // Si on remplace une vidéo hébergée par une URL externe, supprimer l'ancienne en arrière-plan
+        if (oldVideo != null && !oldVideo.getUrl().equals(videoUrl)) {
+            mediaAssetRegistry.release(oldVideo);
+        }
 
         log.info("✅ URL vidéo externe définie: {}", videoUrl);
         return updatedLesson;
@@ -312,28 +366,32 @@ public class CourseService {
         Chapter chapter = chapterRepository.findById(lesson.getChapterId())
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
         
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
-        // Supprimer l'ancien document si il existe
-        if (lesson.getDocumentUrl() != null) {
-            String oldPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getDocumentUrl());
-            if (oldPublicId != null) {
-                cloudinaryService.deleteDocument(oldPublicId);
-            }
-        }
+        MediaDescriptor oldDocument = MediaDescriptor.of(lesson.getDocumentMedia(), lesson.getDocumentUrl(), "raw");
 
-        // Upload le nouveau document
-        CloudinaryService.CloudinaryUploadResult result = cloudinaryService.uploadLessonDocument(file, course.getId(), lessonId);
+        // Document déjà stocké (même contenu) : rattachement sans transfert
+        mediaFileValidator.validateDocumentFile(file);
+        String contentHash = MediaAssetRegistry.sha256(file.getInputStream());
+        MediaDescriptor document = mediaAssetRegistry.attach(contentHash, "raw");
+        if (document == null) {
+            MediaUploadResult result = mediaStore.uploadLessonDocument(file, course.getId(), lessonId);
+            document = mediaAssetRegistry.register(contentHash, mediaStore.describe(result, "raw", contentHash));
+        }
         
-        lesson.setDocumentUrl(result.getSecureUrl());
+        lesson.setDocumentUrl(document.getUrl());
+        lesson.setDocumentMedia(document);
         Lesson updatedLesson = lessonRepository.save(lesson);
 
-        log.info("✅ Document de leçon uploadé: {}", result.getSecureUrl());
+        // Libérer l'ancien document (supprimé en arrière-plan s'il n'est plus référencé)
+        mediaAssetRegistry.release(oldDocument);
+
+        log.info("✅ Document de leçon uploadé: {}", document.getUrl());
         return updatedLesson;
     }
 
@@ -343,7 +401,7 @@ public class CourseService {
     public CourseResponse publishCourse(String courseId, String instructorId) {
         log.info("🚀 Publication du cours: {}", courseId);
 
-        Course course = courseRepository.findById(courseId)
+        Course course = findActiveCourse(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
@@ -363,99 +421,65 @@ public class CourseService {
             throw new RuntimeException("Le cours doit avoir au moins une leçon pour être publié");
         }
 
+        boolean wasPublished = course.getStatus() == CourseStatus.PUBLISHED;
         course.setStatus(CourseStatus.PUBLISHED);
         Course publishedCourse = courseRepository.save(course);
+        if (!wasPublished) {
+            domainEventBus.publish(new CoursePublishedEvent(courseId));
+        }
 
         log.info("✅ Cours publié: {}", courseId);
         return mapToCourseResponse(publishedCourse);
     }
 
     /**
-     * Supprime un cours et toutes ses données associées
+     * Supprime un cours : il devient invisible immédiatement (statut DELETED), ses données associées
+     * et ses médias sont supprimés en arrière-plan par une tâche de nettoyage reprise en cas d'arrêt
      */
-    public void deleteCourse(String courseId, String instructorId) {
+    public CleanupJob deleteCourse(String courseId, String instructorId) {
         log.info("🗑️ Suppression du cours: {}", courseId);
 
-        Course course = courseRepository.findById(courseId)
+        Course course = findActiveCourse(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
-        // Supprimer l'image de couverture
-        if (course.getCoverImage() != null) {
-            String publicId = cloudinaryService.extractPublicIdFromUrl(course.getCoverImage());
-            if (publicId != null) {
-                cloudinaryService.deleteImage(publicId);
-            }
-        }
+        // Tâche persistée avant la suppression logique : le nettoyage ne peut pas être perdu
+        CleanupJob job = cleanupJobService.submit(CleanupJobType.COURSE_DELETION, courseId);
 
-        // Supprimer toutes les leçons et leurs médias
-        List<Chapter> chapters = chapterRepository.findByCourseIdOrderByOrderIndex(courseId);
-        for (Chapter chapter : chapters) {
-            List<Lesson> lessons = lessonRepository.findByChapterIdOrderByOrderIndex(chapter.getId());
-            for (Lesson lesson : lessons) {
-                // Supprimer les médias de la leçon
-                if (lesson.getVideoUrl() != null && lesson.getVideoUrl().contains("cloudinary.com")) {
-                    String videoPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getVideoUrl());
-                    if (videoPublicId != null) {
-                        cloudinaryService.deleteVideo(videoPublicId);
-                    }
-                }
-                
-                // 🆕 Supprimer les documents
-                if (lesson.getDocumentUrl() != null) {
-                    String documentPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getDocumentUrl());
-                    if (documentPublicId != null) {
-                        cloudinaryService.deleteDocument(documentPublicId);
-                    }
-                }
-                
-                // Supprimer la progression des utilisateurs pour cette leçon
-                userProgressRepository.deleteByLessonId(lesson.getId());
-                
-                // Supprimer la leçon
-                lessonRepository.delete(lesson);
-            }
-            
-            // Supprimer le chapitre
-            chapterRepository.delete(chapter);
-        }
-
-        // Supprimer le cours
-        courseRepository.delete(course);
+        course.setStatus(CourseStatus.DELETED);
+        courseRepository.save(course);
+        onStructureChanged(courseId);
         
-        log.info("✅ Cours supprimé: {}", courseId);
+        log.info("✅ Cours supprimé: {} (nettoyage en arrière-plan: {})", courseId, job.getId());
+        return job;
     }
 
-    //  Supprimer un chapitre et toutes ses leçons
-    public void deleteChapter(String chapterId, String instructorId) {
+    //  Supprimer un chapitre : retiré de la structure immédiatement, leçons nettoyées en arrière-plan
+    public CleanupJob deleteChapter(String chapterId, String instructorId) {
         log.info("🗑️ Suppression du chapitre: {}", chapterId);
 
         Chapter chapter = chapterRepository.findById(chapterId)
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
 
         // Vérifier l'autorisation via le cours
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
             throw new RuntimeException("Accès non autorisé à ce cours");
         }
 
-        // Supprimer toutes les leçons du chapitre
-        List<Lesson> lessons = lessonRepository.findByChapterIdOrderByOrderIndex(chapterId);
-        for (Lesson lesson : lessons) {
-            deleteLessonMedia(lesson); // Supprimer les médias
-            userProgressRepository.deleteByLessonId(lesson.getId()); // Supprimer la progression
-            lessonRepository.delete(lesson);
-        }
+        CleanupJob job = cleanupJobService.submit(CleanupJobType.CHAPTER_DELETION, chapterId, course.getId());
 
-        // Supprimer le chapitre
+        // Supprimer le chapitre : ses leçons ne sont plus atteignables depuis la structure
         chapterRepository.delete(chapter);
+        onStructureChanged(course.getId());
         
-        log.info("✅ Chapitre supprimé: {}", chapterId);
+        log.info("✅ Chapitre supprimé: {} (nettoyage en arrière-plan: {})", chapterId, job.getId());
+        return job;
     }
 
     //  Supprimer une leçon
@@ -469,7 +493,7 @@ public class CourseService {
         Chapter chapter = chapterRepository.findById(lesson.getChapterId())
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
         
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
@@ -481,9 +505,11 @@ public class CourseService {
         
         // Supprimer la progression des utilisateurs
         userProgressRepository.deleteByLessonId(lessonId);
+        courseEnrollmentService.clearLesson(course.getId(), lesson.getOrdinal());
         
         // Supprimer la leçon
         lessonRepository.delete(lesson);
+        onStructureChanged(course.getId());
         
         log.info("✅ Leçon supprimée: {}", lessonId);
     }
@@ -499,7 +525,7 @@ public class CourseService {
         Chapter chapter = chapterRepository.findById(lesson.getChapterId())
                 .orElseThrow(() -> new RuntimeException("Chapitre non trouvé"));
         
-        Course course = courseRepository.findById(chapter.getCourseId())
+        Course course = findActiveCourse(chapter.getCourseId())
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
@@ -514,51 +540,56 @@ public class CourseService {
         if (!lesson.getContentType().equals(request.getContentType())) {
             deleteLessonMedia(lesson);
             lesson.setVideoUrl(null);
+            lesson.setVideoMedia(null);
             lesson.setDocumentUrl(null);
+            lesson.setDocumentMedia(null);
         }
         
         lesson.setContentType(request.getContentType());
         
-        // Pour les vidéos URL externe uniquement
-        if (request.getContentType() == ContentType.VIDEO && request.getVideoUrl() != null) {
+        // Pour les vidéos URL externe uniquement (une vidéo hébergée remplacée est libérée)
+        if (request.getContentType() == ContentType.VIDEO && request.getVideoUrl() != null
+                && !request.getVideoUrl().equals(lesson.getVideoUrl())) {
+            mediaAssetRegistry.release(MediaDescriptor.of(lesson.getVideoMedia(), lesson.getVideoUrl(), "video"));
             lesson.setVideoUrl(request.getVideoUrl());
+            lesson.setVideoMedia(null);
         }
 
         Lesson updatedLesson = lessonRepository.save(lesson);
+        onStructureChanged(course.getId());
         log.info("✅ Leçon modifiée: {}", lessonId);
 
         return updatedLesson;
     }
 
-    // 🆕 MÉTHODE HELPER : Supprimer les médias d'une leçon
+    // Cours non supprimé logiquement
+    private Optional<Course> findActiveCourse(String courseId) {
+        return courseRepository.findById(courseId)
+                .filter(course -> course.getStatus() != CourseStatus.DELETED);
+    }
+
+    // Invalide la structure en cache et notifie les consommateurs après commit
+    private void onStructureChanged(String courseId) {
+        courseStructureCache.evict(courseId);
+        domainEventBus.publish(new CourseStructureChangedEvent(courseId));
+    }
+
+    // 🆕 MÉTHODE HELPER : Libérer les médias d'une leçon (suppression via l'outbox au dernier référent)
     private void deleteLessonMedia(Lesson lesson) {
-        // Supprimer la vidéo si elle vient de Cloudinary
-        if (lesson.getVideoUrl() != null && lesson.getVideoUrl().contains("cloudinary.com")) {
-            String videoPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getVideoUrl());
-            if (videoPublicId != null) {
-                cloudinaryService.deleteVideo(videoPublicId);
-            }
-        }
-        
-        // Supprimer le document
-        if (lesson.getDocumentUrl() != null) {
-            String documentPublicId = cloudinaryService.extractPublicIdFromUrl(lesson.getDocumentUrl());
-            if (documentPublicId != null) {
-                cloudinaryService.deleteDocument(documentPublicId);
-            }
-        }
+        mediaAssetRegistry.release(MediaDescriptor.of(lesson.getVideoMedia(), lesson.getVideoUrl(), "video")); // Ignorée si la vidéo est externe
+        mediaAssetRegistry.release(MediaDescriptor.of(lesson.getDocumentMedia(), lesson.getDocumentUrl(), "raw"));
     }
 
     /**
      * Récupère les cours d'un instructeur
      */
     public Page<CourseResponse> getInstructorCourses(String instructorId, Pageable pageable) {
-        Page<Course> courses = courseRepository.findByInstructorId(instructorId, pageable);
+        Page<Course> courses = courseRepository.findByInstructorIdAndStatusNot(instructorId, CourseStatus.DELETED, pageable);
         return courses.map(this::mapToCourseResponse);
     }
 
     public CourseResponse getCourseForEditing(String courseId, String instructorId) {
-        Course course = courseRepository.findById(courseId)
+        Course course = findActiveCourse(courseId)
                 .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
 
         if (!course.getInstructorId().equals(instructorId)) {
@@ -580,6 +611,7 @@ public class CourseService {
         }).collect(Collectors.toList());
 
         response.setChapters(chapterResponses);
+        response.setVideoDurationSeconds(courseStructureCache.get(courseId).getTotalVideoSeconds());
 
         return response;
     }
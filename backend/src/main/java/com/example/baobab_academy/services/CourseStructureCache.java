@@ -0,0 +1,174 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.CourseStructureChangedEvent;
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.models.Chapter;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.enums.ContentType;
+import com.example.baobab_academy.repositories.ChapterRepository;
+import com.example.baobab_academy.repositories.LessonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Cache en mémoire de la structure des cours (chapitres et leçons ordonnés).
+ * Invalidé par CourseService à chaque modification de structure, avec un TTL de sécurité.
+ * L'événement CourseStructureChanged, reçu après commit, invalide une seconde fois : une lecture
+ * concurrente entre l'écriture et le commit ne peut donc pas laisser une structure périmée en cache.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CourseStructureCache implements DomainEventListener {
+
+    private final ChapterRepository chapterRepository;
+    private final LessonRepository lessonRepository;
+
+    private final Map<String, CachedStructure> cache = new ConcurrentHashMap<>();
+
+    @Value("${app.cache.course-structure-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * Récupère la structure d'un cours
+     */
+    public CourseStructure get(String courseId) {
+        return getAll(List.of(courseId)).get(courseId);
+    }
+
+    /**
+     * Récupère la structure de plusieurs cours, en chargeant les absents en deux requêtes au total
+     */
+    public Map<String, CourseStructure> getAll(Collection<String> courseIds) {
+        long now = System.currentTimeMillis();
+        Map<String, CourseStructure> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String courseId : courseIds) {
+            CachedStructure cached = cache.get(courseId);
+            if (cached != null && cached.expiresAt() > now) {
+                result.put(courseId, cached.structure());
+            } else {
+                missing.add(courseId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, CourseStructure> loaded = load(missing);
+            long expiresAt = now + ttlSeconds * 1000;
+            loaded.forEach((courseId, structure) -> cache.put(courseId, new CachedStructure(structure, expiresAt)));
+            result.putAll(loaded);
+        }
+
+        return result;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof CourseStructureChangedEvent changed) {
+                evict(changed.courseId());
+            }
+        }
+    }
+
+    /**
+     * Invalide la structure d'un cours après une modification
+     */
+    public void evict(String courseId) {
+        if (courseId != null) {
+            cache.remove(courseId);
+        }
+    }
+
+    private Map<String, CourseStructure> load(List<String> courseIds) {
+        List<Chapter> chapters = chapterRepository.findByCourseIdIn(courseIds);
+
+        Map<String, List<Lesson>> lessonsByChapter = chapters.isEmpty() ? Map.of() :
+                lessonRepository.findByChapterIdIn(chapters.stream().map(Chapter::getId).collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.groupingBy(Lesson::getChapterId));
+
+        Map<String, List<Chapter>> chaptersByCourse = chapters.stream()
+                .collect(Collectors.groupingBy(Chapter::getCourseId));
+
+        Map<String, CourseStructure> structures = new HashMap<>();
+        for (String courseId : courseIds) {
+            List<ChapterNode> chapterNodes = chaptersByCourse.getOrDefault(courseId, List.of()).stream()
+                    .sorted(Comparator.comparing(Chapter::getOrderIndex, Comparator.nullsLast(Integer::compareTo)))
+                    .map(chapter -> new ChapterNode(
+                            chapter.getId(),
+                            chapter.getTitle(),
+                            chapter.getOrderIndex(),
+                            lessonsByChapter.getOrDefault(chapter.getId(), List.of()).stream()
+                                    .sorted(Comparator.comparing(Lesson::getOrderIndex, Comparator.nullsLast(Integer::compareTo)))
+                                    .map(lesson -> new LessonNode(lesson.getId(), lesson.getTitle(),
+                                            lesson.getOrderIndex(), lesson.getOrdinal(), lesson.getContentType(),
+                                            lesson.getVideoMedia() != null ? lesson.getVideoMedia().getDurationSeconds() : null))
+                                    .collect(Collectors.toList())))
+                    .collect(Collectors.toList());
+
+            int totalLessons = chapterNodes.stream().mapToInt(chapter -> chapter.getLessons().size()).sum();
+            long totalVideoSeconds = Math.round(chapterNodes.stream()
+                    .flatMap(chapter -> chapter.getLessons().stream())
+                    .map(LessonNode::getVideoDurationSeconds)
+                    .filter(duration -> duration != null)
+                    .mapToDouble(Double::doubleValue)
+                    .sum());
+
+            structures.put(courseId, CourseStructure.builder()
+                    .courseId(courseId)
+                    .chapters(chapterNodes)
+                    .totalLessons(totalLessons)
+                    .totalVideoSeconds(totalVideoSeconds)
+                    .build());
+        }
+
+        log.debug("📦 Structure chargée pour {} cours", courseIds.size());
+        return structures;
+    }
+
+    private record CachedStructure(CourseStructure structure, long expiresAt) {
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class CourseStructure {
+        private String courseId;
+        private List<ChapterNode> chapters;
+        private int totalLessons;
+        private long totalVideoSeconds; // Durée cumulée des vidéos hébergées (descripteurs)
+    }
+
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class ChapterNode {
+        private String id;
+        private String title;
+        private Integer orderIndex;
+        private List<LessonNode> lessons;
+    }
+
+    @lombok.Data
+    @lombok.AllArgsConstructor
+    public static class LessonNode {
+        private String id;
+        private String title;
+        private Integer orderIndex;
+        private Integer ordinal;
+        private ContentType contentType;
+        private Double videoDurationSeconds;
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.baobab_academy.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports NDJSON ou CSV des utilisateurs, de la progression et des notes, lus directement depuis un
+ * curseur Mongo et écrits au fil de l'eau : la mémoire reste constante quel que soit le volume.
+ * Seuls les champs de la liste blanche de chaque export peuvent être sélectionnés (jamais le mot de passe).
+ */
+@Service
+@Slf4j
+public class DataExportService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final int cursorBatchSize;
+    private final int flushEvery;
+
+    public DataExportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+            @Value("${app.exports.cursor-batch-size:1000}") int cursorBatchSize,
+            @Value("${app.exports.flush-every:5000}") int flushEvery) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.cursorBatchSize = cursorBatchSize;
+        this.flushEvery = flushEvery;
+    }
+
+    public enum Dataset {
+        USERS("users", List.of("id", "email", "firstName", "lastName", "role", "createdAt", "updatedAt")),
+        PROGRESS("user_progress", List.of("id", "userId", "courseId", "lessonId", "completed", "progressPercentage",
+                "watchTimeSeconds", "watchedSeconds", "durationSeconds", "completedAt", "createdAt", "updatedAt")),
+        RATINGS("course_ratings", List.of("id", "courseId", "userId", "rating", "comment", "createdAt", "updatedAt"));
+
+        private final String collection;
+        private final List<String> allowedFields;
+
+        Dataset(String collection, List<String> allowedFields) {
+            this.collection = collection;
+            this.allowedFields = allowedFields;
+        }
+
+        public static Dataset from(String name) {
+            return Arrays.stream(values())
+                    .filter(dataset -> dataset.name().equalsIgnoreCase(name) || dataset.collection.equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Export inconnu: " + name));
+        }
+    }
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format from(String name) {
+            try {
+                return Format.valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Format d'export invalide: " + name);
+            }
+        }
+    }
+
+    /**
+     * Valide la demande avant l'ouverture du flux (les erreurs restent des réponses JSON classiques)
+     */
+    public ExportRequest prepare(String dataset, String format, String fields, LocalDate from, LocalDate to,
+            boolean gzip) {
+        Dataset target = Dataset.from(dataset);
+
+        List<String> selected = target.allowedFields;
+        if (fields != null && !fields.isBlank()) {
+            selected = Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList());
+            List<String> unknown = selected.stream()
+                    .filter(field -> !target.allowedFields.contains(field))
+                    .collect(Collectors.toList());
+            if (!unknown.isEmpty() || selected.isEmpty()) {
+                throw new RuntimeException("Champs non exportables: " + unknown + " (autorisés: " + target.allowedFields + ")");
+            }
+        }
+
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new RuntimeException("La date de début doit précéder la date de fin");
+        }
+
+        return new ExportRequest(target, Format.from(format), selected, from, to, gzip);
+    }
+
+    /**
+     * Corps de réponse écrit sur le thread asynchrone de Spring MVC, depuis le curseur
+     */
+    public StreamingResponseBody stream(ExportRequest request) {
+        return output -> {
+            long started = System.currentTimeMillis();
+            long rows = 0;
+
+            OutputStream target = request.gzip() ? new GZIPOutputStream(output, 64 * 1024) : output;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+            if (request.format() == Format.CSV) {
+                writer.write(request.fields().stream().map(this::csvValue).collect(Collectors.joining(",")));
+                writer.write('\n');
+            }
+
+            try (Stream<Document> cursor = mongoTemplate.stream(buildQuery(request), Document.class,
+                    request.dataset().collection)) {
+                for (Document document : (Iterable<Document>) cursor::iterator) {
+                    writeRow(writer, request, document);
+                    if (++rows % flushEvery == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+            log.info("📤 Export {} terminé: {} lignes en {} ms", request.dataset(), rows,
+                    System.currentTimeMillis() - started);
+        };
+    }
+
+    public String filename(ExportRequest request) {
+        String extension = request.format() == Format.CSV ? ".csv" : ".ndjson";
+        return request.dataset().collection + "-" + LocalDate.now() + extension + (request.gzip() ? ".gz" : "");
+    }
+
+    private Query buildQuery(ExportRequest request) {
+        Query query = new Query();
+        if (request.from() != null || request.to() != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (request.from() != null) {
+                createdAt.gte(request.from().atStartOfDay());
+            }
+            if (request.to() != null) {
+                createdAt.lt(request.to().plusDays(1).atStartOfDay());
+            }
+            query.addCriteria(createdAt);
+        }
+
+        request.fields().forEach(field -> query.fields().include(mongoField(field)));
+        // Parcours dans l'ordre de l'index _id : pas de tri en mémoire côté serveur
+        return query.with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(cursorBatchSize);
+    }
+
+    private void writeRow(Writer writer, ExportRequest request, Document document) throws IOException {
+        if (request.format() == Format.CSV) {
+            String line = request.fields().stream()
+                    .map(field -> csvValue(exportValue(document.get(mongoField(field)))))
+                    .collect(Collectors.joining(","));
+            writer.write(line);
+        } else {
+            Map<String, Object> row = new LinkedHashMap<>();
+            request.fields().forEach(field -> row.put(field, exportValue(document.get(mongoField(field)))));
+            writer.write(objectMapper.writeValueAsString(row));
+        }
+        writer.write('\n');
+    }
+
+    private Object exportValue(Object value) {
+        if (value instanceof ObjectId objectId) {
+            return objectId.toHexString();
+        }
+        if (value instanceof Date date) {
+            return date.toInstant().toString();
+        }
+        return value;
+    }
+
+    private String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Texte saisi par les utilisateurs : un tableur interpréterait =, +, -, @ en tête comme une formule
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static String mongoField(String field) {
+        return "id".equals(field) ? "_id" : field;
+    }
+
+    public record ExportRequest(Dataset dataset, Format format, List<String> fields, LocalDate from, LocalDate to,
+            boolean gzip) {
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.ImageVariantSet;
+import com.example.baobab_academy.models.MediaDescriptor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Génère les variantes de largeur fixe d'une image de couverture (thumbnail, card, hero) en JPEG avec ImageIO,
+ * sur un pool CPU borné. Les variantes sont stockées sous variants/{sha256}/... : une image déjà traitée
+ * (même contenu) réutilise ses variantes sans décodage. Les jeux sont comptés par référence comme les MediaAsset.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    /** Largeurs cibles, jamais agrandies au-delà de la source */
+    public static final Map<String, Integer> VARIANT_WIDTHS = Map.of("thumbnail", 160, "card", 480, "hero", 1280);
+
+    private static final int MAX_VARIANT_WIDTH = 1280;
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore mediaStore;
+    private final MediaDeletionOutbox mediaDeletionOutbox;
+    private final ExecutorService imagePool;
+    private final float jpegQuality;
+
+    public ImageVariantService(MongoTemplate mongoTemplate, MediaStore mediaStore,
+            MediaDeletionOutbox mediaDeletionOutbox,
+            @Value("${app.media.variants.threads:0}") int threads,
+            @Value("${app.media.variants.jpeg-quality:0.82}") float jpegQuality) {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaStore = mediaStore;
+        this.mediaDeletionOutbox = mediaDeletionOutbox;
+        this.jpegQuality = jpegQuality;
+        this.imagePool = Executors.newFixedThreadPool(threads > 0 ? threads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Jeu de variantes d'une image envoyée (lue depuis le fichier temporaire multipart), référence comptée :
+     * le cours qui l'utilise doit le rendre par {@link #release}
+     */
+    public ImageVariantSet acquire(MultipartFile file) throws IOException {
+        String hash = sha256(file);
+
+        ImageVariantSet existing = mongoTemplate.findAndModify(byId(hash),
+                new Update().inc("refCount", 1).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), ImageVariantSet.class);
+        if (existing != null) {
+            log.debug("♻️ Variantes déjà générées pour l'image {} ({} références)", hash, existing.getRefCount());
+            return existing;
+        }
+
+        ImageVariantSet generated;
+        try {
+            generated = imagePool.submit(() -> render(file, hash)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Génération des variantes interrompue", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+
+        // Génération concurrente de la même image : un seul document, les fichiers ont les mêmes clés
+        LocalDateTime now = LocalDateTime.now();
+        ImageVariantSet acquired = mongoTemplate.findAndModify(byId(hash), new Update()
+                        .setOnInsert("variants", generated.getVariants())
+                        .setOnInsert("media", generated.getMedia())
+                        .setOnInsert("sourceWidth", generated.getSourceWidth())
+                        .setOnInsert("sourceHeight", generated.getSourceHeight())
+                        .setOnInsert("createdAt", now)
+                        .inc("refCount", 1)
+                        .set("updatedAt", now),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ImageVariantSet.class);
+
+        // Les clés dérivent du contenu : les suppressions planifiées par une libération antérieure sont annulées
+        // une fois le jeu enregistré (celles planifiées plus tard sont écartées par l'outbox, le jeu les référence)
+        if (acquired.getMedia() != null) {
+            mediaDeletionOutbox.cancelAll(acquired.getMedia().values());
+        }
+        return acquired;
+    }
+
+    /**
+     * Rend une référence au jeu de variantes ; au dernier référent, le jeu est retiré et ses fichiers
+     * confiés à l'outbox des suppressions
+     */
+    public void release(String variantSetId) {
+        if (variantSetId == null) {
+            return;
+        }
+
+        ImageVariantSet set = mongoTemplate.findAndModify(byId(variantSetId),
+                new Update().inc("refCount", -1).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), ImageVariantSet.class);
+        if (set == null || set.getRefCount() > 0) {
+            return;
+        }
+
+        // Le document n'est retiré que s'il n'a pas été repris entre-temps
+        long removed = mongoTemplate.remove(Query.query(Criteria.where("_id").is(variantSetId)
+                .and("refCount").lte(0)), ImageVariantSet.class).getDeletedCount();
+        if (removed > 0 && set.getMedia() != null) {
+            mediaDeletionOutbox.enqueueAll(set.getMedia().values());
+            log.info("🗑️ Variantes de l'image {} libérées", variantSetId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imagePool.shutdown();
+    }
+
+    private ImageVariantSet render(MultipartFile file, String hash) throws IOException {
+        long started = System.currentTimeMillis();
+        int sourceWidth;
+        int sourceHeight;
+        BufferedImage source;
+
+        try (InputStream input = file.getInputStream(); ImageInputStream imageInput = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new IOException("Format d'image non décodable (variantes)");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                sourceWidth = reader.getWidth(0);
+                sourceHeight = reader.getHeight(0);
+
+                // Sous-échantillonnage au décodage : la mémoire dépend de la plus grande variante, pas de la source
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, sourceWidth / MAX_VARIANT_WIDTH);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        Map<String, String> variants = new LinkedHashMap<>();
+        Map<String, MediaDescriptor> media = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> variant : VARIANT_WIDTHS.entrySet()) {
+            BufferedImage resized = resize(source, Math.min(variant.getValue(), source.getWidth()));
+            Path encoded = Files.createTempFile("variant-", ".jpg");
+            try {
+                writeJpeg(resized, encoded);
+                String key = "variants/" + hash + "/" + variant.getKey() + ".jpg";
+                MediaDescriptor stored = mediaStore.describe(mediaStore.storeFile(encoded, key, "image"), "image", null);
+                variants.put(variant.getKey(), stored.getUrl());
+                media.put(variant.getKey(), stored);
+            } finally {
+                Files.deleteIfExists(encoded);
+            }
+        }
+
+        log.info("🖼️ {} variantes générées pour l'image {} en {} ms", variants.size(), hash,
+                System.currentTimeMillis() - started);
+        return ImageVariantSet.builder()
+                .id(hash)
+                .variants(variants)
+                .media(media)
+                .sourceWidth(sourceWidth)
+                .sourceHeight(sourceHeight)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Query byId(String variantSetId) {
+        return Query.query(Criteria.where("_id").is(variantSetId));
+    }
+
+    private BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        // JPEG sans canal alpha : fond blanc pour les PNG/GIF transparents
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static String sha256(MultipartFile file) throws IOException {
+        try (DigestInputStream input = new DigestInputStream(file.getInputStream(), MessageDigest.getInstance("SHA-256"))) {
+            input.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(input.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.Category;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CourseStatus;
+import com.example.baobab_academy.repositories.CategoryRepository;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.services.UserProfileService.EnrolledCourseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Construit les tuiles du tableau de bord apprenant en un nombre fixe de requêtes :
+ * un $group sur user_progress, un chargement groupé des cours et des catégories,
+ * et les totaux de leçons issus du cache de structure.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LearnerDashboardAssembler {
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseRepository courseRepository;
+    private final CategoryRepository categoryRepository;
+    private final CourseStructureCache courseStructureCache;
+
+    /**
+     * Construit la liste des cours publiés inscrits d'un utilisateur avec leur progression
+     */
+    public List<EnrolledCourseDto> assemble(String userId) {
+        return assemble(userId, Set.of(CourseStatus.PUBLISHED));
+    }
+
+    /**
+     * Cours inscrits dont le statut fait partie de {@code statuses} (statistiques : tous sauf supprimés)
+     */
+    public List<EnrolledCourseDto> assemble(String userId, Set<CourseStatus> statuses) {
+        List<CourseProgressAggregate> aggregates = aggregateProgressByCourse(userId);
+        if (aggregates.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> courseIds = aggregates.stream()
+                .map(CourseProgressAggregate::getId)
+                .collect(Collectors.toSet());
+
+        Map<String, Course> coursesById = courseRepository.findAllById(courseIds).stream()
+                .filter(course -> statuses.contains(course.getStatus()))
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        Set<String> categoryIds = coursesById.values().stream()
+                .map(Course::getCategoryId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        Map<String, String> categoryNames = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+
+        Map<String, CourseStructureCache.CourseStructure> structures = courseStructureCache.getAll(coursesById.keySet());
+
+        List<EnrolledCourseDto> tiles = aggregates.stream()
+                .filter(aggregate -> coursesById.containsKey(aggregate.getId()))
+                .map(aggregate -> toTile(aggregate, coursesById.get(aggregate.getId()),
+                        categoryNames, structures.get(aggregate.getId())))
+                .collect(Collectors.toList());
+
+        log.debug("🧩 {} tuiles de tableau de bord construites pour l'utilisateur {}", tiles.size(), userId);
+        return tiles;
+    }
+
+    private List<CourseProgressAggregate> aggregateProgressByCourse(String userId) {
+        TypedAggregation<UserProgress> aggregation = Aggregation.newAggregation(UserProgress.class,
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.group("courseId")
+                        .sum(ConditionalOperators.when(Criteria.where("completed").is(true)).then(1).otherwise(0))
+                        .as("completedLessons")
+                        .min("createdAt").as("enrolledAt")
+                        .max("updatedAt").as("lastAccessedAt"));
+
+        return mongoTemplate.aggregate(aggregation, CourseProgressAggregate.class).getMappedResults();
+    }
+
+    private EnrolledCourseDto toTile(CourseProgressAggregate aggregate, Course course,
+            Map<String, String> categoryNames, CourseStructureCache.CourseStructure structure) {
+        int totalLessons = structure != null ? structure.getTotalLessons() : 0;
+        int completedLessons = Math.min(aggregate.getCompletedLessons(), totalLessons);
+
+        double progressPercentage = totalLessons > 0 ? (double) completedLessons / totalLessons * 100 : 0;
+        boolean isCompleted = totalLessons > 0 && completedLessons == totalLessons;
+
+        LocalDateTime enrolledAt = aggregate.getEnrolledAt() != null ? aggregate.getEnrolledAt() : LocalDateTime.now();
+        LocalDateTime lastAccessedAt = aggregate.getLastAccessedAt() != null ? aggregate.getLastAccessedAt() : enrolledAt;
+
+        return EnrolledCourseDto.builder()
+                .id(course.getId())
+                .title(course.getTitle())
+                .description(course.getDescription())
+                .coverImage(course.getCoverImage())
+                .categoryId(course.getCategoryId())
+                .categoryName(categoryNames.get(course.getCategoryId()))
+                .instructorId(course.getInstructorId())
+                .level(course.getLevel() != null ? course.getLevel().toString() : null)
+                .duration(course.getDuration())
+                .students(course.getStudents())
+                .rating(course.getRating())
+                .status(course.getStatus().toString())
+                .createdAt(course.getCreatedAt() != null ?
+                    course.getCreatedAt().toString() : LocalDateTime.now().toString())
+                .updatedAt(course.getUpdatedAt() != null ?
+                    course.getUpdatedAt().toString() : null)
+                .progressPercentage(progressPercentage)
+                .completedLessons(completedLessons)
+                .totalLessons(totalLessons)
+                .enrolledAt(enrolledAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .lastAccessedAt(lastAccessedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
+                .isCompleted(isCompleted)
+                .build();
+    }
+
+    /**
+     * Résultat du $group par cours sur user_progress
+     */
+    @lombok.Data
+    public static class CourseProgressAggregate {
+        private String id; // courseId
+        private int completedLessons;
+        private LocalDateTime enrolledAt;
+        private LocalDateTime lastAccessedAt;
+    }
+}
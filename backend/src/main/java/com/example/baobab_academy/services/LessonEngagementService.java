@@ -0,0 +1,211 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.LessonProgressUpdatedEvent;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.LessonEngagementRollup;
+import com.example.baobab_academy.models.LessonEngagementRollup.LessonHistogram;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.services.CourseStructureCache.ChapterNode;
+import com.example.baobab_academy.services.CourseStructureCache.LessonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrège les heartbeats de progression en histogrammes par leçon (position dans la vidéo et palier atteint).
+ * Chaque lot d'événements est replié en mémoire puis écrit en un seul bulk de $inc
+ * (document horaire + document cumulé), ce qui évite tout parcours de user_progress à la lecture.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LessonEngagementService implements DomainEventListener {
+
+    public static final int POSITION_BUCKETS = 20; // Tranches de 5 % de la vidéo
+    public static final int REACHED_BUCKETS = 10; // Paliers de 10 % à 100 %
+
+    private static final String TOTAL_SUFFIX = ":total";
+    private static final DateTimeFormatter HOUR_KEY = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH");
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseRepository courseRepository;
+    private final CourseStructureCache courseStructureCache;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        Map<String, Map<String, Long>> incrementsByCourse = new HashMap<>();
+
+        for (DomainEvent event : events) {
+            if (event instanceof LessonProgressUpdatedEvent progress && progress.courseId() != null) {
+                fold(progress, incrementsByCourse.computeIfAbsent(progress.courseId(), id -> new HashMap<>()));
+            }
+        }
+
+        if (incrementsByCourse.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LessonEngagementRollup.class);
+        incrementsByCourse.forEach((courseId, increments) -> {
+            bulk.upsert(Query.query(Criteria.where("_id").is(courseId + ":" + hour.format(HOUR_KEY))),
+                    toUpdate(courseId, hour, increments));
+            bulk.upsert(Query.query(Criteria.where("_id").is(courseId + TOTAL_SUFFIX)),
+                    toUpdate(courseId, null, increments));
+        });
+        bulk.execute();
+
+        log.debug("🔥 Engagement agrégé pour {} cours ({} événements)", incrementsByCourse.size(), events.size());
+    }
+
+    /**
+     * Histogrammes d'un cours : cumul (lecture par clé) ou fenêtre des dernières heures (une requête par plage)
+     */
+    public CourseEngagementDto getCourseEngagement(String courseId, String instructorId, Integer hours) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Cours non trouvé"));
+
+        if (!course.getInstructorId().equals(instructorId)) {
+            throw new RuntimeException("Accès non autorisé à ce cours");
+        }
+
+        List<LessonEngagementRollup> rollups;
+        LocalDateTime from = null;
+        if (hours == null || hours <= 0) {
+            LessonEngagementRollup total = mongoTemplate.findById(courseId + TOTAL_SUFFIX, LessonEngagementRollup.class);
+            rollups = total != null ? List.of(total) : List.of();
+        } else {
+            from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(hours - 1L);
+            rollups = mongoTemplate.find(Query.query(Criteria.where("courseId").is(courseId).and("hour").gte(from)),
+                    LessonEngagementRollup.class);
+        }
+
+        Map<String, LessonEngagementDto> byLesson = new HashMap<>();
+        for (LessonEngagementRollup rollup : rollups) {
+            if (rollup.getLessons() == null) {
+                continue;
+            }
+            rollup.getLessons().forEach((lessonId, histogram) -> byLesson
+                    .computeIfAbsent(lessonId, LessonEngagementDto::empty)
+                    .add(histogram));
+        }
+
+        // Ordre du cours, leçons sans données incluses
+        List<LessonEngagementDto> lessons = new ArrayList<>();
+        for (ChapterNode chapter : courseStructureCache.get(courseId).getChapters()) {
+            for (LessonNode lesson : chapter.getLessons()) {
+                LessonEngagementDto dto = byLesson.getOrDefault(lesson.getId(), LessonEngagementDto.empty(lesson.getId()));
+                dto.setLessonTitle(lesson.getTitle());
+                lessons.add(dto);
+            }
+        }
+
+        return CourseEngagementDto.builder()
+                .courseId(courseId)
+                .from(from)
+                .lessons(lessons)
+                .build();
+    }
+
+    private void fold(LessonProgressUpdatedEvent event, Map<String, Long> increments) {
+        String prefix = "lessons." + event.lessonId() + ".";
+        increments.merge(prefix + "heartbeats", 1L, Long::sum);
+
+        if (event.previousPercentage() == 0 && event.progressPercentage() > 0) {
+            increments.merge(prefix + "started", 1L, Long::sum);
+        }
+
+        // Paliers franchis par ce heartbeat : reached[k] = nombre d'apprenants ayant atteint (k+1)*10 %
+        for (int bucket = 0; bucket < REACHED_BUCKETS; bucket++) {
+            int threshold = (bucket + 1) * 10;
+            if (event.previousPercentage() < threshold && event.progressPercentage() >= threshold) {
+                increments.merge(prefix + "reached." + bucket, 1L, Long::sum);
+            }
+        }
+
+        // Secondes vues par tranche de la vidéo
+        Integer duration = event.durationSeconds();
+        if (event.segmentStart() != null && event.segmentEnd() != null && duration != null && duration > 0) {
+            for (int bucket = 0; bucket < POSITION_BUCKETS; bucket++) {
+                long bucketStart = (long) duration * bucket / POSITION_BUCKETS;
+                long bucketEnd = (long) duration * (bucket + 1) / POSITION_BUCKETS;
+                long overlap = Math.min(bucketEnd, event.segmentEnd()) - Math.max(bucketStart, event.segmentStart());
+                if (overlap > 0) {
+                    increments.merge(prefix + "positionSeconds." + bucket, overlap, Long::sum);
+                }
+            }
+        }
+    }
+
+    private Update toUpdate(String courseId, LocalDateTime hour, Map<String, Long> increments) {
+        Update update = new Update()
+                .setOnInsert("courseId", courseId)
+                .set("updatedAt", LocalDateTime.now());
+        if (hour != null) {
+            update.setOnInsert("hour", hour);
+        }
+        increments.forEach(update::inc);
+        return update;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class CourseEngagementDto {
+        private String courseId;
+        private LocalDateTime from; // null = depuis le début
+        private List<LessonEngagementDto> lessons;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class LessonEngagementDto {
+        private String lessonId;
+        private String lessonTitle;
+        private long[] positionSeconds; // Heatmap : secondes vues par tranche de 5 %
+        private long[] reached; // Courbe de rétention : apprenants ayant atteint 10 %, 20 %, ... 100 %
+        private long started;
+        private long heartbeats;
+
+        static LessonEngagementDto empty(String lessonId) {
+            return LessonEngagementDto.builder()
+                    .lessonId(lessonId)
+                    .positionSeconds(new long[POSITION_BUCKETS])
+                    .reached(new long[REACHED_BUCKETS])
+                    .build();
+        }
+
+        void add(LessonHistogram histogram) {
+            addBuckets(positionSeconds, histogram.getPositionSeconds());
+            addBuckets(reached, histogram.getReached());
+            started += histogram.getStarted();
+            heartbeats += histogram.getHeartbeats();
+        }
+
+        private static void addBuckets(long[] target, Map<String, Long> source) {
+            if (source == null) {
+                return;
+            }
+            source.forEach((bucket, value) -> {
+                int index = Integer.parseInt(bucket);
+                if (index >= 0 && index < target.length && value != null) {
+                    target[index] += value;
+                }
+            });
+        }
+    }
+}
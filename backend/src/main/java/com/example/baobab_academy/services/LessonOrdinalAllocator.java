@@ -0,0 +1,46 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.LessonOrdinalSequence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Attribue les ordinaux stables des leçons d'un cours (incrément atomique, jamais réutilisés)
+ */
+@Component
+@RequiredArgsConstructor
+public class LessonOrdinalAllocator {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Réserve un ordinal pour une nouvelle leçon
+     */
+    public int allocate(String courseId) {
+        return allocate(courseId, 1);
+    }
+
+    /**
+     * Réserve un bloc de {@code count} ordinaux consécutifs et renvoie le premier
+     */
+    public int allocate(String courseId, int count) {
+        LessonOrdinalSequence sequence = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(courseId)),
+                new Update().inc("next", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                LessonOrdinalSequence.class);
+        return sequence.getNext() - count;
+    }
+
+    /**
+     * Supprime la séquence d'un cours supprimé
+     */
+    public void delete(String courseId) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(courseId)), LessonOrdinalSequence.class);
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.dtos.MediaUploadResult;
+import com.example.baobab_academy.dtos.StoredMediaPage;
+import com.example.baobab_academy.models.MediaDescriptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Stockage des médias sur le système de fichiers local (app.media.store=local), sous file.upload-dir.
+ * Les fichiers sont écrits dans un fichier temporaire puis renommés atomiquement, et servis par
+ * MediaController (/api/media/**) avec Range et ETag. Utile pour l'auto-hébergement et les tests de charge hors ligne.
+ */
+@Service
+@ConditionalOnProperty(name = "app.media.store", havingValue = "local")
+@Slf4j
+public class LocalMediaStore implements MediaStore {
+
+    public static final String URL_PREFIX = "/api/media/";
+
+    private static final Set<String> IMAGE_EXTENSIONS = Set.of(".jpg", ".jpeg", ".png", ".gif", ".webp");
+    private static final Set<String> VIDEO_EXTENSIONS = Set.of(".mp4", ".mov", ".avi", ".mkv", ".webm");
+
+    private final MediaFileValidator mediaFileValidator;
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalMediaStore(MediaFileValidator mediaFileValidator,
+            @Value("${file.upload-dir:./uploads}") String uploadDir,
+            @Value("${app.media.local.base-url:http://localhost:8080}") String baseUrl) throws IOException {
+        this.mediaFileValidator = mediaFileValidator;
+        this.root = Files.createDirectories(Paths.get(uploadDir)).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        log.info("✅ Stockage local des médias initialisé: {}", root);
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public MediaUploadResult uploadCourseImage(MultipartFile file, String courseId) throws IOException {
+        mediaFileValidator.validateImageFile(file);
+
+        String key = String.format("courses/%s/cover_%d%s", safe(courseId), System.currentTimeMillis(),
+                extension(file.getOriginalFilename()));
+        return store(key, file);
+    }
+
+    @Override
+    public MediaUploadResult uploadLessonVideo(InputStream input, String courseId, String lessonId) throws IOException {
+        // L'extension est déduite de la signature du conteneur (le flux vient du spool, sans nom d'origine)
+        BufferedInputStream buffered = new BufferedInputStream(input);
+        buffered.mark(16);
+        String extension = videoExtension(buffered.readNBytes(16));
+        buffered.reset();
+
+        String key = String.format("lessons/%s/%s/video_%d%s", safe(courseId), safe(lessonId),
+                System.currentTimeMillis(), extension);
+        Path temp = tempFileFor(key);
+        try {
+            Files.copy(buffered, temp, StandardCopyOption.REPLACE_EXISTING);
+            return commit(temp, key);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public MediaUploadResult uploadLessonDocument(MultipartFile file, String courseId, String lessonId)
+            throws IOException {
+        mediaFileValidator.validateDocumentFile(file);
+
+        String originalFilename = file.getOriginalFilename();
+        String extension = extension(originalFilename);
+        String baseName = originalFilename != null && originalFilename.contains(".")
+                ? originalFilename.substring(0, originalFilename.lastIndexOf('.'))
+                : "document";
+        baseName = baseName.replaceAll("[^a-zA-Z0-9_-]", "_").replaceAll("_{2,}", "_");
+        if (baseName.length() > 30) {
+            baseName = baseName.substring(0, 30);
+        }
+
+        String key = String.format("lessons/%s/%s/documents/%s_%d%s", safe(courseId), safe(lessonId), baseName,
+                System.currentTimeMillis(), extension);
+        return store(key, file);
+    }
+
+    @Override
+    public MediaUploadResult storeFile(Path file, String key, String resourceType) throws IOException {
+        Path temp = tempFileFor(key);
+        try {
+            Files.copy(file, temp, StandardCopyOption.REPLACE_EXISTING);
+            return commit(temp, key);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Map<String, String> deleteResources(List<String> publicIds, String resourceType) throws Exception {
+        Map<String, String> results = new LinkedHashMap<>();
+        for (String publicId : publicIds) {
+            Path file = resolve(publicId);
+            results.put(publicId, file != null && Files.deleteIfExists(file) ? "deleted" : "not_found");
+        }
+        return results;
+    }
+
+    @Override
+    public StoredMediaPage listResources(String resourceType, String cursor, int pageSize) throws IOException {
+        // Parcours en profondeur, dossier par dossier dans l'ordre des noms : le curseur est la dernière clé
+        // de la page précédente, et seuls les dossiers sur son chemin et ceux de la page sont relus
+        List<Path> files = new ArrayList<>(pageSize + 1);
+        collect(root, cursor != null ? cursor.split("/") : new String[0], 0, resourceType, files, pageSize + 1);
+
+        List<StoredMediaPage.Item> resources = new ArrayList<>(pageSize);
+        for (Path file : files.subList(0, Math.min(pageSize, files.size()))) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            resources.add(StoredMediaPage.Item.builder()
+                    .publicId(key(file))
+                    .createdAt(attributes.lastModifiedTime().toInstant())
+                    .bytes(attributes.size())
+                    .build());
+        }
+        return StoredMediaPage.builder()
+                .resources(resources)
+                .nextCursor(files.size() > pageSize ? resources.get(resources.size() - 1).getPublicId() : null)
+                .build();
+    }
+
+    /**
+     * Ajoute à {@code files} les fichiers du type demandé situés après le curseur (segments à partir de
+     * {@code depth}), jusqu'à {@code limit} ; un seul dossier est listé à la fois
+     */
+    private void collect(Path dir, String[] cursor, int depth, String resourceType, List<Path> files, int limit)
+            throws IOException {
+        List<Path> children;
+        try (Stream<Path> entries = Files.list(dir)) {
+            children = entries
+                    .filter(entry -> !entry.getFileName().toString().startsWith(".")) // Fichiers temporaires d'écriture
+                    .sorted(Comparator.comparing(entry -> entry.getFileName().toString()))
+                    .toList();
+        }
+
+        String after = depth < cursor.length ? cursor[depth] : null;
+        for (Path child : children) {
+            if (files.size() >= limit) {
+                return;
+            }
+            String name = child.getFileName().toString();
+            int order = after != null ? name.compareTo(after) : 1;
+            if (order < 0) {
+                continue;
+            }
+
+            if (Files.isDirectory(child)) {
+                // Même nom que le segment du curseur : reprise à l'intérieur du dossier
+                collect(child, order == 0 ? cursor : new String[0], order == 0 ? depth + 1 : 0,
+                        resourceType, files, limit);
+            } else if (order > 0 && Files.isRegularFile(child) && resourceType.equals(resourceType(name))) {
+                files.add(child);
+            }
+        }
+    }
+
+    private String key(Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    @Override
+    public String extractPublicIdFromUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        if (url.startsWith(baseUrl + URL_PREFIX)) {
+            return url.substring(baseUrl.length() + URL_PREFIX.length());
+        }
+        return url.startsWith(URL_PREFIX) ? url.substring(URL_PREFIX.length()) : null;
+    }
+
+    @Override
+    public MediaDescriptor fetchMetadata(MediaDescriptor media) throws IOException {
+        Path file = resolve(media.getPublicId());
+        if (file != null && Files.exists(file)) {
+            media.setBytes(Files.size(file));
+        }
+        return media;
+    }
+
+    /**
+     * Chemin du média sous la racine de stockage, ou null si la clé sort de la racine
+     */
+    public Path resolve(String key) {
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        Path file = root.resolve(key).normalize();
+        return file.startsWith(root) && !file.equals(root) ? file : null;
+    }
+
+    /**
+     * Chemin d'un média exposable publiquement : null pour les fichiers cachés et les écritures en cours (.part)
+     */
+    public Path resolvePublic(String key) {
+        Path file = resolve(key);
+        if (file == null || file.getFileName().toString().endsWith(".part")) {
+            return null;
+        }
+        for (Path segment : root.relativize(file)) {
+            if (segment.toString().startsWith(".")) {
+                return null;
+            }
+        }
+        return file;
+    }
+
+    private MediaUploadResult store(String key, MultipartFile file) throws IOException {
+        Path temp = tempFileFor(key);
+        try {
+            file.transferTo(temp);
+            return commit(temp, key);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path tempFileFor(String key) throws IOException {
+        Path target = resolve(key);
+        if (target == null) {
+            throw new IOException("Chemin de média invalide");
+        }
+        Files.createDirectories(target.getParent());
+        return Files.createTempFile(target.getParent(), ".upload-", ".part");
+    }
+
+    private MediaUploadResult commit(Path temp, String key) throws IOException {
+        Path target = resolve(key);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        String url = baseUrl + URL_PREFIX + key;
+        long size = Files.size(target);
+        log.info("✅ Média stocké localement: {} ({} octets)", key, size);
+
+        return MediaUploadResult.builder()
+                .publicId(key)
+                .url(url)
+                .secureUrl(url)
+                .format(extension(key).replace(".", ""))
+                .bytes(size <= Integer.MAX_VALUE ? (int) size : null)
+                .success(true)
+                .build();
+    }
+
+    private static String videoExtension(byte[] header) {
+        if (header.length >= 12 && header[4] == 'f' && header[5] == 't' && header[6] == 'y' && header[7] == 'p') {
+            return header[8] == 'q' && header[9] == 't' ? ".mov" : ".mp4";
+        }
+        if (header.length >= 4 && (header[0] & 0xFF) == 0x1A && (header[1] & 0xFF) == 0x45
+                && (header[2] & 0xFF) == 0xDF && (header[3] & 0xFF) == 0xA3) {
+            return ".webm";
+        }
+        if (header.length >= 12 && header[0] == 'R' && header[8] == 'A' && header[9] == 'V' && header[10] == 'I') {
+            return ".avi";
+        }
+        return ".mp4";
+    }
+
+    // Type de ressource au sens Cloudinary, déduit de l'extension
+    private static String resourceType(String key) {
+        String extension = extension(key);
+        if (IMAGE_EXTENSIONS.contains(extension)) {
+            return "image";
+        }
+        return VIDEO_EXTENSIONS.contains(extension) ? "video" : "raw";
+    }
+
+    private static String extension(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        return filename.substring(filename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+    }
+
+    private static String safe(String id) {
+        return id.replaceAll("[^a-zA-Z0-9_-]", "_");
+    }
+}
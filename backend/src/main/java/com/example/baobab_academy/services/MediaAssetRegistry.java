@@ -0,0 +1,165 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.MediaAsset;
+import com.example.baobab_academy.models.MediaDescriptor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Déduplication des médias de leçons par hash SHA-256 du contenu (collection media_assets).
+ * Un contenu déjà stocké est rattaché sans transfert (refCount + 1) ; la libération décrémente
+ * le compteur et ne planifie la suppression réelle (outbox) qu'au dernier référent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaAssetRegistry {
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaDeletionOutbox mediaDeletionOutbox;
+
+    /**
+     * Flux qui calcule le SHA-256 au fil de la lecture ({@link #hexDigest} une fois le flux consommé)
+     */
+    public static DigestInputStream digesting(InputStream input) {
+        try {
+            return new DigestInputStream(input, MessageDigest.getInstance("SHA-256"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static String hexDigest(DigestInputStream input) {
+        return HexFormat.of().formatHex(input.getMessageDigest().digest());
+    }
+
+    /**
+     * SHA-256 d'un flux lu entièrement
+     */
+    public static String sha256(InputStream input) throws IOException {
+        try (DigestInputStream digesting = digesting(input)) {
+            digesting.transferTo(OutputStream.nullOutputStream());
+            return hexDigest(digesting);
+        }
+    }
+
+    /**
+     * Rattache un contenu déjà stocké : descripteur existant (refCount incrémenté) ou null s'il est inconnu
+     */
+    public MediaDescriptor attach(String contentHash, String resourceType) {
+        MediaAsset asset = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(MediaAsset.key(resourceType, contentHash)).and("url").ne(null)),
+                new Update().inc("refCount", 1).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), MediaAsset.class);
+        if (asset == null) {
+            return null;
+        }
+        log.info("♻️ Média {} déjà stocké, rattaché sans transfert ({} références)", asset.getId(), asset.getRefCount());
+        return describe(asset);
+    }
+
+    /**
+     * Enregistre un contenu qui vient d'être envoyé et renvoie le descripteur à utiliser. Si un upload concurrent
+     * du même contenu a gagné la course, sa copie est conservée et la nôtre est planifiée pour suppression.
+     */
+    public MediaDescriptor register(String contentHash, MediaDescriptor uploaded) {
+        LocalDateTime now = LocalDateTime.now();
+        MediaAsset asset = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(MediaAsset.key(uploaded.getResourceType(), contentHash))),
+                new Update()
+                        .setOnInsert("contentHash", contentHash)
+                        .setOnInsert("resourceType", uploaded.getResourceType())
+                        .setOnInsert("url", uploaded.getUrl())
+                        .setOnInsert("publicId", uploaded.getPublicId())
+                        .setOnInsert("bytes", uploaded.getBytes() != null ? uploaded.getBytes() : 0L)
+                        .setOnInsert("media", uploaded)
+                        .setOnInsert("createdAt", now)
+                        .inc("refCount", 1)
+                        .set("updatedAt", now),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), MediaAsset.class);
+
+        if (!uploaded.getUrl().equals(asset.getUrl())) {
+            log.info("♻️ Doublon concurrent du média {}, copie {} abandonnée", asset.getId(), uploaded.getUrl());
+            mediaDeletionOutbox.enqueue(uploaded);
+        }
+        return describe(asset);
+    }
+
+    /**
+     * Libère une référence vers un média (descripteur nul ou URL externe ignorés)
+     */
+    public void release(MediaDescriptor media) {
+        releaseAll(media != null ? List.of(media) : List.of());
+    }
+
+    /**
+     * Libère plusieurs références. Les médias non suivis (antérieurs à la déduplication)
+     * et ceux dont le compteur tombe à zéro partent dans l'outbox des suppressions.
+     */
+    public void releaseAll(Collection<MediaDescriptor> media) {
+        Map<String, List<MediaDescriptor>> references = media.stream()
+                .filter(descriptor -> descriptor != null && descriptor.getUrl() != null)
+                .collect(Collectors.groupingBy(MediaDescriptor::getUrl));
+        if (references.isEmpty()) {
+            return;
+        }
+
+        List<MediaDescriptor> toDelete = new ArrayList<>();
+        references.forEach((url, descriptors) -> {
+            MediaDescriptor first = descriptors.get(0);
+            MediaAsset asset = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("url").is(url).and("resourceType").is(first.getResourceType())),
+                    new Update().inc("refCount", -descriptors.size()).set("updatedAt", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true), MediaAsset.class);
+
+            if (asset == null) {
+                toDelete.add(first);
+            } else if (asset.getRefCount() <= 0) {
+                // Le document n'est retiré que s'il n'a pas été rattaché entre-temps
+                long removed = mongoTemplate.remove(Query.query(Criteria.where("_id").is(asset.getId())
+                        .and("refCount").lte(0)), MediaAsset.class).getDeletedCount();
+                if (removed > 0) {
+                    toDelete.add(describe(asset));
+                }
+            } else {
+                log.debug("🔗 Média {} conservé ({} références restantes)", asset.getId(), asset.getRefCount());
+            }
+        });
+
+        mediaDeletionOutbox.enqueueAll(toDelete);
+    }
+
+    // Assets enregistrés avant les descripteurs : descripteur reconstruit depuis leurs champs
+    private static MediaDescriptor describe(MediaAsset asset) {
+        if (asset.getMedia() != null) {
+            return asset.getMedia();
+        }
+        return MediaDescriptor.builder()
+                .publicId(asset.getPublicId())
+                .resourceType(asset.getResourceType())
+                .url(asset.getUrl())
+                .bytes(asset.getBytes())
+                .contentHash(asset.getContentHash())
+                .build();
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.ImageVariantSet;
+import com.example.baobab_academy.models.MediaDeletion;
+import com.example.baobab_academy.models.MediaDescriptor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox des suppressions de médias (MediaStore actif). Les requêtes d'édition n'enregistrent qu'un document
+ * (upsert dédoublonné) ; un worker planifié regroupe les suppressions par type de ressource et appelle
+ * l'API de suppression groupée (100 ids par appel), avec backoff exponentiel en cas d'échec.
+ */
+@Service
+@Slf4j
+public class MediaDeletionOutbox {
+
+    private static final int DELETE_BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore mediaStore;
+    private final int pageSize;
+    private final int maxAttempts;
+    private final long baseBackoffSeconds;
+    private final long maxBackoffSeconds;
+
+    public MediaDeletionOutbox(MongoTemplate mongoTemplate, MediaStore mediaStore,
+            @Value("${app.media.deletion.page-size:500}") int pageSize,
+            @Value("${app.media.deletion.max-attempts:10}") int maxAttempts,
+            @Value("${app.media.deletion.base-backoff-seconds:30}") long baseBackoffSeconds,
+            @Value("${app.media.deletion.max-backoff-seconds:21600}") long maxBackoffSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaStore = mediaStore;
+        this.pageSize = pageSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    /**
+     * Planifie la suppression d'un média du stockage actif (ignorée pour un autre stockage ou un média non décrit)
+     */
+    public void enqueue(MediaDescriptor media) {
+        enqueueAll(media != null ? List.of(media) : List.of());
+    }
+
+    /**
+     * Planifie plusieurs suppressions, un bulk par type de ressource. Un descripteur sans publicId (média antérieur
+     * aux descripteurs, pas encore migré) est ignoré : l'identifiant n'est plus déduit de l'URL, et le média
+     * orphelin sera retrouvé par la réconciliation.
+     */
+    public void enqueueAll(Collection<MediaDescriptor> media) {
+        Map<String, List<String>> publicIdsByType = new HashMap<>();
+        for (MediaDescriptor descriptor : media) {
+            if (descriptor == null || (descriptor.getStore() != null && !descriptor.getStore().equals(mediaStore.name()))) {
+                continue;
+            }
+            if (descriptor.getPublicId() == null) {
+                log.debug("⏭️ Média sans descripteur ignoré (laissé à la réconciliation): {}", descriptor.getUrl());
+                continue;
+            }
+            publicIdsByType.computeIfAbsent(descriptor.getResourceType(), type -> new ArrayList<>())
+                    .add(descriptor.getPublicId());
+        }
+        publicIdsByType.forEach((resourceType, publicIds) -> enqueuePublicIds(publicIds, resourceType));
+    }
+
+    /**
+     * Planifie des suppressions par identifiant du stockage (médias orphelins sans URL connue)
+     */
+    public void enqueuePublicIds(Collection<String> ids, String resourceType) {
+        List<String> publicIds = ids.stream().distinct().collect(Collectors.toList());
+        if (publicIds.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MediaDeletion.class);
+        for (String publicId : publicIds) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(MediaDeletion.key(resourceType, publicId))), new Update()
+                    .setOnInsert("publicId", publicId)
+                    .setOnInsert("resourceType", resourceType)
+                    .setOnInsert("attempts", 0)
+                    .setOnInsert("nextAttemptAt", now)
+                    .setOnInsert("createdAt", now));
+        }
+        bulk.execute();
+        log.debug("🗑️ {} suppressions de médias {} planifiées", publicIds.size(), resourceType);
+    }
+
+    /**
+     * Annule les suppressions encore planifiées de ces médias (lecture par _id) : un média à clé dérivée
+     * du contenu (variantes d'image) peut être recréé sous la même clé après sa libération
+     */
+    public void cancelAll(Collection<MediaDescriptor> media) {
+        List<String> keys = media.stream()
+                .filter(descriptor -> descriptor != null && descriptor.getPublicId() != null)
+                .map(descriptor -> MediaDeletion.key(descriptor.getResourceType(), descriptor.getPublicId()))
+                .collect(Collectors.toList());
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        long cancelled = mongoTemplate.remove(Query.query(Criteria.where("_id").in(keys)), MediaDeletion.class)
+                .getDeletedCount();
+        if (cancelled > 0) {
+            log.info("↩️ {} suppressions de médias annulées", cancelled);
+        }
+    }
+
+    /**
+     * Vide l'outbox : pages triées par échéance, appels groupés par type de ressource
+     */
+    @Scheduled(fixedDelayString = "${app.media.deletion.poll-ms:10000}")
+    public void drain() {
+        while (true) {
+            Query due = Query.query(Criteria.where("nextAttemptAt").lte(LocalDateTime.now()))
+                    .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"))
+                    .limit(pageSize);
+            List<MediaDeletion> page = mongoTemplate.find(due, MediaDeletion.class);
+            if (page.isEmpty()) {
+                return;
+            }
+
+            Map<String, List<MediaDeletion>> byType = page.stream()
+                    .collect(Collectors.groupingBy(MediaDeletion::getResourceType));
+            byType.forEach((resourceType, deletions) -> {
+                for (int from = 0; from < deletions.size(); from += DELETE_BATCH_SIZE) {
+                    process(resourceType, deletions.subList(from, Math.min(from + DELETE_BATCH_SIZE, deletions.size())));
+                }
+            });
+
+            if (page.size() < pageSize) {
+                return; // Les échecs sont replanifiés dans le futur : la boucle ne peut pas tourner à vide
+            }
+        }
+    }
+
+    private void process(String resourceType, List<MediaDeletion> deletions) {
+        deletions = skipReferencedVariants(resourceType, deletions);
+        if (deletions.isEmpty()) {
+            return;
+        }
+        List<String> publicIds = deletions.stream().map(MediaDeletion::getPublicId).collect(Collectors.toList());
+
+        Map<String, String> results;
+        try {
+            results = mediaStore.deleteResources(publicIds, resourceType);
+        } catch (Exception e) {
+            log.warn("⚠️ Suppression groupée de {} médias {} échouée: {}", publicIds.size(), resourceType, e.getMessage());
+            reschedule(deletions, e.getMessage());
+            return;
+        }
+
+        List<String> done = new ArrayList<>();
+        List<MediaDeletion> retry = new ArrayList<>();
+        for (MediaDeletion deletion : deletions) {
+            String status = results.get(deletion.getPublicId());
+            // "not_found" : déjà supprimée, rien à refaire
+            if ("deleted".equals(status) || "not_found".equals(status)) {
+                done.add(deletion.getId());
+            } else {
+                retry.add(deletion);
+            }
+        }
+
+        if (!done.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(done)), MediaDeletion.class);
+        }
+        if (!retry.isEmpty()) {
+            reschedule(retry, "Statut de suppression inattendu");
+        }
+        log.info("✅ {} médias {} supprimés ({} à réessayer)", done.size(), resourceType, retry.size());
+    }
+
+    /**
+     * Retire de l'outbox les variantes d'image de nouveau référencées par un jeu : une libération concurrente
+     * d'une réacquisition a pu planifier la suppression de fichiers que le jeu recréé utilise
+     */
+    private List<MediaDeletion> skipReferencedVariants(String resourceType, List<MediaDeletion> deletions) {
+        if (!"image".equals(resourceType)) {
+            return deletions;
+        }
+
+        List<String> publicIds = deletions.stream().map(MediaDeletion::getPublicId).collect(Collectors.toList());
+        List<Criteria> referencing = ImageVariantService.VARIANT_WIDTHS.keySet().stream()
+                .map(variant -> Criteria.where("media." + variant + ".publicId").in(publicIds))
+                .collect(Collectors.toList());
+        Query query = Query.query(new Criteria().orOperator(referencing));
+        query.fields().include("media");
+
+        Set<String> referenced = new HashSet<>();
+        for (ImageVariantSet set : mongoTemplate.find(query, ImageVariantSet.class)) {
+            if (set.getMedia() != null) {
+                set.getMedia().values().forEach(media -> referenced.add(media.getPublicId()));
+            }
+        }
+        if (referenced.isEmpty()) {
+            return deletions;
+        }
+
+        List<String> skipped = deletions.stream()
+                .filter(deletion -> referenced.contains(deletion.getPublicId()))
+                .map(MediaDeletion::getId)
+                .collect(Collectors.toList());
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(skipped)), MediaDeletion.class);
+        log.info("↩️ {} variantes d'image encore référencées retirées de l'outbox", skipped.size());
+        return deletions.stream()
+                .filter(deletion -> !referenced.contains(deletion.getPublicId()))
+                .collect(Collectors.toList());
+    }
+
+    private void reschedule(List<MediaDeletion> deletions, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MediaDeletion.class);
+        for (MediaDeletion deletion : deletions) {
+            int attempts = deletion.getAttempts() + 1;
+            LocalDateTime nextAttemptAt = null;
+            if (attempts < maxAttempts) {
+                long delay = Math.min(maxBackoffSeconds, baseBackoffSeconds << Math.min(attempts - 1, 20));
+                nextAttemptAt = now.plusSeconds(delay);
+            } else {
+                log.error("❌ Suppression du média {} abandonnée après {} tentatives", deletion.getId(), attempts);
+            }
+
+            bulk.updateOne(Query.query(Criteria.where("_id").is(deletion.getId())), new Update()
+                    .set("attempts", attempts)
+                    .set("nextAttemptAt", nextAttemptAt)
+                    .set("lastError", error));
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.baobab_academy.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Validation des fichiers envoyés (taille, extension, signature binaire), commune à tous les MediaStore
+ */
+@Component
+public class MediaFileValidator {
+
+    private static final int SIGNATURE_BYTES = 16;
+
+    public void validateImageFile(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IOException("Le fichier est vide");
+        }
+
+        long maxSize = 5 * 1024 * 1024; // 5MB
+        if (file.getSize() > maxSize) {
+            throw new IOException("Le fichier image est trop volumineux (max 5MB)");
+        }
+
+        String fileName = file.getOriginalFilename();
+        if (fileName == null) {
+            throw new IOException("Nom de fichier invalide");
+        }
+
+        List<String> allowedExtensions = Arrays.asList(".jpg", ".jpeg", ".png", ".gif", ".webp");
+        String extension = fileName.toLowerCase().substring(fileName.lastIndexOf("."));
+        
+        if (!allowedExtensions.contains(extension)) {
+            throw new IOException("Format d'image non supporté. Utilisez: JPG, PNG, GIF, WebP");
+        }
+        validateSignature(file, extension);
+    }
+
+    public void validateVideoFile(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IOException("Le fichier est vide");
+        }
+        String extension = validateVideoDeclaration(file.getOriginalFilename(), file.getSize());
+        validateSignature(file, extension);
+    }
+
+    /**
+     * Nom et taille annoncés d'une vidéo envoyée en plusieurs morceaux ; renvoie l'extension
+     */
+    public String validateVideoDeclaration(String fileName, long size) throws IOException {
+        long maxSize = 100 * 1024 * 1024; // 100MB
+        if (size > maxSize) {
+            throw new IOException("Le fichier vidéo est trop volumineux (max 100MB)");
+        }
+        if (size <= 0) {
+            throw new IOException("Le fichier est vide");
+        }
+
+        if (fileName == null || fileName.lastIndexOf(".") < 0) {
+            throw new IOException("Nom de fichier invalide");
+        }
+
+        List<String> allowedExtensions = Arrays.asList(".mp4", ".mov", ".avi", ".mkv", ".webm");
+        String extension = fileName.toLowerCase().substring(fileName.lastIndexOf("."));
+        
+        if (!allowedExtensions.contains(extension)) {
+            throw new IOException("Format vidéo non supporté. Utilisez: MP4, MOV, AVI, MKV, WebM");
+        }
+        return extension;
+    }
+
+    /**
+     * Signature d'un fichier déjà écrit sur disque (upload reprenable terminé)
+     */
+    public void validateSignature(Path file, String extension) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            validateSignature(input.readNBytes(SIGNATURE_BYTES), extension);
+        }
+    }
+
+    public void validateDocumentFile(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IOException("Le fichier est vide");
+        }
+
+        long maxSize = 10 * 1024 * 1024; // 10MB
+        if (file.getSize() > maxSize) {
+            throw new IOException("Le fichier document est trop volumineux (max 10MB)");
+        }
+
+        String fileName = file.getOriginalFilename();
+        if (fileName == null) {
+            throw new IOException("Nom de fichier invalide");
+        }
+
+        List<String> allowedExtensions = Arrays.asList(".pdf", ".doc", ".docx", ".ppt", ".pptx", ".txt");
+        String extension = fileName.toLowerCase().substring(fileName.lastIndexOf("."));
+        
+        if (!allowedExtensions.contains(extension)) {
+            throw new IOException("Format de document non supporté. Utilisez: PDF, DOC, DOCX, PPT, PPTX, TXT");
+        }
+        validateSignature(file, extension);
+    }
+
+    /**
+     * Vérifie la signature binaire (magic number) sur les premiers octets uniquement :
+     * le contenu doit correspondre à l'extension annoncée
+     */
+    private void validateSignature(MultipartFile file, String extension) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            validateSignature(input.readNBytes(SIGNATURE_BYTES), extension);
+        }
+    }
+
+    private void validateSignature(byte[] header, String extension) throws IOException {
+        boolean valid = switch (extension) {
+            case ".jpg", ".jpeg" -> startsWith(header, 0, 0xFF, 0xD8, 0xFF);
+            case ".png" -> startsWith(header, 0, 0x89, 'P', 'N', 'G');
+            case ".gif" -> startsWith(header, 0, 'G', 'I', 'F', '8');
+            case ".webp" -> startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'W', 'E', 'B', 'P');
+            case ".mp4", ".mov" -> startsWith(header, 4, 'f', 't', 'y', 'p')
+                    || startsWith(header, 4, 'm', 'o', 'o', 'v') || startsWith(header, 4, 'm', 'd', 'a', 't')
+                    || startsWith(header, 4, 'w', 'i', 'd', 'e') || startsWith(header, 4, 'f', 'r', 'e', 'e');
+            case ".mkv", ".webm" -> startsWith(header, 0, 0x1A, 0x45, 0xDF, 0xA3); // EBML
+            case ".avi" -> startsWith(header, 0, 'R', 'I', 'F', 'F') && startsWith(header, 8, 'A', 'V', 'I', ' ');
+            case ".pdf" -> startsWith(header, 0, '%', 'P', 'D', 'F');
+            case ".doc", ".ppt" -> startsWith(header, 0, 0xD0, 0xCF, 0x11, 0xE0); // OLE2
+            case ".docx", ".pptx" -> startsWith(header, 0, 'P', 'K', 0x03, 0x04); // ZIP (Office Open XML)
+            case ".txt" -> isText(header);
+            default -> false;
+        };
+
+        if (!valid) {
+            throw new IOException("Le contenu du fichier ne correspond pas à son extension (" + extension + ")");
+        }
+    }
+
+    private static boolean startsWith(byte[] header, int offset, int... expected) {
+        if (header.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((header[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isText(byte[] header) {
+        for (byte b : header) {
+            if (b == 0) {
+                return false; // Octet nul : contenu binaire
+            }
+        }
+        return true;
+    }
+}
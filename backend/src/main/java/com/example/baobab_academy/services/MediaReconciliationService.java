@@ -0,0 +1,236 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.config.MediaDescriptorMigration;
+import com.example.baobab_academy.dtos.StoredMediaPage;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.ImageVariantSet;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaAsset;
+import com.example.baobab_academy.models.MediaReconciliationReport;
+import com.example.baobab_academy.models.enums.CleanupJobStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Réconciliation des médias : les descripteurs référencés en base (cours, leçons, assets, variantes) sont
+ * lus en flux et réduits à l'ensemble des identifiants vivants, sans analyser d'URL, puis le listing du stockage est parcouru page par page.
+ * Les médias non référencés et plus anciens que le délai de grâce sont confiés à l'outbox des suppressions ; les tâches
+ * d'upload ne comptent pas comme références (un upload en cours est couvert par le délai de grâce).
+ * Les pages du listing sont espacées (quota de l'Admin API) et le nombre de suppressions par exécution est plafonné.
+ */
+@Service
+@Slf4j
+public class MediaReconciliationService {
+
+    private static final List<String> RESOURCE_TYPES = List.of("image", "video", "raw");
+    private static final int ORPHAN_SAMPLE_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore mediaStore;
+    private final MediaDeletionOutbox mediaDeletionOutbox;
+    private final MediaDescriptorMigration mediaDescriptorMigration;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final int pageSize;
+    private final long pageDelayMillis;
+    private final long graceHours;
+    private final long maxDeletions;
+    private final int cursorBatchSize;
+    private final boolean scheduledDryRun;
+
+    public MediaReconciliationService(MongoTemplate mongoTemplate, MediaStore mediaStore,
+            MediaDeletionOutbox mediaDeletionOutbox, MediaDescriptorMigration mediaDescriptorMigration,
+            @Value("${app.media.reconciliation.page-size:500}") int pageSize,
+            @Value("${app.media.reconciliation.page-delay-ms:2000}") long pageDelayMillis,
+            @Value("${app.media.reconciliation.grace-hours:48}") long graceHours,
+            @Value("${app.media.reconciliation.max-deletions:5000}") long maxDeletions,
+            @Value("${app.media.reconciliation.cursor-batch-size:1000}") int cursorBatchSize,
+            @Value("${app.media.reconciliation.dry-run:true}") boolean scheduledDryRun) {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaStore = mediaStore;
+        this.mediaDeletionOutbox = mediaDeletionOutbox;
+        this.mediaDescriptorMigration = mediaDescriptorMigration;
+        this.pageSize = pageSize;
+        this.pageDelayMillis = pageDelayMillis;
+        this.graceHours = graceHours;
+        this.maxDeletions = maxDeletions;
+        this.cursorBatchSize = cursorBatchSize;
+        this.scheduledDryRun = scheduledDryRun;
+    }
+
+    /**
+     * Lance une réconciliation en arrière-plan ; une seule à la fois
+     */
+    public MediaReconciliationReport start(boolean dryRun) {
+        // Sans descripteur, un média encore référencé serait pris pour un orphelin
+        if (!mediaDescriptorMigration.isCompleted()) {
+            throw new RuntimeException("Migration des descripteurs de médias non terminée, réconciliation impossible");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Une réconciliation des médias est déjà en cours");
+        }
+
+        MediaReconciliationReport report;
+        try {
+            report = mongoTemplate.insert(MediaReconciliationReport.builder()
+                    .dryRun(dryRun)
+                    .startedAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        worker.execute(() -> run(report));
+        log.info("🔍 Réconciliation des médias {} lancée{}", report.getId(), dryRun ? " (simulation)" : "");
+        return report;
+    }
+
+    public MediaReconciliationReport getReport(String reportId) {
+        MediaReconciliationReport report = mongoTemplate.findById(reportId, MediaReconciliationReport.class);
+        if (report == null) {
+            throw new RuntimeException("Rapport de réconciliation non trouvé");
+        }
+        return report;
+    }
+
+    @Scheduled(cron = "${app.media.reconciliation.cron:0 30 3 * * SUN}")
+    public void scheduledRun() {
+        try {
+            start(scheduledDryRun);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Réconciliation planifiée ignorée: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(MediaReconciliationReport report) {
+        try {
+            Set<String> live = collectLiveIds();
+            report.setLiveReferences(live.size());
+            mongoTemplate.save(report);
+
+            Instant graceLimit = Instant.now().minus(Duration.ofHours(graceHours));
+            long budget = maxDeletions;
+
+            for (String resourceType : RESOURCE_TYPES) {
+                String cursor = null;
+                do {
+                    StoredMediaPage page = mediaStore.listResources(resourceType, cursor, pageSize);
+                    List<String> orphans = new ArrayList<>();
+
+                    for (StoredMediaPage.Item item : page.getResources()) {
+                        report.getScanned().merge(resourceType, 1L, Long::sum);
+                        if (live.contains(item.getPublicId())) {
+                            continue;
+                        }
+                        // Upload récent dont la référence n'est peut-être pas encore écrite
+                        if (item.getCreatedAt() != null && item.getCreatedAt().isAfter(graceLimit)) {
+                            report.setSkippedRecent(report.getSkippedRecent() + 1);
+                            continue;
+                        }
+                        report.getOrphans().merge(resourceType, 1L, Long::sum);
+                        if (report.getOrphanSample().size() < ORPHAN_SAMPLE_SIZE) {
+                            report.getOrphanSample().add(resourceType + ":" + item.getPublicId());
+                        }
+                        orphans.add(item.getPublicId());
+                    }
+
+                    if (!report.isDryRun() && !orphans.isEmpty()) {
+                        int allowed = (int) Math.min(orphans.size(), budget);
+                        if (allowed < orphans.size()) {
+                            report.setTruncated(true);
+                        }
+                        if (allowed > 0) {
+                            mediaDeletionOutbox.enqueuePublicIds(orphans.subList(0, allowed), resourceType);
+                            budget -= allowed;
+                            report.setScheduledDeletions(report.getScheduledDeletions() + allowed);
+                        }
+                    }
+
+                    mongoTemplate.save(report); // Progression visible pendant le parcours
+                    cursor = page.getNextCursor();
+                    if (cursor != null && pageDelayMillis > 0) {
+                        Thread.sleep(pageDelayMillis);
+                    }
+                } while (cursor != null);
+            }
+
+            report.setStatus(CleanupJobStatus.COMPLETED);
+            log.info("✅ Réconciliation {} terminée: {} références, listés {}, orphelins {}, {} suppressions planifiées",
+                    report.getId(), live.size(), report.getScanned(), report.getOrphans(), report.getScheduledDeletions());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setStatus(CleanupJobStatus.FAILED);
+            report.setError("Interrompue par l'arrêt de l'application");
+        } catch (Exception e) {
+            log.error("❌ Réconciliation des médias {} échouée: {}", report.getId(), e.getMessage());
+            report.setStatus(CleanupJobStatus.FAILED);
+            report.setError(e.getMessage());
+        } finally {
+            report.setCompletedAt(LocalDateTime.now());
+            mongoTemplate.save(report);
+            running.set(false);
+        }
+    }
+
+    /**
+     * Identifiants de stockage de tous les descripteurs référencés, lus en flux (projection sur les champs média)
+     */
+    private Set<String> collectLiveIds() {
+        Set<String> live = new HashSet<>();
+        collect(live, mongoTemplate.getCollectionName(Course.class), "coverMedia");
+        collect(live, mongoTemplate.getCollectionName(Lesson.class), "videoMedia", "documentMedia");
+        collect(live, mongoTemplate.getCollectionName(MediaAsset.class), "media");
+        collect(live, mongoTemplate.getCollectionName(ImageVariantSet.class), "media");
+        return live;
+    }
+
+    private void collect(Set<String> live, String collection, String... fields) {
+        Query query = new Query().cursorBatchSize(cursorBatchSize);
+        query.fields().include(fields);
+        try (Stream<Document> cursor = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) cursor::iterator) {
+                for (String field : fields) {
+                    addLive(live, document.get(field));
+                }
+            }
+        }
+    }
+
+    private void addLive(Set<String> live, Object value) {
+        if (!(value instanceof Map<?, ?> map)) {
+            return;
+        }
+        if (map.get("publicId") instanceof String publicId) {
+            if (map.get("store") == null || mediaStore.name().equals(map.get("store"))) {
+                live.add(publicId);
+            }
+        } else {
+            map.values().forEach(descriptor -> addLive(live, descriptor)); // Variantes d'image : nom -> descripteur
+        }
+    }
+}
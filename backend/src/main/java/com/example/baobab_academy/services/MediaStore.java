@@ -0,0 +1,100 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.dtos.MediaUploadResult;
+import com.example.baobab_academy.dtos.StoredMediaPage;
+import com.example.baobab_academy.models.MediaDescriptor;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage des médias des cours (images, vidéos, documents). L'implémentation active est choisie
+ * par app.media.store : cloudinary (par défaut) ou local (système de fichiers, servi par /api/media/**).
+ * Les types de ressource suivent la nomenclature Cloudinary : image, video, raw.
+ */
+public interface MediaStore {
+
+    /**
+     * Nom du stockage, enregistré dans les MediaDescriptor (cloudinary ou local)
+     */
+    String name();
+
+    MediaUploadResult uploadCourseImage(MultipartFile file, String courseId) throws IOException;
+
+    /**
+     * Envoie une vidéo lue en flux (fichier en spool) ; l'appelant ferme le flux
+     */
+    MediaUploadResult uploadLessonVideo(InputStream input, String courseId, String lessonId) throws IOException;
+
+    MediaUploadResult uploadLessonDocument(MultipartFile file, String courseId, String lessonId) throws IOException;
+
+    /**
+     * Stocke un fichier déjà préparé sous une clé fixe (avec extension), par exemple une variante d'image ;
+     * une clé existante est remplacée
+     */
+    MediaUploadResult storeFile(Path file, String key, String resourceType) throws IOException;
+
+    /**
+     * Supprime jusqu'à 100 ressources d'un même type ; renvoie le statut par identifiant ("deleted" ou "not_found")
+     */
+    Map<String, String> deleteResources(List<String> publicIds, String resourceType) throws Exception;
+
+    /**
+     * Liste une page des médias stockés d'un type (réconciliation) ; {@code cursor} null pour la première page
+     */
+    StoredMediaPage listResources(String resourceType, String cursor, int pageSize) throws Exception;
+
+    /**
+     * Identifiant du média désigné par une URL, ou null si l'URL n'appartient pas à ce stockage.
+     * Réservé à la migration des données antérieures aux descripteurs (MediaDescriptorMigration)
+     */
+    String extractPublicIdFromUrl(String url);
+
+    /**
+     * Descripteur reconstruit depuis une URL (données antérieures aux descripteurs), sans appel réseau ;
+     * null si l'URL n'appartient pas à ce stockage. Réservé à la migration, comme {@link #extractPublicIdFromUrl}
+     */
+    default MediaDescriptor describeUrl(String url, String resourceType) {
+        String publicId = extractPublicIdFromUrl(url);
+        if (publicId == null) {
+            return null;
+        }
+        int dot = url.lastIndexOf('.');
+        return MediaDescriptor.builder()
+                .store(name())
+                .publicId(publicId)
+                .resourceType(resourceType)
+                .url(url)
+                .format(dot > url.lastIndexOf('/') ? url.substring(dot + 1) : null)
+                .build();
+    }
+
+    /**
+     * Complète un descripteur reconstruit avec les métadonnées du stockage (taille, durée, dimensions)
+     */
+    default MediaDescriptor fetchMetadata(MediaDescriptor media) throws Exception {
+        return media;
+    }
+
+    /**
+     * Descripteur à embarquer dans le document qui référence le média envoyé
+     */
+    default MediaDescriptor describe(MediaUploadResult result, String resourceType, String contentHash) {
+        return MediaDescriptor.builder()
+                .store(name())
+                .publicId(result.getPublicId())
+                .resourceType(resourceType)
+                .url(result.getSecureUrl())
+                .format(result.getFormat())
+                .bytes(result.getBytes() != null ? result.getBytes().longValue() : null)
+                .durationSeconds(result.getDuration())
+                .width(result.getWidth())
+                .height(result.getHeight())
+                .contentHash(contentHash)
+                .build();
+    }
+}
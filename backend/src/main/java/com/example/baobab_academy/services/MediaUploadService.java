@@ -0,0 +1,348 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.dtos.MediaUploadResult;
+import com.example.baobab_academy.exceptions.UploadQueueFullException;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaDescriptor;
+import com.example.baobab_academy.models.MediaUploadJob;
+import com.example.baobab_academy.models.enums.MediaUploadStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads vidéo asynchrones : la requête met le fichier en spool sur disque et renvoie immédiatement une tâche.
+ * Chaque tâche tourne sur un thread virtuel ; un sémaphore plafonne le nombre d'envois simultanés vers
+ * le MediaStore, et la taille totale du spool est bornée (au-delà, la demande est refusée : backpressure).
+ * Le contenu est haché pendant la mise en spool : une vidéo déjà stockée est rattachée sans nouvel envoi.
+ */
+@Service
+@Slf4j
+public class MediaUploadService {
+
+    private static final List<MediaUploadStatus> ACTIVE = List.of(MediaUploadStatus.QUEUED, MediaUploadStatus.UPLOADING);
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore mediaStore;
+    private final MediaFileValidator mediaFileValidator;
+    private final MediaAssetRegistry mediaAssetRegistry;
+    private final CourseStructureCache courseStructureCache;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore uploadPermits;
+    private final AtomicLong spooledBytes = new AtomicLong();
+    private final Path spoolDir;
+    private final long maxSpoolBytes;
+    private volatile boolean shuttingDown;
+
+    public MediaUploadService(MongoTemplate mongoTemplate, MediaStore mediaStore,
+            MediaFileValidator mediaFileValidator, MediaAssetRegistry mediaAssetRegistry,
+            CourseStructureCache courseStructureCache,
+            @Value("${app.media.uploads.spool-dir:${java.io.tmpdir}/baobab-spool}") String spoolDir,
+            @Value("${app.media.uploads.max-spool-bytes:2147483648}") long maxSpoolBytes,
+            @Value("${app.media.uploads.max-concurrent:4}") int maxConcurrent) throws IOException {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaStore = mediaStore;
+        this.mediaFileValidator = mediaFileValidator;
+        this.mediaAssetRegistry = mediaAssetRegistry;
+        this.courseStructureCache = courseStructureCache;
+        this.spoolDir = Files.createDirectories(Paths.get(spoolDir));
+        this.maxSpoolBytes = maxSpoolBytes;
+        this.uploadPermits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Valide et met en spool la vidéo d'une leçon, puis planifie son envoi
+     */
+    public MediaUploadJob submitLessonVideo(Lesson lesson, String courseId, String instructorId, MultipartFile file)
+            throws IOException {
+        mediaFileValidator.validateVideoFile(file);
+
+        long size = file.getSize();
+        reserveSpool(size);
+
+        Path spooled;
+        String contentHash;
+        try {
+            spooled = Files.createTempFile(spoolDir, "video-", ".part");
+            try (DigestInputStream input = MediaAssetRegistry.digesting(file.getInputStream())) {
+                Files.copy(input, spooled, StandardCopyOption.REPLACE_EXISTING);
+                contentHash = MediaAssetRegistry.hexDigest(input);
+            }
+        } catch (IOException | RuntimeException e) {
+            releaseSpool(size);
+            throw e;
+        }
+
+        return enqueue(lesson.getId(), courseId, instructorId, spooled, size, contentHash);
+    }
+
+    /**
+     * Planifie l'envoi d'une vidéo déjà écrite dans le spool (upload reprenable terminé). L'espace de spool
+     * réservé pour ce fichier via {@link #reserveSpool} est libéré par la tâche.
+     */
+    public MediaUploadJob submitSpooledLessonVideo(String lessonId, String courseId, String instructorId, Path spooled,
+            long size) throws IOException {
+        String contentHash;
+        try (InputStream input = Files.newInputStream(spooled)) {
+            contentHash = MediaAssetRegistry.sha256(input);
+        }
+        return enqueue(lessonId, courseId, instructorId, spooled, size, contentHash);
+    }
+
+    /**
+     * Réserve de l'espace dans le spool, refusée au-delà de la limite (backpressure)
+     */
+    public void reserveSpool(long size) {
+        if (spooledBytes.addAndGet(size) > maxSpoolBytes) {
+            spooledBytes.addAndGet(-size);
+            throw new UploadQueueFullException("Trop d'uploads en attente, réessayez dans quelques instants");
+        }
+    }
+
+    /**
+     * Comptabilise un fichier déjà présent dans le spool (reprise au démarrage), sans limite
+     */
+    public void restoreSpool(long size) {
+        spooledBytes.addAndGet(size);
+    }
+
+    public void releaseSpool(long size) {
+        spooledBytes.addAndGet(-size);
+    }
+
+    public Path getSpoolDir() {
+        return spoolDir;
+    }
+
+    private MediaUploadJob enqueue(String lessonId, String courseId, String instructorId, Path spooled, long size,
+            String contentHash) {
+        LocalDateTime now = LocalDateTime.now();
+        MediaUploadJob job = mongoTemplate.insert(MediaUploadJob.builder()
+                .lessonId(lessonId)
+                .courseId(courseId)
+                .instructorId(instructorId)
+                .spoolPath(spooled.toString())
+                .contentHash(contentHash)
+                .bytesTotal(size)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+
+        // Vidéo déjà stockée : rattachement immédiat, sans passer par la file d'envoi
+        MediaDescriptor existing = mediaAssetRegistry.attach(contentHash, "video");
+        if (existing != null) {
+            complete(job, existing);
+            discardSpool(job, spooled);
+            return mongoTemplate.findById(job.getId(), MediaUploadJob.class);
+        }
+
+        workers.execute(() -> run(job));
+        log.info("📥 Vidéo de la leçon {} en file d'upload ({} octets, tâche {})", lessonId, size, job.getId());
+        return job;
+    }
+
+    /**
+     * Statut d'une tâche, visible uniquement par l'instructeur qui l'a lancée
+     */
+    public MediaUploadJob getJob(String jobId, String instructorId) {
+        MediaUploadJob job = mongoTemplate.findById(jobId, MediaUploadJob.class);
+        if (job == null || !job.getInstructorId().equals(instructorId)) {
+            throw new RuntimeException("Tâche d'upload non trouvée");
+        }
+        return job;
+    }
+
+    /**
+     * Reprend les tâches dont le fichier en spool a survécu au redémarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingUploads() {
+        List<MediaUploadJob> pending = mongoTemplate.find(
+                Query.query(Criteria.where("status").in(ACTIVE)), MediaUploadJob.class);
+        for (MediaUploadJob job : pending) {
+            if (job.getSpoolPath() != null && Files.exists(Paths.get(job.getSpoolPath()))) {
+                restoreSpool(job.getBytesTotal());
+                workers.execute(() -> run(job));
+            } else {
+                finish(job, MediaUploadStatus.FAILED, null, "Fichier temporaire perdu au redémarrage");
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("🔁 {} uploads vidéo repris", pending.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        workers.shutdownNow();
+        // Laisse aux envois interrompus le temps de se remettre en file avant la fermeture de la base
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("⚠️ Uploads vidéo encore actifs à l'arrêt, repris au prochain démarrage");
+        }
+    }
+
+    private void run(MediaUploadJob job) {
+        Path spooled = Paths.get(job.getSpoolPath());
+        try {
+            uploadPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return; // Arrêt de l'application : la tâche sera reprise au prochain démarrage
+        }
+
+        boolean requeued = false;
+        try {
+            update(job.getId(), new Update().set("status", MediaUploadStatus.UPLOADING).set("bytesUploaded", 0));
+
+            // Le même contenu a pu être envoyé par une autre tâche depuis la mise en spool
+            MediaDescriptor media = job.getContentHash() != null
+                    ? mediaAssetRegistry.attach(job.getContentHash(), "video") : null;
+            if (media == null) {
+                MediaUploadResult result;
+                try (InputStream input = new ProgressInputStream(Files.newInputStream(spooled), job.getId())) {
+                    result = mediaStore.uploadLessonVideo(input, job.getCourseId(), job.getLessonId());
+                }
+                media = mediaStore.describe(result, "video", job.getContentHash());
+                if (job.getContentHash() != null) {
+                    media = mediaAssetRegistry.register(job.getContentHash(), media);
+                }
+            }
+
+            if (complete(job, media)) {
+                log.info("✅ Vidéo de leçon uploadée: {} (tâche {})", media.getUrl(), job.getId());
+            }
+        } catch (Exception e) {
+            if (shuttingDown) {
+                // Envoi interrompu par l'arrêt : la tâche et son fichier sont gardés pour le prochain démarrage
+                requeued = true;
+                log.info("⏸️ Upload vidéo interrompu par l'arrêt, remis en file (tâche {})", job.getId());
+                update(job.getId(), new Update().set("status", MediaUploadStatus.QUEUED).set("bytesUploaded", 0));
+            } else {
+                log.error("❌ Échec de l'upload vidéo (tâche {}): {}", job.getId(), e.getMessage());
+                finish(job, MediaUploadStatus.FAILED, null, e.getMessage());
+            }
+        } finally {
+            uploadPermits.release();
+            if (!requeued) {
+                discardSpool(job, spooled);
+            }
+        }
+    }
+
+    /**
+     * Remplace l'URL de la leçon et libère l'ancienne vidéo ; false si la leçon a disparu entre-temps
+     */
+    private boolean complete(MediaUploadJob job, MediaDescriptor media) {
+        Lesson previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(job.getLessonId())),
+                new Update().set("videoUrl", media.getUrl()).set("videoMedia", media),
+                FindAndModifyOptions.options().returnNew(false), Lesson.class);
+
+        if (previous == null) {
+            mediaAssetRegistry.release(media);
+            finish(job, MediaUploadStatus.FAILED, null, "Leçon supprimée pendant l'upload");
+            return false;
+        }
+
+        mediaAssetRegistry.release(MediaDescriptor.of(previous.getVideoMedia(), previous.getVideoUrl(), "video"));
+        courseStructureCache.evict(job.getCourseId()); // Durée vidéo cumulée du cours
+        finish(job, MediaUploadStatus.COMPLETED, media.getUrl(), null);
+        return true;
+    }
+
+    private void discardSpool(MediaUploadJob job, Path spooled) {
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("⚠️ Impossible de supprimer le fichier en spool {}: {}", spooled, e.getMessage());
+        }
+        releaseSpool(job.getBytesTotal());
+    }
+
+    private void finish(MediaUploadJob job, MediaUploadStatus status, String resultUrl, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", status)
+                .set("resultUrl", resultUrl)
+                .set("error", error)
+                .set("completedAt", now);
+        if (status == MediaUploadStatus.COMPLETED) {
+            update.set("bytesUploaded", job.getBytesTotal());
+        }
+        update(job.getId(), update);
+    }
+
+    private void update(String jobId, Update update) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(jobId)),
+                update.set("updatedAt", LocalDateTime.now()), MediaUploadJob.class);
+    }
+
+    /**
+     * Compte les octets lus par le MediaStore et persiste la progression au plus une fois par seconde
+     */
+    private final class ProgressInputStream extends FilterInputStream {
+
+        private final String jobId;
+        private long bytesRead;
+        private long lastReportAt;
+
+        private ProgressInputStream(InputStream input, String jobId) {
+            super(input);
+            this.jobId = jobId;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        private void advance(long n) {
+            bytesRead += n;
+            long now = System.currentTimeMillis();
+            if (now - lastReportAt >= PROGRESS_INTERVAL_MILLIS) {
+                lastReportAt = now;
+                update(jobId, new Update().set("bytesUploaded", bytesRead));
+            }
+        }
+    }
+}
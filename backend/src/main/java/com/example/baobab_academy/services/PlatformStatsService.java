@@ -0,0 +1,234 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.CoursePublishedEvent;
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.EnrolledEvent;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.events.LessonCompletedEvent;
+import com.example.baobab_academy.events.RatingChangedEvent;
+import com.example.baobab_academy.events.UserRegisteredEvent;
+import com.example.baobab_academy.models.CourseRating;
+import com.example.baobab_academy.models.PlatformCounters;
+import com.example.baobab_academy.models.PlatformDailyStats;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CourseStatus;
+import com.example.baobab_academy.models.enums.UserRole;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Statistiques de la plateforme en mémoire constante : comptages indexés (utilisateurs par rôle,
+ * cours publiés) et compteurs incrémentaux (inscriptions, cours terminés, notes) alimentés par le
+ * DomainEventBus, avec un document par jour pour les courbes de croissance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlatformStatsService implements DomainEventListener {
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+    private final CourseStructureCache courseStructureCache;
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Map<String, Long> totals = new HashMap<>();
+        Map<String, Map<String, Long>> daily = new HashMap<>();
+        String today = LocalDate.now().toString();
+
+        for (DomainEvent event : events) {
+            String field = null;
+            long delta = 1;
+
+            if (event instanceof EnrolledEvent) {
+                field = "enrollments";
+            } else if (event instanceof EnrollmentRemovedEvent removed) {
+                // Retrait des totaux seulement : les courbes journalières gardent ce qui a eu lieu ce jour-là
+                totals.merge("enrollments", -1L, Long::sum);
+                if (removed.isCourseCompleted()) {
+                    totals.merge("completions", -1L, Long::sum);
+                }
+            } else if (event instanceof LessonCompletedEvent completed && completed.isCourseCompleted()) {
+                field = "completions";
+            } else if (event instanceof RatingChangedEvent rating) {
+                if (rating.previousRating() == null) {
+                    field = "ratings";
+                } else if (rating.newRating() == null) {
+                    field = "ratings";
+                    delta = -1;
+                }
+            } else if (event instanceof UserRegisteredEvent) {
+                daily.computeIfAbsent(today, d -> new HashMap<>()).merge("newUsers", 1L, Long::sum);
+            } else if (event instanceof CoursePublishedEvent) {
+                daily.computeIfAbsent(today, d -> new HashMap<>()).merge("publishedCourses", 1L, Long::sum);
+            }
+
+            if (field != null) {
+                totals.merge(field, delta, Long::sum);
+                if (delta > 0) {
+                    daily.computeIfAbsent(today, d -> new HashMap<>()).merge(field, delta, Long::sum);
+                }
+            }
+        }
+
+        if (!totals.isEmpty()) {
+            Update update = new Update().set("updatedAt", LocalDateTime.now());
+            totals.forEach(update::inc);
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(PlatformCounters.GLOBAL_ID)),
+                    update, PlatformCounters.class);
+        }
+
+        if (!daily.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PlatformDailyStats.class);
+            daily.forEach((day, increments) -> {
+                Update update = new Update().setOnInsert("date", LocalDate.parse(day));
+                increments.forEach(update::inc);
+                bulk.upsert(Query.query(Criteria.where("_id").is(day)), update);
+            });
+            bulk.execute();
+        }
+    }
+
+    /**
+     * Statistiques du tableau de bord admin et série journalière des {@code days} derniers jours
+     */
+    public Map<String, Object> getPlatformStats(int days) {
+        // Jamais de reconstruction sur le thread de la requête : faite au démarrage si nécessaire
+        PlatformCounters counters = mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class);
+        if (counters == null) {
+            counters = PlatformCounters.builder().id(PlatformCounters.GLOBAL_ID).build();
+        }
+
+        long totalAdmins = userRepository.countByRole(UserRole.ADMIN);
+        long totalStudents = userRepository.countByRole(UserRole.USER);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalUsers", userRepository.count());
+        stats.put("totalAdmins", totalAdmins);
+        stats.put("totalStudents", totalStudents);
+        stats.put("publishedCourses", courseRepository.countByStatus(CourseStatus.PUBLISHED));
+        stats.put("totalEnrollments", counters.getEnrollments());
+        stats.put("completedCourses", counters.getCompletions());
+        stats.put("totalRatings", counters.getRatings());
+        stats.put("daily", getDailyStats(days));
+        return stats;
+    }
+
+    private List<PlatformDailyStats> getDailyStats(int days) {
+        LocalDate from = LocalDate.now().minusDays(Math.max(days, 1) - 1L);
+        Query query = Query.query(Criteria.where("date").gte(from)).with(Sort.by(Sort.Direction.ASC, "date"));
+        return mongoTemplate.find(query, PlatformDailyStats.class);
+    }
+
+    /**
+     * Première reconstruction des compteurs, si elle n'a jamais été faite
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildCountersIfMissing() {
+        PlatformCounters counters = mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class);
+        if (counters == null || counters.getRebuiltAt() == null) {
+            rebuildCounters();
+        }
+    }
+
+    /**
+     * Réconciliation nocturne des compteurs incrémentaux
+     */
+    @Scheduled(cron = "${app.platform-stats.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        rebuildCounters();
+    }
+
+    /**
+     * Recalcule les compteurs depuis les collections sources (agrégations en flux, mémoire bornée). L'écart au
+     * relevé pris avant le calcul est appliqué en $inc : les incréments des listeners arrivés pendant le calcul
+     * sont conservés. Une seule reconstruction à la fois, sinon le même écart serait appliqué deux fois.
+     */
+    public PlatformCounters rebuildCounters() {
+        if (!rebuilding.tryLock()) {
+            log.info("⏭️ Reconstruction des compteurs déjà en cours");
+            return mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class);
+        }
+        try {
+            return rebuildCountersFromSources();
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    private PlatformCounters rebuildCountersFromSources() {
+        log.info("🔄 Reconstruction des compteurs de la plateforme");
+
+        PlatformCounters snapshot = mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class);
+        if (snapshot == null) {
+            snapshot = PlatformCounters.builder().build();
+        }
+
+        TypedAggregation<UserProgress> aggregation = Aggregation.newAggregation(UserProgress.class,
+                Aggregation.group("userId", "courseId")
+                        .sum(ConditionalOperators.when(Criteria.where("completed").is(true)).then(1).otherwise(0))
+                        .as("completedLessons"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        long enrollments = 0;
+        long completions = 0;
+        try (Stream<Document> stream = mongoTemplate.aggregateStream(aggregation, Document.class)) {
+            for (Document row : (Iterable<Document>) stream::iterator) {
+                enrollments++;
+                String courseId = row.get("_id", Document.class).getString("courseId");
+                CourseStructureCache.CourseStructure structure = courseStructureCache.get(courseId);
+                int totalLessons = structure != null ? structure.getTotalLessons() : 0;
+                if (totalLessons > 0 && row.getInteger("completedLessons", 0) >= totalLessons) {
+                    completions++;
+                }
+            }
+        }
+
+        long ratings = mongoTemplate.count(new Query(), CourseRating.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        Update update = new Update()
+                .inc("enrollments", enrollments - snapshot.getEnrollments())
+                .inc("completions", completions - snapshot.getCompletions())
+                .inc("ratings", ratings - snapshot.getRatings())
+                .set("rebuiltAt", now)
+                .set("updatedAt", now);
+        PlatformCounters counters = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(PlatformCounters.GLOBAL_ID)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), PlatformCounters.class);
+
+        log.info("✅ Compteurs reconstruits: {} inscriptions, {} cours terminés, {} notes",
+                enrollments, completions, ratings);
+        return counters;
+    }
+}
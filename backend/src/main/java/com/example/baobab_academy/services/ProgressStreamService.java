@@ -0,0 +1,203 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.LessonCompletedEvent;
+import com.example.baobab_academy.events.LessonProgressUpdatedEvent;
+import com.example.baobab_academy.exceptions.StreamLimitExceededException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Diffuse en Server-Sent Events les deltas de progression d'un (utilisateur, cours) à tous ses appareils.
+ * Alimenté par le DomainEventBus. Chaque connexion a un tampon d'envoi borné (les plus anciens deltas
+ * sont abandonnés si le client est trop lent) vidé par une tâche sur thread virtuel :
+ * une connexion inactive n'occupe aucun thread.
+ */
+@Service
+@Slf4j
+public class ProgressStreamService implements DomainEventListener {
+
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxConnectionsPerStream;
+
+    public ProgressStreamService(
+            @Value("${app.progress-stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.progress-stream.buffer-size:32}") int bufferSize,
+            @Value("${app.progress-stream.max-connections-per-stream:5}") int maxConnectionsPerStream) {
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerStream = maxConnectionsPerStream;
+    }
+
+    /**
+     * Ouvre un flux pour un utilisateur sur un cours
+     */
+    public SseEmitter subscribe(String userId, String courseId) {
+        String key = streamKey(userId, courseId);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(key, emitter);
+
+        // Contrôle et ajout atomiques pour la clé : ni dépassement de la limite par des ouvertures concurrentes,
+        // ni ajout dans un ensemble qu'un remove() vient de retirer de la table
+        connections.compute(key, (k, streamConnections) -> {
+            Set<Connection> current = streamConnections != null ? streamConnections : ConcurrentHashMap.newKeySet();
+            if (current.size() >= maxConnectionsPerStream) {
+                throw new StreamLimitExceededException("Trop de connexions ouvertes pour ce cours");
+            }
+            current.add(connection);
+            return current;
+        });
+
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> remove(connection));
+        emitter.onError(error -> remove(connection));
+
+        connection.offer(SseEmitter.event().name("connected").data(Map.of("courseId", courseId)));
+        log.info("📡 Flux de progression ouvert pour l'utilisateur {} sur le cours {}", userId, courseId);
+        return emitter;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof LessonProgressUpdatedEvent progress) {
+                publish(progress.userId(), progress.courseId(), ProgressDelta.builder()
+                        .type("LESSON_PROGRESS")
+                        .lessonId(progress.lessonId())
+                        .progressPercentage(progress.progressPercentage())
+                        .at(LocalDateTime.now())
+                        .build());
+            } else if (event instanceof LessonCompletedEvent completed) {
+                publish(completed.userId(), completed.courseId(), ProgressDelta.builder()
+                        .type("LESSON_COMPLETED")
+                        .lessonId(completed.lessonId())
+                        .progressPercentage(100)
+                        .completed(true)
+                        .completedLessons(completed.completedLessons())
+                        .totalLessons(completed.totalLessons())
+                        .courseCompleted(completed.isCourseCompleted())
+                        .at(LocalDateTime.now())
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Commentaire SSE périodique : maintient les proxys ouverts et détecte les clients partis
+     */
+    @Scheduled(fixedRateString = "${app.progress-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<Connection> streamConnections : connections.values()) {
+            for (Connection connection : streamConnections) {
+                connection.offer(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(streamConnections -> streamConnections.forEach(c -> c.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private void publish(String userId, String courseId, ProgressDelta delta) {
+        Set<Connection> streamConnections = connections.get(streamKey(userId, courseId));
+        if (streamConnections == null) {
+            return;
+        }
+        for (Connection connection : streamConnections) {
+            connection.offer(SseEmitter.event().name("progress").data(delta));
+        }
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.key, (key, streamConnections) -> {
+            streamConnections.remove(connection);
+            return streamConnections.isEmpty() ? null : streamConnections;
+        });
+    }
+
+    private static String streamKey(String userId, String courseId) {
+        return userId + ":" + courseId;
+    }
+
+    /**
+     * Connexion SSE avec son tampon borné ; au plus une tâche d'envoi active à la fois
+     */
+    private final class Connection {
+
+        private final String key;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private Connection(String key, SseEmitter emitter) {
+            this.key = key;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            while (!buffer.offer(event)) {
+                buffer.poll(); // Client lent : abandonner le delta le plus ancien
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("🔌 Client SSE déconnecté ({}): {}", key, e.getMessage());
+                buffer.clear();
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // Un événement a pu arriver entre le dernier poll et la libération du drapeau
+            if (!buffer.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    public static class ProgressDelta {
+        private String type;
+        private String lessonId;
+        private int progressPercentage;
+        private boolean completed;
+        private Long completedLessons;
+        private Long totalLessons;
+        private Boolean courseCompleted;
+        private LocalDateTime at;
+    }
+}
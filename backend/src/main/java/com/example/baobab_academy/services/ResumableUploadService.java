@@ -0,0 +1,243 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.exceptions.UploadOffsetConflictException;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaUploadJob;
+import com.example.baobab_academy.models.ResumableUpload;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uploads vidéo reprenables (création, PATCH d'un morceau à un offset, HEAD pour l'offset courant).
+ * Chaque morceau est lu en flux avec un tampon fixe, ajouté au fichier de spool puis synchronisé (fsync)
+ * avant que l'offset ne soit enregistré : après une coupure, le client ne renvoie que les octets manquants.
+ */
+@Service
+@Slf4j
+public class ResumableUploadService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaUploadService mediaUploadService;
+    private final MediaFileValidator mediaFileValidator;
+    private final Set<String> writing = ConcurrentHashMap.newKeySet(); // Un seul PATCH à la fois par upload
+    private final Path uploadDir;
+    private final int bufferSize;
+    private final long expiryHours;
+
+    public ResumableUploadService(MongoTemplate mongoTemplate, MediaUploadService mediaUploadService,
+            MediaFileValidator mediaFileValidator,
+            @Value("${app.media.uploads.resumable.buffer-size:65536}") int bufferSize,
+            @Value("${app.media.uploads.resumable.expiry-hours:24}") long expiryHours) throws IOException {
+        this.mongoTemplate = mongoTemplate;
+        this.mediaUploadService = mediaUploadService;
+        this.mediaFileValidator = mediaFileValidator;
+        this.uploadDir = Files.createDirectories(mediaUploadService.getSpoolDir().resolve("resumable"));
+        this.bufferSize = bufferSize;
+        this.expiryHours = expiryHours;
+    }
+
+    /**
+     * Crée un upload de {@code length} octets ; l'espace de spool est réservé dès maintenant
+     */
+    public ResumableUpload create(Lesson lesson, String courseId, String instructorId, long length, String filename)
+            throws IOException {
+        String extension = mediaFileValidator.validateVideoDeclaration(filename, length);
+        mediaUploadService.reserveSpool(length);
+
+        try {
+            Path spooled = Files.createTempFile(uploadDir, "video-", ".part");
+            LocalDateTime now = LocalDateTime.now();
+            ResumableUpload upload = mongoTemplate.insert(ResumableUpload.builder()
+                    .lessonId(lesson.getId())
+                    .courseId(courseId)
+                    .instructorId(instructorId)
+                    .filename(filename)
+                    .extension(extension)
+                    .length(length)
+                    .offset(0)
+                    .spoolPath(spooled.toString())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .expiresAt(now.plusHours(expiryHours))
+                    .build());
+
+            log.info("📤 Upload reprenable {} créé pour la leçon {} ({} octets)", upload.getId(), lesson.getId(), length);
+            return upload;
+        } catch (IOException | RuntimeException e) {
+            mediaUploadService.releaseSpool(length);
+            throw e;
+        }
+    }
+
+    /**
+     * Upload visible uniquement par l'instructeur qui l'a créé
+     */
+    public ResumableUpload getUpload(String uploadId, String instructorId) {
+        ResumableUpload upload = mongoTemplate.findById(uploadId, ResumableUpload.class);
+        if (upload == null || !upload.getInstructorId().equals(instructorId)) {
+            throw new RuntimeException("Upload non trouvé");
+        }
+        return upload;
+    }
+
+    /**
+     * Ajoute le corps de la requête à partir de {@code offset}. Les octets reçus avant une coupure réseau
+     * sont conservés ; le dernier morceau déclenche la validation et la mise en file d'envoi.
+     */
+    public ResumableUpload append(String uploadId, String instructorId, long offset, InputStream body) throws IOException {
+        ResumableUpload upload = getUpload(uploadId, instructorId);
+        if (upload.getJobId() != null) {
+            throw new UploadOffsetConflictException("Upload déjà terminé");
+        }
+        if (offset != upload.getOffset()) {
+            throw new UploadOffsetConflictException("Offset invalide, attendu: " + upload.getOffset());
+        }
+        if (!writing.add(uploadId)) {
+            throw new UploadOffsetConflictException("Un morceau est déjà en cours d'envoi pour cet upload");
+        }
+
+        try {
+            Path spooled = Paths.get(upload.getSpoolPath());
+            long remaining = upload.getLength() - offset;
+            long written = 0;
+            IOException interrupted = null;
+
+            try (FileChannel channel = FileChannel.open(spooled, StandardOpenOption.WRITE)) {
+                channel.truncate(offset); // Octets écrits mais jamais confirmés (arrêt avant l'enregistrement de l'offset)
+                channel.position(offset);
+
+                byte[] buffer = new byte[bufferSize];
+                while (true) {
+                    int n;
+                    try {
+                        n = body.read(buffer);
+                    } catch (IOException e) {
+                        interrupted = e; // Coupure du client : on garde ce qui a été reçu
+                        break;
+                    }
+                    if (n < 0) {
+                        break;
+                    }
+                    if (written + n > remaining) {
+                        channel.truncate(offset);
+                        throw new IOException("Le morceau dépasse la taille annoncée de l'upload");
+                    }
+
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                    written += n;
+                }
+                channel.force(false);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            ResumableUpload updated = mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(uploadId).and("offset").is(offset)),
+                    new Update()
+                            .set("offset", offset + written)
+                            .set("updatedAt", now)
+                            .set("expiresAt", now.plusHours(expiryHours)),
+                    FindAndModifyOptions.options().returnNew(true), ResumableUpload.class);
+            if (updated == null) {
+                throw new UploadOffsetConflictException("Upload modifié ou supprimé pendant l'envoi");
+            }
+
+            if (interrupted != null) {
+                log.warn("⚠️ Morceau interrompu pour l'upload {} à l'offset {}", uploadId, updated.getOffset());
+                throw interrupted;
+            }
+            if (updated.getOffset() == updated.getLength()) {
+                return complete(updated);
+            }
+            return updated;
+        } finally {
+            writing.remove(uploadId);
+        }
+    }
+
+    /**
+     * Reprend le compte de l'espace de spool des uploads incomplets après un redémarrage
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restorePendingUploads() {
+        List<ResumableUpload> pending = mongoTemplate.find(
+                Query.query(Criteria.where("jobId").is(null)), ResumableUpload.class);
+        for (ResumableUpload upload : pending) {
+            if (Files.exists(Paths.get(upload.getSpoolPath()))) {
+                mediaUploadService.restoreSpool(upload.getLength());
+            } else {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(upload.getId())), ResumableUpload.class);
+            }
+        }
+    }
+
+    /**
+     * Supprime les uploads incomplets abandonnés et leur fichier de spool
+     */
+    @Scheduled(fixedDelayString = "${app.media.uploads.resumable.cleanup-ms:600000}")
+    public void expireAbandonedUploads() {
+        List<ResumableUpload> expired = mongoTemplate.find(Query.query(Criteria.where("jobId").is(null)
+                .and("expiresAt").lt(LocalDateTime.now())), ResumableUpload.class);
+        for (ResumableUpload upload : expired) {
+            if (!writing.contains(upload.getId())) {
+                discard(upload);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("🧹 {} uploads reprenables expirés supprimés", expired.size());
+        }
+    }
+
+    private ResumableUpload complete(ResumableUpload upload) throws IOException {
+        Path spooled = Paths.get(upload.getSpoolPath());
+        try {
+            mediaFileValidator.validateSignature(spooled, upload.getExtension());
+        } catch (IOException e) {
+            discard(upload);
+            throw e;
+        }
+
+        // Le fichier et sa réservation de spool appartiennent désormais à la tâche d'envoi
+        MediaUploadJob job = mediaUploadService.submitSpooledLessonVideo(upload.getLessonId(), upload.getCourseId(),
+                upload.getInstructorId(), spooled, upload.getLength());
+
+        log.info("✅ Upload reprenable {} complet, tâche d'envoi {}", upload.getId(), job.getId());
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(upload.getId())),
+                new Update().set("jobId", job.getId()).set("expiresAt", null).set("updatedAt", LocalDateTime.now()),
+                FindAndModifyOptions.options().returnNew(true), ResumableUpload.class);
+    }
+
+    private void discard(ResumableUpload upload) {
+        try {
+            Files.deleteIfExists(Paths.get(upload.getSpoolPath()));
+        } catch (IOException e) {
+            log.warn("⚠️ Impossible de supprimer le fichier en spool {}: {}", upload.getSpoolPath(), e.getMessage());
+        }
+        mediaUploadService.releaseSpool(upload.getLength());
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(upload.getId())), ResumableUpload.class);
+    }
+}
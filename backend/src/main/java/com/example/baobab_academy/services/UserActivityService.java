@@ -0,0 +1,142 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.EnrolledEvent;
+import com.example.baobab_academy.events.LessonCompletedEvent;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.UserActivityFeed;
+import com.example.baobab_academy.models.UserActivityFeed.ActivityEntry;
+import com.example.baobab_academy.models.enums.ActivityType;
+import com.example.baobab_academy.repositories.CourseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Journal d'activité en ajout seul, stocké par utilisateur dans un tableau plafonné ($push + $slice).
+ * Les titres sont dénormalisés à l'écriture pour que le fil se lise en une seule requête.
+ * Alimenté par le DomainEventBus : les titres de cours d'un lot sont chargés en une requête.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserActivityService implements DomainEventListener {
+
+    private final MongoTemplate mongoTemplate;
+    private final CourseRepository courseRepository;
+
+    @Value("${app.activity.max-entries:50}")
+    private int maxEntries;
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Set<String> courseIds = events.stream()
+                .filter(LessonCompletedEvent.class::isInstance)
+                .map(event -> ((LessonCompletedEvent) event).courseId())
+                .collect(Collectors.toSet());
+
+        Map<String, String> courseTitles = courseIds.isEmpty() ? Map.of()
+                : courseRepository.findAllById(courseIds).stream()
+                        .filter(course -> course.getTitle() != null)
+                        .collect(Collectors.toMap(Course::getId, Course::getTitle));
+
+        for (DomainEvent event : events) {
+            try {
+                if (event instanceof EnrolledEvent enrolled) {
+                    recordEnrollment(enrolled.userId(), enrolled.courseId(), enrolled.courseTitle());
+                } else if (event instanceof LessonCompletedEvent completed) {
+                    String courseTitle = courseTitles.get(completed.courseId());
+                    recordLessonCompleted(completed.userId(), completed.courseId(), courseTitle,
+                            completed.lessonId(), completed.lessonTitle());
+                    if (completed.isCourseCompleted()) {
+                        recordCourseCompleted(completed.userId(), completed.courseId(), courseTitle);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("❌ Erreur lors de l'enregistrement de l'activité {}: {}", event, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inscription à un cours
+     */
+    public void recordEnrollment(String userId, String courseId, String courseTitle) {
+        append(userId, ActivityEntry.builder()
+                .type(ActivityType.COURSE_ENROLLED)
+                .description("Inscription au cours: " + courseTitle)
+                .courseId(courseId)
+                .courseTitle(courseTitle)
+                .build());
+    }
+
+    /**
+     * Leçon terminée
+     */
+    public void recordLessonCompleted(String userId, String courseId, String courseTitle,
+            String lessonId, String lessonTitle) {
+        append(userId, ActivityEntry.builder()
+                .type(ActivityType.LESSON_COMPLETED)
+                .description("Leçon terminée: " + lessonTitle)
+                .courseId(courseId)
+                .courseTitle(courseTitle)
+                .lessonId(lessonId)
+                .lessonTitle(lessonTitle)
+                .build());
+    }
+
+    /**
+     * Cours terminé
+     */
+    public void recordCourseCompleted(String userId, String courseId, String courseTitle) {
+        append(userId, ActivityEntry.builder()
+                .type(ActivityType.COURSE_COMPLETED)
+                .description("Cours terminé: " + courseTitle)
+                .courseId(courseId)
+                .courseTitle(courseTitle)
+                .build());
+    }
+
+    /**
+     * Récupère les dernières activités, de la plus récente à la plus ancienne, en une lecture
+     */
+    public List<ActivityEntry> getRecentActivity(String userId, int limit) {
+        Query query = Query.query(Criteria.where("_id").is(userId));
+        query.fields().slice("entries", -limit);
+
+        UserActivityFeed feed = mongoTemplate.findOne(query, UserActivityFeed.class);
+        if (feed == null || feed.getEntries() == null) {
+            return List.of();
+        }
+
+        List<ActivityEntry> entries = new ArrayList<>(feed.getEntries());
+        Collections.reverse(entries);
+        return entries;
+    }
+
+    private void append(String userId, ActivityEntry entry) {
+        entry.setId(new ObjectId().toHexString());
+        entry.setCreatedAt(LocalDateTime.now());
+
+        Update update = new Update().set("updatedAt", entry.getCreatedAt());
+        update.push("entries").slice(-maxEntries).each(entry);
+
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(userId)), update, UserActivityFeed.class);
+        log.debug("🔔 Activité {} enregistrée pour l'utilisateur {}", entry.getType(), userId);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.events.RatingChangedEvent;
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.CourseEnrollment;
+import com.example.baobab_academy.models.CourseRating;
+import com.example.baobab_academy.models.User;
+import com.example.baobab_academy.models.UserActivityFeed;
+import com.example.baobab_academy.models.UserLearningStats;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Suppression en cascade des données d'un utilisateur, par lots bornés :
+ * notes (moyennes des cours recalculées par la tâche), progression (avec décrément du nombre
+ * d'étudiants de chaque cours), inscriptions (décomptées des statistiques de la plateforme), statistiques,
+ * fil d'activité, puis le compte lui-même.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserDeletionHandler implements CleanupJobHandler {
+
+    private static final String RATED_COURSES = "rated-courses";
+    private static final String PROGRESS_COURSES = "progress-courses";
+    private static final String DECREMENTED_COURSES = "decremented-courses";
+
+    private final MongoTemplate mongoTemplate;
+    private final DomainEventBus domainEventBus;
+    private final CourseRatingService courseRatingService;
+    private final CourseStructureCache courseStructureCache;
+
+    @Value("${app.cleanup.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public CleanupJobType type() {
+        return CleanupJobType.USER_DELETION;
+    }
+
+    @Override
+    public void run(CleanupJob job, CleanupJobService.Progress progress) {
+        String userId = job.getTargetId();
+
+        progress.phase("ratings");
+        deleteRatings(userId, progress);
+
+        // Recalcul dans la tâche elle-même : les RatingChangedEvent du bus en mémoire sont perdus sur un arrêt
+        progress.phase("rating-averages");
+        for (String courseId : progress.recorded(RATED_COURSES)) {
+            courseRatingService.updateCourseAverageRating(courseId);
+        }
+
+        progress.phase("progress");
+        deleteProgress(userId, progress);
+
+        progress.phase("derived");
+        removeEnrollments(userId, progress);
+        progress.deleted("user_learning_stats", mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(userId)), UserLearningStats.class).getDeletedCount());
+        progress.deleted("user_activity_feeds", mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(userId)), UserActivityFeed.class).getDeletedCount());
+
+        progress.phase("user");
+        progress.deleted("users", mongoTemplate.remove(
+                Query.query(Criteria.where("_id").is(userId)), User.class).getDeletedCount());
+    }
+
+    /**
+     * Notes par lots ; les cours touchés sont retenus dans la tâche avant la suppression, pour que la phase
+     * suivante recalcule leur moyenne même après une reprise. Le RatingChangedEvent n'alimente que les compteurs.
+     */
+    private void deleteRatings(String userId, CleanupJobService.Progress progress) {
+        while (true) {
+            Query query = Query.query(Criteria.where("userId").is(userId)).limit(batchSize);
+            query.fields().include("courseId", "rating");
+            List<CourseRating> ratings = mongoTemplate.find(query, CourseRating.class);
+            if (ratings.isEmpty()) {
+                return;
+            }
+
+            progress.record(RATED_COURSES, ratings.stream().map(CourseRating::getCourseId).collect(Collectors.toSet()));
+
+            List<String> ids = ratings.stream().map(CourseRating::getId).collect(Collectors.toList());
+            long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), CourseRating.class)
+                    .getDeletedCount();
+            progress.deleted("course_ratings", deleted);
+
+            ratings.forEach(rating -> domainEventBus.publish(
+                    new RatingChangedEvent(rating.getCourseId(), userId, rating.getRating(), null)));
+        }
+    }
+
+    /**
+     * Inscriptions par lots, chacune supprimée avant la publication de son EnrollmentRemovedEvent : une reprise
+     * ne décompte jamais deux fois la même inscription des compteurs de la plateforme. Le temps de visionnage
+     * n'est plus connu (progression déjà supprimée) ; seules les statistiques de l'utilisateur, supprimées
+     * elles aussi, en dépendent.
+     */
+    private void removeEnrollments(String userId, CleanupJobService.Progress progress) {
+        while (true) {
+            Query batchQuery = Query.query(Criteria.where("userId").is(userId)).limit(batchSize);
+            batchQuery.fields().include("courseId", "completedCount");
+            List<CourseEnrollment> enrollments = mongoTemplate.find(batchQuery, CourseEnrollment.class);
+            if (enrollments.isEmpty()) {
+                return;
+            }
+
+            Map<String, CourseStructureCache.CourseStructure> structures = courseStructureCache.getAll(
+                    enrollments.stream().map(CourseEnrollment::getCourseId).collect(Collectors.toSet()));
+
+            long removed = 0;
+            for (CourseEnrollment enrollment : enrollments) {
+                if (mongoTemplate.remove(Query.query(Criteria.where("_id").is(enrollment.getId())),
+                        CourseEnrollment.class).getDeletedCount() == 0) {
+                    continue;
+                }
+                removed++;
+                CourseStructureCache.CourseStructure structure = structures.get(enrollment.getCourseId());
+                domainEventBus.publish(new EnrollmentRemovedEvent(userId, enrollment.getCourseId(),
+                        enrollment.getCompletedCount(), structure != null ? structure.getTotalLessons() : 0, 0));
+            }
+            progress.deleted("course_enrollments", removed);
+        }
+    }
+
+    /**
+     * Progression cours par cours. Les cours sont retenus dans la tâche avant toute suppression, et chaque décrément
+     * du nombre d'étudiants y est noté : une reprise décrémente les cours restants même si leur progression a déjà
+     * été supprimée. Seul un arrêt entre le décrément et sa notation peut le rejouer ; aucun n'est jamais perdu.
+     */
+    private void deleteProgress(String userId, CleanupJobService.Progress progress) {
+        progress.record(PROGRESS_COURSES, mongoTemplate.findDistinct(Query.query(Criteria.where("userId").is(userId)),
+                "courseId", UserProgress.class, String.class));
+        Set<String> courseIds = progress.recorded(PROGRESS_COURSES);
+        Set<String> decremented = progress.recorded(DECREMENTED_COURSES);
+
+        for (String courseId : courseIds) {
+            if (!decremented.contains(courseId)) {
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(courseId).and("students").gt(0)),
+                        new Update().inc("students", -1), Course.class);
+                progress.record(DECREMENTED_COURSES, List.of(courseId));
+            }
+
+            progress.deleted("user_progress", mongoTemplate.remove(
+                    Query.query(Criteria.where("userId").is(userId).and("courseId").is(courseId)),
+                    UserProgress.class).getDeletedCount());
+        }
+        log.debug("🧹 Progression supprimée sur {} cours pour l'utilisateur {}", courseIds.size(), userId);
+    }
+}
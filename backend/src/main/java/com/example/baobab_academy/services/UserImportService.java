@@ -0,0 +1,318 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.dtos.UserImportReport;
+import com.example.baobab_academy.dtos.UserImportRow;
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.UserRegisteredEvent;
+import com.example.baobab_academy.models.User;
+import com.example.baobab_academy.models.enums.UserRole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Import massif d'utilisateurs depuis un flux CSV ou NDJSON, lu ligne par ligne.
+ * Par lot : vérification des emails existants en un seul $in, hachage BCrypt en parallèle sur un pool
+ * dimensionné au nombre de cœurs, puis insertion en bulk non ordonné. La mémoire reste bornée par la taille du lot.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final DomainEventBus domainEventBus;
+    private final ExecutorService hashingPool;
+    private final int batchSize;
+
+    public UserImportService(MongoTemplate mongoTemplate, PasswordEncoder passwordEncoder, Validator validator,
+            ObjectMapper objectMapper, DomainEventBus domainEventBus,
+            @Value("${app.users.import.batch-size:500}") int batchSize,
+            @Value("${app.users.import.hashing-threads:0}") int hashingThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.domainEventBus = domainEventBus;
+        this.batchSize = batchSize;
+        this.hashingPool = Executors.newFixedThreadPool(
+                hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Importe un fichier ; le format est déduit du nom (.ndjson / .jsonl) ou CSV par défaut
+     */
+    public UserImportReport importUsers(InputStream input, String filename) throws IOException {
+        boolean ndjson = filename != null
+                && (filename.toLowerCase(Locale.ROOT).endsWith(".ndjson") || filename.toLowerCase(Locale.ROOT).endsWith(".jsonl"));
+        log.info("📥 Import d'utilisateurs depuis {} ({})", filename, ndjson ? "NDJSON" : "CSV");
+
+        UserImportReport report = new UserImportReport();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            char separator = ',';
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                if (!ndjson && header == null) {
+                    // Séparateur fixé une fois pour tout le fichier : une valeur entre guillemets peut contenir l'autre
+                    separator = detectSeparator(line);
+                    header = parseCsvLine(line, separator).stream()
+                            .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                            .toArray(String[]::new);
+                    continue;
+                }
+
+                report.setTotalRows(report.getTotalRows() + 1);
+                try {
+                    UserImportRow row = ndjson ? objectMapper.readValue(line, UserImportRow.class) : toRow(header, line, separator);
+                    batch.add(new PendingRow(lineNumber, row));
+                } catch (Exception e) {
+                    recordError(report, lineNumber, null, "Ligne illisible: " + e.getMessage());
+                }
+
+                if (batch.size() >= batchSize) {
+                    processBatch(batch, report);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            processBatch(batch, report);
+        }
+
+        log.info("✅ Import terminé: {} lignes, {} comptes créés, {} erreurs",
+                report.getTotalRows(), report.getCreated(), report.getFailed());
+        return report;
+    }
+
+    private void processBatch(List<PendingRow> batch, UserImportReport report) {
+        // 1. Validation et doublons dans le lot
+        List<PendingRow> valid = new ArrayList<>(batch.size());
+        Set<String> batchEmails = new HashSet<>();
+        for (PendingRow pending : batch) {
+            UserImportRow row = pending.row();
+            if (row.getEmail() != null) {
+                row.setEmail(row.getEmail().trim());
+            }
+
+            Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+            if (!violations.isEmpty()) {
+                recordError(report, pending.line(), row.getEmail(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .collect(Collectors.joining(", ")));
+            } else if (parseRole(row.getRole()) == null) {
+                recordError(report, pending.line(), row.getEmail(), "Rôle invalide: " + row.getRole());
+            } else if (!batchEmails.add(row.getEmail())) {
+                recordError(report, pending.line(), row.getEmail(), "Email en double dans le fichier");
+            } else {
+                valid.add(pending);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // 2. Emails déjà présents en base : une seule requête $in
+        Query existingQuery = Query.query(Criteria.where("email").in(batchEmails));
+        existingQuery.fields().include("email");
+        Set<String> existing = mongoTemplate.find(existingQuery, User.class).stream()
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+
+        List<PendingRow> toCreate = new ArrayList<>(valid.size());
+        for (PendingRow pending : valid) {
+            if (existing.contains(pending.row().getEmail())) {
+                recordError(report, pending.line(), pending.row().getEmail(), "Un compte avec cet email existe déjà");
+            } else {
+                toCreate.add(pending);
+            }
+        }
+        if (toCreate.isEmpty()) {
+            return;
+        }
+
+        // 3. Hachage BCrypt en parallèle (coût CPU dominant)
+        List<CompletableFuture<User>> futures = toCreate.stream()
+                .map(pending -> CompletableFuture.supplyAsync(() -> toUser(pending.row()), hashingPool))
+                .collect(Collectors.toList());
+        List<User> users = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+
+        // 4. Insertion en bulk non ordonné : une erreur n'arrête pas le reste du lot
+        int failedInBulk = 0;
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+        } catch (BulkOperationException e) {
+            Set<Integer> failedIndexes = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                PendingRow pending = toCreate.get(error.getIndex());
+                recordError(report, pending.line(), pending.row().getEmail(),
+                        error.getCode() == 11000 ? "Un compte avec cet email existe déjà" : error.getMessage());
+            }
+            failedInBulk = failedIndexes.size();
+            // Ne publier que les comptes réellement créés
+            users = filterCreated(users, failedIndexes);
+        }
+
+        report.setCreated(report.getCreated() + toCreate.size() - failedInBulk);
+        users.forEach(user -> domainEventBus.publish(new UserRegisteredEvent(user.getId(), user.getRole())));
+    }
+
+    private List<User> filterCreated(List<User> users, Set<Integer> failedIndexes) {
+        List<User> created = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                created.add(users.get(i));
+            }
+        }
+        return created;
+    }
+
+    private User toUser(UserImportRow row) {
+        User user = new User(row.getEmail(), passwordEncoder.encode(row.getPassword()),
+                row.getFirstName().trim(), row.getLastName().trim(), parseRole(row.getRole()));
+        user.setId(new ObjectId().toHexString()); // Identifiant connu avant l'insertion en bulk
+        UserSearchKeys.apply(user);
+        return user;
+    }
+
+    private UserRole parseRole(String role) {
+        if (role == null || role.isBlank()) {
+            return UserRole.USER;
+        }
+        try {
+            return UserRole.valueOf(role.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private UserImportRow toRow(String[] header, String line, char separator) {
+        List<String> values = parseCsvLine(line, separator);
+        Map<String, String> byColumn = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            byColumn.put(header[i], values.get(i));
+        }
+
+        UserImportRow row = new UserImportRow();
+        row.setEmail(byColumn.get("email"));
+        row.setFirstName(byColumn.getOrDefault("firstname", byColumn.get("prenom")));
+        row.setLastName(byColumn.getOrDefault("lastname", byColumn.get("nom")));
+        row.setPassword(byColumn.getOrDefault("password", byColumn.get("motdepasse")));
+        row.setRole(byColumn.get("role"));
+        return row;
+    }
+
+    /**
+     * Séparateur du fichier, déduit de l'en-tête : point-virgule s'il y est plus fréquent que la virgule
+     * (hors guillemets), virgule sinon
+     */
+    private static char detectSeparator(String header) {
+        int semicolons = 0;
+        int commas = 0;
+        boolean quoted = false;
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == ';') {
+                semicolons++;
+            } else if (!quoted && c == ',') {
+                commas++;
+            }
+        }
+        return semicolons > commas ? ';' : ',';
+    }
+
+    /**
+     * Découpe une ligne CSV (champs entre guillemets, "" échappé)
+     */
+    private List<String> parseCsvLine(String line, char separator) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private void recordError(UserImportReport report, long line, String email, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new UserImportReport.RowError(line, email, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private record PendingRow(long line, UserImportRow row) {
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventListener;
+import com.example.baobab_academy.events.EnrolledEvent;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.events.LessonCompletedEvent;
+import com.example.baobab_academy.events.LessonProgressUpdatedEvent;
+import com.example.baobab_academy.models.UserLearningStats;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CourseStatus;
+import com.example.baobab_academy.services.UserProfileService.EnrolledCourseDto;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintient le document de statistiques d'apprentissage de chaque utilisateur.
+ * Les compteurs sont incrémentés à l'inscription et à la complétion des leçons, et décrémentés quand le nettoyage
+ * d'un cours supprime les inscriptions ;
+ * un document absent (utilisateur antérieur) est reconstruit une seule fois depuis user_progress.
+ * Alimenté par le DomainEventBus : le temps de visionnage d'un lot est cumulé par utilisateur avant écriture.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserLearningStatsService implements DomainEventListener {
+
+    private static final Set<CourseStatus> COUNTED_STATUSES = EnumSet.complementOf(EnumSet.of(CourseStatus.DELETED));
+
+    private final MongoTemplate mongoTemplate;
+    private final LearnerDashboardAssembler learnerDashboardAssembler;
+
+    /**
+     * Lecture par clé primaire des statistiques d'un utilisateur
+     */
+    public UserLearningStats getStats(String userId) {
+        UserLearningStats stats = mongoTemplate.findById(userId, UserLearningStats.class);
+        return stats != null ? stats : rebuild(userId);
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        Map<String, Long> watchTimeByUser = new HashMap<>();
+
+        for (DomainEvent event : events) {
+            try {
+                if (event instanceof EnrolledEvent enrolled) {
+                    recordEnrollment(enrolled.userId());
+                } else if (event instanceof EnrollmentRemovedEvent removed) {
+                    recordEnrollmentRemoved(removed);
+                } else if (event instanceof LessonCompletedEvent completed) {
+                    recordLessonCompleted(completed.userId(), completed.completedLessons(), completed.totalLessons());
+                } else if (event instanceof LessonProgressUpdatedEvent progress && progress.watchTimeDeltaSeconds() > 0) {
+                    watchTimeByUser.merge(progress.userId(), progress.watchTimeDeltaSeconds(), Long::sum);
+                }
+            } catch (Exception e) {
+                log.error("❌ Erreur lors de la mise à jour des statistiques pour {}: {}", event, e.getMessage());
+            }
+        }
+
+        watchTimeByUser.forEach(this::recordWatchTime);
+    }
+
+    /**
+     * Une nouvelle inscription à un cours
+     */
+    public void recordEnrollment(String userId) {
+        applyOrRebuild(userId, new Update().inc("enrolledCourses", 1));
+    }
+
+    /**
+     * Une inscription a disparu avec son cours : retire ce qu'elle avait ajouté aux compteurs. Sans document,
+     * rien à faire : la reconstruction ne compte déjà plus le cours.
+     */
+    public void recordEnrollmentRemoved(EnrollmentRemovedEvent event) {
+        Update update = new Update().inc("enrolledCourses", -1).set("updatedAt", LocalDateTime.now());
+        if (event.isCourseCompleted()) {
+            update.inc("completedCourses", -1);
+        } else if (event.isCourseInProgress()) {
+            update.inc("inProgressCourses", -1);
+        }
+        if (event.watchTimeSeconds() > 0) {
+            update.inc("totalWatchTimeSeconds", -event.watchTimeSeconds());
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(event.userId())), update, UserLearningStats.class);
+    }
+
+    /**
+     * Une leçon vient d'être terminée : met à jour les compteurs en cours / terminés
+     */
+    public void recordLessonCompleted(String userId, long completedLessons, long totalLessons) {
+        if (totalLessons <= 0) {
+            return;
+        }
+
+        boolean courseStarted = completedLessons == 1;
+        boolean courseCompleted = completedLessons == totalLessons;
+
+        Update update = new Update();
+        if (courseStarted && !courseCompleted) {
+            update.inc("inProgressCourses", 1);
+        }
+        if (courseCompleted) {
+            update.inc("completedCourses", 1);
+            if (!courseStarted) {
+                update.inc("inProgressCourses", -1);
+            }
+        }
+
+        if (!update.getUpdateObject().isEmpty()) {
+            applyOrRebuild(userId, update);
+        }
+    }
+
+    /**
+     * Ajoute du temps de visionnage
+     */
+    public void recordWatchTime(String userId, long seconds) {
+        if (seconds > 0) {
+            applyOrRebuild(userId, new Update().inc("totalWatchTimeSeconds", seconds));
+        }
+    }
+
+    /**
+     * Recalcule entièrement les statistiques d'un utilisateur depuis user_progress. Même population que le
+     * chemin incrémental : tous les cours inscrits encore présents, publiés ou non ; un cours supprimé n'est
+     * plus compté (son décompte incrémental arrive avec le nettoyage). Écrit en $setOnInsert : un document créé
+     * entre-temps par un autre listener, avec ses $inc, n'est jamais écrasé.
+     */
+    public UserLearningStats rebuild(String userId) {
+        log.info("🔄 Reconstruction des statistiques de l'utilisateur {}", userId);
+
+        List<EnrolledCourseDto> enrolledCourses = learnerDashboardAssembler.assemble(userId, COUNTED_STATUSES);
+
+        int completedCourses = (int) enrolledCourses.stream()
+                .filter(course -> course.getIsCompleted() || course.getProgressPercentage() >= 100)
+                .count();
+
+        int inProgressCourses = (int) enrolledCourses.stream()
+                .filter(course -> course.getProgressPercentage() > 0 && course.getProgressPercentage() < 100)
+                .count();
+
+        Update update = new Update()
+                .setOnInsert("enrolledCourses", enrolledCourses.size())
+                .setOnInsert("completedCourses", completedCourses)
+                .setOnInsert("inProgressCourses", inProgressCourses)
+                .setOnInsert("totalWatchTimeSeconds", sumWatchTime(userId))
+                .setOnInsert("updatedAt", LocalDateTime.now());
+
+        return mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(userId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), UserLearningStats.class);
+    }
+
+    private void applyOrRebuild(String userId, Update update) {
+        update.set("updatedAt", LocalDateTime.now());
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(userId)), update, UserLearningStats.class);
+
+        // Pas encore de document : la reconstruction inclut déjà l'événement courant
+        if (result.getMatchedCount() == 0) {
+            rebuild(userId);
+        }
+    }
+
+    private long sumWatchTime(String userId) {
+        TypedAggregation<UserProgress> aggregation = Aggregation.newAggregation(UserProgress.class,
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.group().sum("watchTimeSeconds").as("total"));
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null || result.get("total") == null) {
+            return 0;
+        }
+        return ((Number) result.get("total")).longValue();
+    }
+}
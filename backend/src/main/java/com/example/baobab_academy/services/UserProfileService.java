@@ -1,18 +1,14 @@
 package com.example.baobab_academy.services;
 
 import com.example.baobab_academy.models.*;
-import com.example.baobab_academy.repositories.*;
-import com.example.baobab_academy.dtos.CourseResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -20,11 +16,11 @@ import java.util.Map;
 @Transactional(readOnly = true)
 public class UserProfileService {
 
-    private final UserProgressRepository userProgressRepository;
-    private final CourseRepository courseRepository;
-    private final ChapterRepository chapterRepository;
-    private final LessonRepository lessonRepository;
-    private final CoursePublicService coursePublicService;
+    private static final int RECENT_ACTIVITY_LIMIT = 10;
+
+    private final LearnerDashboardAssembler learnerDashboardAssembler;
+    private final UserLearningStatsService userLearningStatsService;
+    private final UserActivityService userActivityService;
 
     /**
      * Récupère tous les cours auxquels l'utilisateur est inscrit avec leur progression
@@ -33,35 +29,9 @@ public class UserProfileService {
         log.info("📚 Récupération des cours inscrits pour l'utilisateur: {}", userId);
         
         try {
-            // Récupérer toutes les progressions de l'utilisateur
-            List<UserProgress> userProgresses = userProgressRepository.findByUserId(userId);
-            log.info("🔍 Trouvé {} progressions pour l'utilisateur {}", userProgresses.size(), userId);
-            
-            if (userProgresses.isEmpty()) {
-                log.info("ℹ️ Aucune progression trouvée pour l'utilisateur {}", userId);
-                return List.of();
-            }
-            
-            // Grouper par cours
-            Map<String, List<UserProgress>> progressByCourse = userProgresses.stream()
-                    .collect(Collectors.groupingBy(UserProgress::getCourseId));
-            
-            log.info("📊 Progression groupée pour {} cours", progressByCourse.size());
-            
-            return progressByCourse.entrySet().stream()
-                    .map(entry -> {
-                        String courseId = entry.getKey();
-                        List<UserProgress> courseProgresses = entry.getValue();
-                        
-                        try {
-                            return mapToEnrolledCourseDto(courseId, courseProgresses);
-                        } catch (Exception e) {
-                            log.error("❌ Erreur lors du mapping du cours {}: {}", courseId, e.getMessage());
-                            return null;
-                        }
-                    })
-                    .filter(dto -> dto != null)
-                    .collect(Collectors.toList());
+            List<EnrolledCourseDto> enrolledCourses = learnerDashboardAssembler.assemble(userId);
+            log.info("📊 {} cours inscrits trouvés pour l'utilisateur {}", enrolledCourses.size(), userId);
+            return enrolledCourses;
                     
         } catch (Exception e) {
             log.error("❌ Erreur lors de la récupération des cours inscrits: {}", e.getMessage(), e);
@@ -92,37 +62,23 @@ public class UserProfileService {
     }
 
     /**
-     * Calcule les statistiques de l'utilisateur
+     * Récupère les statistiques de l'utilisateur (document matérialisé)
      */
     public UserStatsDto getUserStats(String userId) {
-        log.info("📊 Calcul des statistiques pour l'utilisateur: {}", userId);
-        
-        List<EnrolledCourseDto> enrolledCourses = getEnrolledCourses(userId);
-        List<EnrolledCourseDto> completedCourses = getCompletedCourses(userId);
-        List<EnrolledCourseDto> inProgressCourses = getInProgressCourses(userId);
+        log.info("📊 Récupération des statistiques pour l'utilisateur: {}", userId);
         
-        // Calculer le temps d'étude total (estimation)
-        int totalWatchTimeHours = enrolledCourses.stream()
-                .mapToInt(course -> {
-                    String duration = course.getDuration();
-                    int estimatedHours = extractHoursFromDuration(duration);
-                    return (int) (estimatedHours * (course.getProgressPercentage() / 100.0));
-                })
-                .sum();
-        
-        double completionRate = enrolledCourses.isEmpty() ? 0.0 : 
-                (double) completedCourses.size() / enrolledCourses.size() * 100;
+        UserLearningStats learningStats = userLearningStatsService.getStats(userId);
         
         UserStatsDto stats = UserStatsDto.builder()
-                .totalEnrolledCourses(enrolledCourses.size())
-                .completedCourses(completedCourses.size())
-                .inProgressCourses(inProgressCourses.size())
-                .totalWatchTimeHours(totalWatchTimeHours)
-                .completionRate(completionRate)
-                .certificatesEarned(completedCourses.size()) // 1 certificat par cours terminé
+                .totalEnrolledCourses(learningStats.getEnrolledCourses())
+                .completedCourses(learningStats.getCompletedCourses())
+                .inProgressCourses(learningStats.getInProgressCourses())
+                .totalWatchTimeHours((int) (learningStats.getTotalWatchTimeSeconds() / 3600))
+                .completionRate(learningStats.getCompletionRate())
+                .certificatesEarned(learningStats.getCompletedCourses()) // 1 certificat par cours terminé
                 .build();
         
-        log.info("✅ Statistiques calculées: {}", stats);
+        log.info("✅ Statistiques récupérées: {}", stats);
         return stats;
     }
 
@@ -133,13 +89,8 @@ public class UserProfileService {
         log.info("🔔 Récupération de l'activité récente pour l'utilisateur: {}", userId);
         
         try {
-            // Récupérer les progressions récentes (les 10 dernières)
-            List<UserProgress> recentProgresses = userProgressRepository
-                    .findTop10ByUserIdOrderByUpdatedAtDesc(userId);
-            
-            return recentProgresses.stream()
+            return userActivityService.getRecentActivity(userId, RECENT_ACTIVITY_LIMIT).stream()
                     .map(this::mapToUserActivityDto)
-                    .filter(activity -> activity != null)
                     .collect(Collectors.toList());
                     
         } catch (Exception e) {
@@ -149,172 +100,20 @@ public class UserProfileService {
     }
 
     /**
-     * Mappe un courseId et ses progressions vers EnrolledCourseDto
+     * Mappe une entrée du fil d'activité vers une activité utilisateur
      */
-    private EnrolledCourseDto mapToEnrolledCourseDto(String courseId, List<UserProgress> progressList) {
-        try {
-            // Récupérer le cours via le service public (comme dans AdminDashboard)
-            CourseResponse course = coursePublicService.getPublishedCourseById(courseId);
-            
-            // Calculer la progression globale
-            long totalLessons = getTotalLessonsForCourse(courseId);
-            long completedLessons = progressList.stream()
-                    .mapToLong(progress -> progress.isCompleted() ? 1 : 0)
-                    .sum();
-            
-            double progressPercentage = totalLessons > 0 ? 
-                    (double) completedLessons / totalLessons * 100 : 0;
-            
-            boolean isCompleted = totalLessons > 0 && completedLessons == totalLessons;
-            
-            // Trouver les dates d'inscription et de dernière activité
-            LocalDateTime enrolledAt = progressList.stream()
-                    .map(UserProgress::getCreatedAt)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(LocalDateTime.now());
-            
-            LocalDateTime lastAccessedAt = progressList.stream()
-                    .map(progress -> progress.getUpdatedAt() != null ? progress.getUpdatedAt() : progress.getCreatedAt())
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-            
-            // 🔍 Log pour debug des images
-            log.debug("🖼️ Cours {}: Image de couverture = {}", course.getTitle(), course.getCoverImage());
-            
-            return EnrolledCourseDto.builder()
-                    .id(course.getId())
-                    .title(course.getTitle())
-                    .description(course.getDescription())
-                    .coverImage(course.getCoverImage()) // ✅ Image de couverture du CourseResponse
-                    .categoryId(course.getCategoryId())
-                    .categoryName(course.getCategoryName())
-                    .instructorId(course.getInstructorId())
-                    .level(course.getLevel().toString())
-                    .duration(course.getDuration())
-                    .students(course.getStudents())
-                    .rating(course.getRating())
-                    .status(course.getStatus().toString())
-                    .createdAt(course.getCreatedAt() != null ? 
-                        course.getCreatedAt().toString() : LocalDateTime.now().toString())
-                    .updatedAt(course.getUpdatedAt() != null ? 
-                        course.getUpdatedAt().toString() : null)
-                    .progressPercentage(progressPercentage)
-                    .completedLessons((int) completedLessons)
-                    .totalLessons((int) totalLessons)
-                    .enrolledAt(enrolledAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .lastAccessedAt(lastAccessedAt != null ? 
-                        lastAccessedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null)
-                    .isCompleted(isCompleted)
-                    .build();
-                    
-        } catch (Exception e) {
-            log.error("❌ Erreur lors du mapping du cours {}: {}", courseId, e.getMessage(), e);
-            return null;
-        }
-    }
-
-    /**
-     * Mappe une progression vers une activité utilisateur
-     */
-    private UserActivityDto mapToUserActivityDto(UserProgress progress) {
-        try {
-            Lesson lesson = lessonRepository.findById(progress.getLessonId()).orElse(null);
-            if (lesson == null) {
-                log.warn("⚠️ Leçon non trouvée: {}", progress.getLessonId());
-                return null;
-            }
-            
-            Chapter chapter = chapterRepository.findById(lesson.getChapterId()).orElse(null);
-            if (chapter == null) {
-                log.warn("⚠️ Chapitre non trouvé: {}", lesson.getChapterId());
-                return null;
-            }
-            
-            Course course = courseRepository.findById(chapter.getCourseId()).orElse(null);
-            if (course == null) {
-                log.warn("⚠️ Cours non trouvé: {}", chapter.getCourseId());
-                return null;
-            }
-            
-            String type = progress.isCompleted() ? "LESSON_COMPLETED" : "LESSON_PROGRESS";
-            String description = progress.isCompleted() ? 
-                "Leçon terminée: " + lesson.getTitle() :
-                "Progression mise à jour: " + lesson.getTitle();
-            
-            return UserActivityDto.builder()
-                    .id(progress.getId())
-                    .type(type)
-                    .description(description)
-                    .courseId(course.getId())
-                    .courseTitle(course.getTitle())
-                    .lessonId(lesson.getId())
-                    .lessonTitle(lesson.getTitle())
-                    .createdAt(progress.getUpdatedAt() != null ? 
-                        progress.getUpdatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) :
-                        progress.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .build();
-                    
-        } catch (Exception e) {
-            log.error("❌ Erreur lors du mapping de l'activité: {}", e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * Compte le nombre total de leçons dans un cours
-     */
-    private long getTotalLessonsForCourse(String courseId) {
-        try {
-            List<Chapter> chapters = chapterRepository.findByCourseIdOrderByOrderIndex(courseId);
-            return chapters.stream()
-                    .mapToLong(chapter -> lessonRepository.countByChapterId(chapter.getId()))
-                    .sum();
-        } catch (Exception e) {
-            log.error("❌ Erreur lors du comptage des leçons pour le cours {}: {}", courseId, e.getMessage());
-            return 0;
-        }
-    }
-
-    /**
-     * Extrait le nombre d'heures d'une chaîne de durée
-     */
-    private int extractHoursFromDuration(String duration) {
-        if (duration == null || duration.trim().isEmpty()) {
-            return 2; // Valeur par défaut
-        }
-        
-        try {
-            String cleanDuration = duration.toLowerCase().trim();
-            
-            // Formats possibles: "5 heures", "2h30", "90 minutes", etc.
-            if (cleanDuration.contains("heure")) {
-                String numberStr = cleanDuration.replaceAll("[^0-9]", "");
-                return numberStr.isEmpty() ? 2 : Integer.parseInt(numberStr);
-            } else if (cleanDuration.contains("h")) {
-                String[] parts = cleanDuration.split("h");
-                if (parts.length > 0) {
-                    String numberStr = parts[0].replaceAll("[^0-9]", "");
-                    return numberStr.isEmpty() ? 2 : Integer.parseInt(numberStr);
-                }
-            } else if (cleanDuration.contains("minute")) {
-                String numberStr = cleanDuration.replaceAll("[^0-9]", "");
-                if (!numberStr.isEmpty()) {
-                    int minutes = Integer.parseInt(numberStr);
-                    return Math.max(1, minutes / 60);
-                }
-            } else {
-                // Essayer d'extraire juste le premier nombre
-                String numberStr = cleanDuration.replaceAll("[^0-9]", "");
-                if (!numberStr.isEmpty()) {
-                    return Integer.parseInt(numberStr);
-                }
-            }
-            
-            return 2; // Valeur par défaut
-        } catch (Exception e) {
-            log.warn("⚠️ Impossible de parser la durée: '{}', utilisation de la valeur par défaut", duration);
-            return 2; // Valeur par défaut
-        }
+    private UserActivityDto mapToUserActivityDto(UserActivityFeed.ActivityEntry entry) {
+        return UserActivityDto.builder()
+                .id(entry.getId())
+                .type(entry.getType().name())
+                .description(entry.getDescription())
+                .courseId(entry.getCourseId())
+                .courseTitle(entry.getCourseTitle())
+                .lessonId(entry.getLessonId())
+                .lessonTitle(entry.getLessonTitle())
+                .createdAt(entry.getCreatedAt() != null ?
+                    entry.getCreatedAt().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null)
+                .build();
     }
 
     // DTOs intégrés (peuvent aussi être dans des fichiers séparés)
@@ -1,9 +1,14 @@
 package com.example.baobab_academy.services;
 
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.EnrolledEvent;
+import com.example.baobab_academy.events.LessonCompletedEvent;
+import com.example.baobab_academy.events.LessonProgressUpdatedEvent;
 import com.example.baobab_academy.models.*;
 import com.example.baobab_academy.repositories.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +26,15 @@ public class UserProgressService {
     private final ChapterRepository chapterRepository;
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
+    private final CourseStructureCache courseStructureCache;
+    private final CourseEnrollmentService courseEnrollmentService;
+    private final DomainEventBus domainEventBus;
+
+    @Value("${app.progress.max-watched-runs:32}")
+    private int maxWatchedRuns;
+
+    @Value("${app.progress.max-segment-seconds:120}")
+    private int maxSegmentSeconds;
 
     /**
      * Démarre la progression d'un utilisateur pour un cours
@@ -74,11 +88,15 @@ public class UserProgressService {
         }
 
         userProgressRepository.saveAll(progressEntries);
+        courseEnrollmentService.enroll(userId, courseId);
 
         // 🆕 NOUVEAUTÉ : Incrémenter le compteur d'étudiants du cours
         course.setStudents(course.getStudents() + 1);
         courseRepository.save(course);
 
+        // Recommandations, statistiques et fil d'activité sont mis à jour hors de la requête
+        domainEventBus.publish(new EnrolledEvent(userId, courseId, course.getTitle()));
+
         log.info("✅ Progression initiale créée pour le cours {} - {} leçons initialisées",
                 courseId, progressEntries.size());
         log.info("📊 Nombre d'étudiants mis à jour: {}", course.getStudents());
@@ -89,6 +107,17 @@ public class UserProgressService {
      */
     public UserProgress updateLessonProgress(String userId, String lessonId, int progressPercentage,
             int watchTimeSeconds) {
+        return updateLessonProgress(userId, lessonId, progressPercentage, watchTimeSeconds, null, null, null);
+    }
+
+    /**
+     * Met à jour la progression d'une leçon. Si le lecteur rapporte le segment vu [segmentStart, segmentEnd[,
+     * il est fusionné dans la couverture et le temps revu est comptabilisé. La complétion ne se déduit que de
+     * la couverture rapportée à la durée connue du serveur (descripteur de la vidéo hébergée) : le pourcentage
+     * et la durée envoyés par le client ne servent qu'à l'affichage et aux statistiques d'engagement.
+     */
+    public UserProgress updateLessonProgress(String userId, String lessonId, int progressPercentage,
+            int watchTimeSeconds, Integer segmentStart, Integer segmentEnd, Integer durationSeconds) {
         log.info("📈 Mise à jour progression leçon {} pour utilisateur {}: {}%", lessonId, userId, progressPercentage);
 
         // Récupérer la leçon pour obtenir le courseId
@@ -106,16 +135,86 @@ public class UserProgressService {
                         .lessonId(lessonId)
                         .build());
 
-        progress.setProgressPercentage(Math.max(progress.getProgressPercentage(), progressPercentage));
-        progress.setWatchTimeSeconds(Math.max(progress.getWatchTimeSeconds(), watchTimeSeconds));
+        int previousWatchTime = progress.getWatchTimeSeconds();
+        int previousPercentage = progress.getProgressPercentage();
+
+        // Durée de référence : celle du serveur, sinon (vidéo externe) celle du lecteur pour les seules statistiques
+        Integer lessonDuration = hostedVideoDuration(lesson);
+        if (lessonDuration != null) {
+            progress.setDurationSeconds(lessonDuration);
+        } else if (durationSeconds != null && durationSeconds > 0) {
+            progress.setDurationSeconds(durationSeconds);
+        }
+
+        WatchedSegment segment = null;
+        if (segmentStart != null && segmentEnd != null) {
+            segment = recordWatchedSegment(progress, segmentStart, segmentEnd);
+        } else {
+            progress.setWatchTimeSeconds(Math.max(progress.getWatchTimeSeconds(), watchTimeSeconds));
+        }
+
+        Integer coverage = lessonDuration != null
+                ? (int) Math.min(100, (long) progress.getWatchedSeconds() * 100 / lessonDuration)
+                : null;
+        progress.setProgressPercentage(Math.max(progress.getProgressPercentage(),
+                coverage != null ? coverage : Math.min(100, Math.max(0, progressPercentage))));
 
-        // Marquer comme complété si 80% ou plus
-        if (progressPercentage >= 80 && !progress.isCompleted()) {
+        // Complétion automatique à 80 % de couverture réelle uniquement
+        boolean newlyCompleted = false;
+        if (coverage != null && coverage >= 80 && !progress.isCompleted()) {
             progress.markAsCompleted();
-            log.info("🎉 Leçon {} automatiquement marquée comme complétée ({}%)", lessonId, progressPercentage);
+            newlyCompleted = true;
+            log.info("🎉 Leçon {} automatiquement marquée comme complétée ({}% vus)", lessonId, coverage);
+        }
+
+        UserProgress savedProgress = userProgressRepository.save(progress);
+
+        domainEventBus.publish(new LessonProgressUpdatedEvent(userId, savedProgress.getCourseId(), lessonId,
+                previousPercentage, savedProgress.getProgressPercentage(),
+                savedProgress.getWatchTimeSeconds() - previousWatchTime,
+                segment != null ? segment.start() : null,
+                segment != null ? segment.end() : null,
+                savedProgress.getDurationSeconds()));
+        if (newlyCompleted) {
+            onLessonCompleted(userId, lesson, savedProgress.getCourseId());
+        }
+
+        return savedProgress;
+    }
+
+    /**
+     * Durée en secondes de la vidéo hébergée de la leçon, ou null si elle est inconnue (vidéo externe, média non migré)
+     */
+    private static Integer hostedVideoDuration(Lesson lesson) {
+        Double duration = lesson.getVideoMedia() != null ? lesson.getVideoMedia().getDurationSeconds() : null;
+        if (duration == null || duration < 1) {
+            return null;
         }
+        return (int) Math.round(duration);
+    }
+
+    /**
+     * Fusionne le segment vu, borné à la durée connue et à la longueur maximale d'un heartbeat.
+     * Renvoie le segment réellement retenu, ou null s'il est vide.
+     */
+    private WatchedSegment recordWatchedSegment(UserProgress progress, int segmentStart, int segmentEnd) {
+        Integer duration = progress.getDurationSeconds();
+
+        int start = Math.max(0, segmentStart);
+        int end = Math.min(segmentEnd, start + maxSegmentSeconds);
+        if (duration != null) {
+            end = Math.min(end, duration);
+        }
+        if (end <= start) {
+            return null;
+        }
+
+        progress.recordWatchedSegment(start, end, maxWatchedRuns);
+        progress.setWatchTimeSeconds(progress.getWatchTimeSeconds() + (end - start));
+        return new WatchedSegment(start, end);
+    }
 
-        return userProgressRepository.save(progress);
+    private record WatchedSegment(int start, int end) {
     }
 
     /**
@@ -141,33 +240,51 @@ public class UserProgressService {
                         .completed(false)
                         .build());
 
+        boolean wasCompleted = progress.isCompleted();
+        int previousPercentage = progress.getProgressPercentage();
+
         // Marquer comme complété à 100%
         progress.setProgressPercentage(100);
         progress.markAsCompleted();
 
         UserProgress savedProgress = userProgressRepository.save(progress);
 
+        // Complétion manuelle : les paliers restants jusqu'à 100 % sont franchis sans segment vu
+        if (previousPercentage < 100) {
+            domainEventBus.publish(new LessonProgressUpdatedEvent(userId, savedProgress.getCourseId(), lessonId,
+                    previousPercentage, 100, 0, null, null, savedProgress.getDurationSeconds()));
+        }
+        if (!wasCompleted) {
+            onLessonCompleted(userId, lesson, savedProgress.getCourseId());
+        }
+
         log.info("🎯 Leçon {} marquée comme complétée avec succès", lessonId);
         return savedProgress;
     }
 
     /**
-     * Récupère la progression d'un utilisateur pour un cours
+     * Lève le bit de la leçon et publie la complétion avec les compteurs observés au moment de l'écriture
+     */
+    private void onLessonCompleted(String userId, Lesson lesson, String courseId) {
+        long completedLessons = courseEnrollmentService.markLessonCompleted(userId, courseId, lesson.getOrdinal());
+        long totalLessons = courseStructureCache.get(courseId).getTotalLessons();
+
+        domainEventBus.publish(new LessonCompletedEvent(userId, courseId, lesson.getId(), lesson.getTitle(),
+                completedLessons, totalLessons));
+    }
+
+    /**
+     * Récupère la progression d'un utilisateur pour un cours (vecteur de complétion + structure en cache)
      */
     public CourseProgressSummary getCourseProgress(String userId, String courseId) {
         log.info("📊 Récupération progression cours {} pour utilisateur {}", courseId, userId);
 
-        List<UserProgress> userProgresses = userProgressRepository.findByUserIdAndCourseId(userId, courseId);
-
-        // Compter le total de leçons dans le cours
-        List<Chapter> chapters = chapterRepository.findByCourseIdOrderByOrderIndex(courseId);
-        long totalLessons = chapters.stream()
-                .mapToLong(chapter -> lessonRepository.countByChapterId(chapter.getId()))
-                .sum();
+        CourseEnrollment enrollment = courseEnrollmentService.getEnrollment(userId, courseId);
+        CourseStructureCache.CourseStructure structure = courseStructureCache.get(courseId);
 
-        long completedLessons = userProgresses.stream()
-                .mapToLong(progress -> progress.isCompleted() ? 1 : 0)
-                .sum();
+        long totalLessons = structure.getTotalLessons();
+        long completedLessons = enrollment != null ? Math.min(enrollment.getCompletedCount(), totalLessons) : 0;
+        CourseStructureCache.LessonNode nextLesson = courseEnrollmentService.findNextLesson(enrollment, structure);
 
         double progressPercentage = totalLessons > 0 ? (double) completedLessons / totalLessons * 100 : 0;
 
@@ -180,8 +297,9 @@ public class UserProgressService {
                 .totalLessons((int) totalLessons)
                 .completedLessons((int) completedLessons)
                 .progressPercentage(progressPercentage)
-                .isStarted(!userProgresses.isEmpty())
+                .isStarted(enrollment != null)
                 .isCompleted(totalLessons > 0 && completedLessons == totalLessons)
+                .nextLessonId(nextLesson != null ? nextLesson.getId() : null)
                 .build();
     }
 
@@ -258,5 +376,6 @@ public class UserProgressService {
         private double progressPercentage;
         private boolean isStarted;
         private boolean isCompleted;
+        private String nextLessonId; // Première leçon non terminée dans l'ordre du cours
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.User;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation des clés de recherche des utilisateurs (minuscules, sans accents) et trigrammes d'email
+ */
+public final class UserSearchKeys {
+
+    public static final int GRAM_SIZE = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private UserSearchKeys() {
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigrammes distincts d'une chaîne déjà normalisée
+     */
+    public static List<String> grams(String normalized) {
+        if (normalized == null || normalized.length() < GRAM_SIZE) {
+            return List.of();
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_SIZE));
+        }
+        return new ArrayList<>(grams);
+    }
+
+    /**
+     * Renseigne les clés de recherche d'un utilisateur
+     */
+    public static void apply(User user) {
+        user.setSearchFirstName(normalize(user.getFirstName()));
+        user.setSearchLastName(normalize(user.getLastName()));
+        user.setSearchEmail(normalize(user.getEmail()));
+        user.setEmailGrams(grams(user.getSearchEmail()));
+    }
+}
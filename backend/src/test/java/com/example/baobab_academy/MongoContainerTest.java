@@ -0,0 +1,42 @@
+package com.example.baobab_academy;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base des tests qui exercent de vraies requêtes MongoDB ($bit, findAndModify, upserts) sur un conteneur
+ * partagé, base vidée avant chaque test. Ignorés quand Docker n'est pas disponible.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MongoContainerTest {
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+
+    protected static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "baobab_academy_test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        client.close();
+    }
+
+    @BeforeEach
+    void dropDatabase() {
+        mongoTemplate.getDb().drop();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.baobab_academy.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DomainEventBusTest {
+
+    @Mock
+    private ObjectProvider<DomainEventListener> listenerProvider;
+
+    private DomainEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null && bus.isRunning()) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void rejectsRingSizeThatIsNotPowerOfTwo() {
+        assertThatThrownBy(() -> new DomainEventBus(listenerProvider, 12, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deliversEveryEventInOrderWhenTheRingWrapsAround() {
+        RecordingListener listener = new RecordingListener(0);
+        bus = start(4, 3, listener);
+
+        for (int i = 0; i < 100; i++) {
+            bus.publish(new TestEvent(0, i));
+        }
+        bus.stop();
+
+        assertThat(listener.received).extracting(TestEvent::sequence)
+                .containsExactlyElementsOf(Stream.iterate(0, i -> i + 1).limit(100).toList());
+        assertThat(Collections.max(listener.batchSizes)).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void slowConsumerHoldsBackProducersWithoutLosingEvents() throws InterruptedException {
+        RecordingListener fast = new RecordingListener(0);
+        RecordingListener slow = new RecordingListener(1);
+        bus = start(8, 4, fast, slow);
+
+        int producers = 4;
+        int perProducer = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    bus.publish(new TestEvent(producer, i));
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        bus.stop();
+
+        for (RecordingListener listener : List.of(fast, slow)) {
+            assertThat(listener.received).hasSize(producers * perProducer);
+            // Ordre de publication conservé pour chaque producteur
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                assertThat(listener.received.stream().filter(event -> event.producer() == producer))
+                        .extracting(TestEvent::sequence)
+                        .isSorted()
+                        .hasSize(perProducer);
+            }
+        }
+    }
+
+    @Test
+    void failingListenerDoesNotStopConsumption() {
+        RecordingListener listener = new RecordingListener(0) {
+            @Override
+            public void onEvents(List<DomainEvent> events) {
+                super.onEvents(events);
+                throw new IllegalStateException("Erreur du consommateur");
+            }
+        };
+        bus = start(4, 1, listener);
+
+        for (int i = 0; i < 10; i++) {
+            bus.publish(new TestEvent(0, i));
+        }
+        bus.stop();
+
+        assertThat(listener.received).hasSize(10);
+    }
+
+    @Test
+    void eventsPublishedBeforeStartAreDropped() {
+        RecordingListener listener = new RecordingListener(0);
+        when(listenerProvider.orderedStream()).thenReturn(Stream.of(listener));
+        bus = new DomainEventBus(listenerProvider, 4, 2);
+
+        bus.publish(new TestEvent(0, 0));
+        bus.start();
+        bus.publish(new TestEvent(0, 1));
+        bus.stop();
+
+        assertThat(listener.received).extracting(TestEvent::sequence).containsExactly(1);
+    }
+
+    private DomainEventBus start(int ringSize, int batchSize, DomainEventListener... listeners) {
+        when(listenerProvider.orderedStream()).thenReturn(Stream.of(listeners));
+        DomainEventBus started = new DomainEventBus(listenerProvider, ringSize, batchSize);
+        started.start();
+        return started;
+    }
+
+    private record TestEvent(int producer, int sequence) implements DomainEvent {
+    }
+
+    private static class RecordingListener implements DomainEventListener {
+
+        private final List<TestEvent> received = new CopyOnWriteArrayList<>();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        private final long delayMillis;
+
+        private RecordingListener(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            // La liste est réutilisée par le bus : copie avant de la conserver
+            List<TestEvent> copy = new ArrayList<>();
+            events.forEach(event -> copy.add((TestEvent) event));
+            received.addAll(copy);
+            batchSizes.add(copy.size());
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
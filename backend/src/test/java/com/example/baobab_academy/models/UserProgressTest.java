@@ -0,0 +1,85 @@
+package com.example.baobab_academy.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserProgressTest {
+
+    @Test
+    void overlappingSegmentsAreMergedIntoOneRun() {
+        UserProgress progress = new UserProgress();
+
+        progress.recordWatchedSegment(0, 10, 32);
+        int covered = progress.recordWatchedSegment(5, 15, 32);
+
+        assertThat(progress.getWatchedRuns()).containsExactly(0, 15);
+        assertThat(covered).isEqualTo(15);
+        assertThat(progress.getWatchedSeconds()).isEqualTo(15);
+    }
+
+    @Test
+    void adjacentSegmentsAreMergedIntoOneRun() {
+        UserProgress progress = new UserProgress();
+
+        progress.recordWatchedSegment(10, 20, 32);
+        progress.recordWatchedSegment(0, 10, 32);
+        progress.recordWatchedSegment(20, 30, 32);
+
+        assertThat(progress.getWatchedRuns()).containsExactly(0, 30);
+        assertThat(progress.getWatchedSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    void disjointSegmentsStaySortedAndCountedOnce() {
+        UserProgress progress = new UserProgress();
+
+        progress.recordWatchedSegment(20, 30, 32);
+        progress.recordWatchedSegment(0, 5, 32);
+        progress.recordWatchedSegment(22, 28, 32);
+
+        assertThat(progress.getWatchedRuns()).containsExactly(0, 5, 20, 30);
+        assertThat(progress.getWatchedSeconds()).isEqualTo(15);
+    }
+
+    @Test
+    void segmentBridgingSeveralRunsCollapsesThem() {
+        UserProgress progress = new UserProgress();
+
+        progress.recordWatchedSegment(0, 5, 32);
+        progress.recordWatchedSegment(10, 15, 32);
+        progress.recordWatchedSegment(20, 25, 32);
+        progress.recordWatchedSegment(4, 21, 32);
+
+        assertThat(progress.getWatchedRuns()).containsExactly(0, 25);
+        assertThat(progress.getWatchedSeconds()).isEqualTo(25);
+    }
+
+    @Test
+    void shortestRunIsDroppedBeyondMaxRuns() {
+        UserProgress progress = new UserProgress();
+
+        progress.recordWatchedSegment(0, 3, 2);
+        progress.recordWatchedSegment(10, 11, 2);
+        progress.recordWatchedSegment(13, 15, 2);
+
+        // Aucun écart n'est comblé : la plage [10, 11[ est oubliée
+        assertThat(progress.getWatchedRuns()).containsExactly(0, 3, 13, 15);
+        assertThat(progress.getWatchedSeconds()).isEqualTo(5);
+    }
+
+    @Test
+    void scatteredSegmentsNeverCountUnwatchedSeconds() {
+        UserProgress progress = new UserProgress();
+        int reported = 0;
+
+        // Segments d'une seconde répartis sur toute la vidéo, bien au-delà du plafond
+        for (int start = 0; start < 1000; start += 10) {
+            progress.recordWatchedSegment(start, start + 1, 4);
+            reported++;
+        }
+
+        assertThat(progress.getWatchedRuns()).hasSizeLessThanOrEqualTo(8);
+        assertThat(progress.getWatchedSeconds()).isLessThanOrEqualTo(reported).isEqualTo(4);
+    }
+}
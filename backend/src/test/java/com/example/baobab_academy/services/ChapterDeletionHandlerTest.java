@@ -0,0 +1,40 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChapterDeletionHandlerTest {
+
+    @Mock
+    private CourseContentCleaner courseContentCleaner;
+
+    @InjectMocks
+    private ChapterDeletionHandler chapterDeletionHandler;
+
+    @Test
+    void deletesLessonsOfChapterAndClearsEnrollmentBits() {
+        CleanupJob job = CleanupJob.builder()
+                .type(CleanupJobType.CHAPTER_DELETION)
+                .targetId("chapter-1")
+                .scopeId("course-1")
+                .build();
+        CleanupJobService.Progress progress = mock(CleanupJobService.Progress.class);
+
+        chapterDeletionHandler.run(job, progress);
+
+        verify(progress).phase("lessons");
+        // Les inscriptions du cours restent : les bits des leçons supprimées doivent être abaissés
+        verify(courseContentCleaner).deleteLessons("course-1", List.of("chapter-1"), true, progress);
+    }
+}
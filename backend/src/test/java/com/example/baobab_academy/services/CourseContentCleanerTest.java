@@ -0,0 +1,127 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaDescriptor;
+import com.example.baobab_academy.models.UserProgress;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourseContentCleanerTest {
+
+    private static final MediaDescriptor SHARED_VIDEO = MediaDescriptor.builder()
+            .store("cloudinary")
+            .publicId("baobab-academy/videos/shared")
+            .resourceType("video")
+            .url("https://res.cloudinary.com/demo/video/upload/baobab-academy/videos/shared.mp4")
+            .build();
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MediaDeletionOutbox mediaDeletionOutbox;
+
+    @Mock
+    private MediaAssetRegistry mediaAssetRegistry;
+
+    @Mock
+    private CourseEnrollmentService courseEnrollmentService;
+
+    @InjectMocks
+    private CourseContentCleaner courseContentCleaner;
+
+    // État simulé de la collection lessons : leçon -> lot qui a libéré ses médias
+    private final Map<String, String> releasedBy = new HashMap<>();
+    private boolean lessonRemoved;
+    private int progressRemovals;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(courseContentCleaner, "batchSize", 500);
+
+        when(mongoTemplate.find(any(Query.class), eq(Lesson.class))).thenAnswer(invocation -> {
+            Document filter = invocation.<Query>getArgument(0).getQueryObject();
+            if (filter.containsKey("mediaReleasedBy")) {
+                Object token = filter.get("mediaReleasedBy");
+                return releasedBy.entrySet().stream()
+                        .filter(entry -> Objects.equals(entry.getValue(), token))
+                        .map(entry -> Lesson.builder().id(entry.getKey()).build())
+                        .toList();
+            }
+            return lessonRemoved ? List.of() : List.of(Lesson.builder()
+                    .id("lesson-1")
+                    .videoUrl(SHARED_VIDEO.getUrl())
+                    .videoMedia(SHARED_VIDEO)
+                    .build());
+        });
+
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Lesson.class)))
+                .thenAnswer(invocation -> {
+                    Document set = (Document) invocation.<UpdateDefinition>getArgument(1).getUpdateObject().get("$set");
+                    boolean claimed = releasedBy.putIfAbsent("lesson-1", set.getString("mediaReleasedBy")) == null;
+                    return UpdateResult.acknowledged(1, claimed ? 1L : 0L, null);
+                });
+
+        when(mongoTemplate.remove(any(Query.class), eq(UserProgress.class))).thenAnswer(invocation -> {
+            if (progressRemovals++ == 0) {
+                throw new IllegalStateException("Connexion perdue");
+            }
+            return DeleteResult.acknowledged(0);
+        });
+
+        when(mongoTemplate.remove(any(Query.class), eq(Lesson.class))).thenAnswer(invocation -> {
+            lessonRemoved = true;
+            return DeleteResult.acknowledged(1);
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replayedBatchReleasesSharedAssetOnlyOnce() {
+        CleanupJobService.Progress progress = mock(CleanupJobService.Progress.class);
+
+        // Premier passage interrompu après la libération des médias, avant la suppression des leçons
+        assertThatThrownBy(() -> courseContentCleaner.deleteLessons("course-1", List.of("chapter-1"), false, progress))
+                .isInstanceOf(IllegalStateException.class);
+        // Reprise de la tâche : le même lot est relu
+        courseContentCleaner.deleteLessons("course-1", List.of("chapter-1"), false, progress);
+
+        ArgumentCaptor<Collection<MediaDescriptor>> released = ArgumentCaptor.forClass(Collection.class);
+        verify(mediaAssetRegistry, atLeastOnce()).releaseAll(released.capture());
+        long sharedReleases = released.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .filter(SHARED_VIDEO::equals)
+                .count();
+
+        assertThat(sharedReleases).isEqualTo(1);
+        assertThat(lessonRemoved).isTrue();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.MongoContainerTest;
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.models.Chapter;
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.CourseEnrollment;
+import com.example.baobab_academy.models.LessonOrdinalSequence;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourseDeletionHandlerTest extends MongoContainerTest {
+
+    @Mock
+    private CourseContentCleaner courseContentCleaner;
+
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    private MongoTemplate interruptible;
+    private CourseDeletionHandler courseDeletionHandler;
+
+    @BeforeEach
+    void setUp() {
+        // Premier passage interrompu après les inscriptions, pendant la suppression de la progression
+        interruptible = spy(mongoTemplate);
+        doThrow(new IllegalStateException("Connexion perdue")).doCallRealMethod()
+                .when(interruptible).remove(any(Query.class), eq(UserProgress.class));
+
+        LessonOrdinalAllocator lessonOrdinalAllocator = new LessonOrdinalAllocator(mongoTemplate);
+        courseDeletionHandler = new CourseDeletionHandler(interruptible, courseContentCleaner, lessonOrdinalAllocator,
+                courseStructureCache, domainEventBus);
+        ReflectionTestUtils.setField(courseDeletionHandler, "batchSize", 1);
+
+        when(courseStructureCache.get("course-1")).thenReturn(CourseStructureCache.CourseStructure.builder()
+                .courseId("course-1")
+                .totalLessons(4)
+                .build());
+
+        mongoTemplate.insert(Course.builder().id("course-1").title("Cours").build());
+        mongoTemplate.insert(Course.builder().id("course-2").title("Autre cours").build());
+        mongoTemplate.insert(Chapter.builder().id("chapter-1").courseId("course-1").build());
+        lessonOrdinalAllocator.allocate("course-1", 4);
+        enrollment("user-1", "course-1", 4);
+        enrollment("user-2", "course-1", 1);
+        enrollment("user-1", "course-2", 2);
+        progress("user-1", "course-1", "lesson-1", 200);
+        progress("user-1", "course-1", "lesson-2", 100);
+        progress("user-2", "course-1", "lesson-1", 45);
+        progress("user-1", "course-2", "lesson-9", 30);
+    }
+
+    @Test
+    void replayedJobDecrementsEachLearnerOnce() {
+        CleanupJob job = CleanupJob.builder().type(CleanupJobType.COURSE_DELETION).targetId("course-1").build();
+        CleanupJobService.Progress progress = mock(CleanupJobService.Progress.class);
+
+        assertThatThrownBy(() -> courseDeletionHandler.run(job, progress)).isInstanceOf(IllegalStateException.class);
+        courseDeletionHandler.run(job, progress);
+
+        ArgumentCaptor<DomainEvent> events = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(domainEventBus, atLeastOnce()).publish(events.capture());
+        assertThat(events.getAllValues())
+                .map(EnrollmentRemovedEvent.class::cast)
+                .extracting(EnrollmentRemovedEvent::userId, EnrollmentRemovedEvent::completedLessons,
+                        EnrollmentRemovedEvent::watchTimeSeconds)
+                .containsExactlyInAnyOrder(
+                        tuple("user-1", 4L, 300L),
+                        tuple("user-2", 1L, 45L));
+
+        // Les données des autres cours restent intactes
+        assertThat(mongoTemplate.findAll(CourseEnrollment.class)).extracting(CourseEnrollment::getCourseId)
+                .containsExactly("course-2");
+        assertThat(mongoTemplate.findAll(UserProgress.class)).extracting(UserProgress::getCourseId)
+                .containsExactly("course-2");
+        assertThat(mongoTemplate.findAll(Course.class)).extracting(Course::getId).containsExactly("course-2");
+        assertThat(mongoTemplate.count(new Query(), Chapter.class)).isZero();
+        assertThat(mongoTemplate.count(new Query(), LessonOrdinalSequence.class)).isZero();
+
+        verify(courseContentCleaner).deleteLessons("course-1", List.of("chapter-1"), false, progress);
+    }
+
+    private void enrollment(String userId, String courseId, int completedCount) {
+        mongoTemplate.insert(CourseEnrollment.builder()
+                .userId(userId)
+                .courseId(courseId)
+                .completedCount(completedCount)
+                .build());
+    }
+
+    private void progress(String userId, String courseId, String lessonId, int watchTimeSeconds) {
+        mongoTemplate.insert(UserProgress.builder()
+                .userId(userId)
+                .courseId(courseId)
+                .lessonId(lessonId)
+                .watchTimeSeconds(watchTimeSeconds)
+                .build());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.MongoContainerTest;
+import com.example.baobab_academy.models.CourseEnrollment;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.services.CourseStructureCache.ChapterNode;
+import com.example.baobab_academy.services.CourseStructureCache.CourseStructure;
+import com.example.baobab_academy.services.CourseStructureCache.LessonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class CourseEnrollmentServiceTest extends MongoContainerTest {
+
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    private LessonOrdinalAllocator lessonOrdinalAllocator;
+    private CourseEnrollmentService courseEnrollmentService;
+
+    private final List<LessonNode> lessons = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lessonOrdinalAllocator = new LessonOrdinalAllocator(mongoTemplate);
+        courseEnrollmentService = new CourseEnrollmentService(mongoTemplate, courseStructureCache);
+
+        // 70 ordinaux : la dernière leçon tombe dans le second mot de 64 bits
+        int first = lessonOrdinalAllocator.allocate("course-1", 70);
+        lessons.add(new LessonNode("lesson-a", "A", 0, first, null, null));
+        lessons.add(new LessonNode("lesson-b", "B", 1, first + 1, null, null));
+        lessons.add(new LessonNode("lesson-c", "C", 2, first + 69, null, null));
+
+        lenient().when(courseStructureCache.get("course-1")).thenAnswer(invocation -> CourseStructure.builder()
+                .courseId("course-1")
+                .chapters(List.of(new ChapterNode("chapter-1", "Chapitre", 0, List.copyOf(lessons))))
+                .totalLessons(lessons.size())
+                .build());
+    }
+
+    @Test
+    void completingSameLessonTwiceCountsOnce() {
+        courseEnrollmentService.enroll("user-1", "course-1");
+
+        int first = courseEnrollmentService.markLessonCompleted("user-1", "course-1", 69);
+        int second = courseEnrollmentService.markLessonCompleted("user-1", "course-1", 69);
+
+        CourseEnrollment stored = courseEnrollmentService.getEnrollment("user-1", "course-1");
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        assertThat(stored.getCompletedCount()).isEqualTo(1);
+        assertThat(stored.isCompleted(69)).isTrue();
+        assertThat(stored.isCompleted(5)).isFalse();
+        assertThat(stored.getCompletionWords()).containsOnlyKeys("1");
+    }
+
+    @Test
+    void concurrentCompletionsOfSameLessonIncrementOnce() throws Exception {
+        courseEnrollmentService.enroll("user-1", "course-1");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                calls.add(() -> courseEnrollmentService.markLessonCompleted("user-1", "course-1", 1));
+                calls.add(() -> courseEnrollmentService.markLessonCompleted("user-1", "course-1", 64));
+            }
+            pool.invokeAll(calls).forEach(future -> {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        CourseEnrollment stored = courseEnrollmentService.getEnrollment("user-1", "course-1");
+        assertThat(stored.getCompletedCount()).isEqualTo(2);
+        assertThat(stored.isCompleted(1)).isTrue();
+        assertThat(stored.isCompleted(64)).isTrue();
+    }
+
+    @Test
+    void legacyEnrollmentIsRebuiltFromProgressOnFirstRead() {
+        completedProgress("lesson-a");
+        completedProgress("lesson-c");
+
+        CourseEnrollment enrollment = courseEnrollmentService.getEnrollment("user-1", "course-1");
+
+        assertThat(enrollment.getCompletedCount()).isEqualTo(2);
+        assertThat(enrollment.isCompleted(0)).isTrue();
+        assertThat(enrollment.isCompleted(1)).isFalse();
+        assertThat(enrollment.isCompleted(69)).isTrue();
+        assertThat(mongoTemplate.count(new Query(), CourseEnrollment.class)).isEqualTo(1);
+        assertThat(courseEnrollmentService.findNextLesson(enrollment, courseStructureCache.get("course-1")).getId())
+                .isEqualTo("lesson-b");
+    }
+
+    @Test
+    void completionOnLegacyEnrollmentRebuildsInsteadOfCountingFromZero() {
+        completedProgress("lesson-a");
+        completedProgress("lesson-b");
+
+        int completed = courseEnrollmentService.markLessonCompleted("user-1", "course-1", 1);
+
+        CourseEnrollment stored = mongoTemplate.findOne(
+                Query.query(Criteria.where("userId").is("user-1").and("courseId").is("course-1")), CourseEnrollment.class);
+        assertThat(completed).isEqualTo(2);
+        assertThat(stored.isCompleted(0)).isTrue();
+        assertThat(stored.isCompleted(1)).isTrue();
+    }
+
+    @Test
+    void deletedLessonBitIsClearedOnceAndItsOrdinalIsNeverReused() {
+        courseEnrollmentService.enroll("user-1", "course-1");
+        courseEnrollmentService.enroll("user-2", "course-1");
+        courseEnrollmentService.markLessonCompleted("user-1", "course-1", 1);
+        courseEnrollmentService.markLessonCompleted("user-1", "course-1", 69);
+        courseEnrollmentService.markLessonCompleted("user-2", "course-1", 0);
+
+        // Suppression de la leçon B, rejouée comme le ferait un job de nettoyage repris
+        lessons.remove(1);
+        courseEnrollmentService.clearLesson("course-1", 1);
+        courseEnrollmentService.clearLesson("course-1", 1);
+
+        // La leçon ajoutée ensuite reçoit un ordinal neuf, jamais terminé par personne
+        int ordinal = lessonOrdinalAllocator.allocate("course-1");
+        lessons.add(new LessonNode("lesson-d", "D", 3, ordinal, null, null));
+
+        CourseEnrollment first = courseEnrollmentService.getEnrollment("user-1", "course-1");
+        CourseEnrollment second = courseEnrollmentService.getEnrollment("user-2", "course-1");
+        assertThat(ordinal).isEqualTo(70);
+        assertThat(first.isCompleted(1)).isFalse();
+        assertThat(first.isCompleted(69)).isTrue();
+        assertThat(first.isCompleted(ordinal)).isFalse();
+        assertThat(first.getCompletedCount()).isEqualTo(1);
+        assertThat(second.getCompletedCount()).isEqualTo(1);
+        assertThat(courseEnrollmentService.findNextLesson(first, courseStructureCache.get("course-1")).getId())
+                .isEqualTo("lesson-a");
+    }
+
+    private void completedProgress(String lessonId) {
+        mongoTemplate.insert(UserProgress.builder()
+                .userId("user-1")
+                .courseId("course-1")
+                .lessonId(lessonId)
+                .completed(true)
+                .build());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.MongoContainerTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LessonOrdinalAllocatorTest extends MongoContainerTest {
+
+    private LessonOrdinalAllocator lessonOrdinalAllocator;
+
+    @BeforeEach
+    void setUp() {
+        lessonOrdinalAllocator = new LessonOrdinalAllocator(mongoTemplate);
+    }
+
+    @Test
+    void allocatesConsecutiveOrdinalsAndBlocks() {
+        assertThat(lessonOrdinalAllocator.allocate("course-1")).isZero();
+        assertThat(lessonOrdinalAllocator.allocate("course-1")).isEqualTo(1);
+        assertThat(lessonOrdinalAllocator.allocate("course-1", 3)).isEqualTo(2);
+        assertThat(lessonOrdinalAllocator.allocate("course-1")).isEqualTo(5);
+        assertThat(lessonOrdinalAllocator.allocate("course-2")).isZero();
+    }
+
+    @Test
+    void concurrentAllocationsNeverShareAnOrdinal() throws Exception {
+        lessonOrdinalAllocator.allocate("course-1");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        Set<Integer> ordinals = new HashSet<>();
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                calls.add(() -> lessonOrdinalAllocator.allocate("course-1"));
+            }
+            for (Future<Integer> future : pool.invokeAll(calls)) {
+                ordinals.add(future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(ordinals).hasSize(64).allMatch(ordinal -> ordinal >= 1 && ordinal <= 64);
+    }
+
+    @Test
+    void ordinalOfDeletedLessonIsNeverReused() {
+        lessonOrdinalAllocator.allocate("course-1");
+        int deleted = lessonOrdinalAllocator.allocate("course-1");
+
+        // La suppression d'une leçon ne touche pas la séquence : la leçon suivante reçoit un nouvel ordinal
+        int replacement = lessonOrdinalAllocator.allocate("course-1");
+
+        assertThat(replacement).isNotEqualTo(deleted).isEqualTo(2);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.MongoContainerTest;
+import com.example.baobab_academy.events.EnrolledEvent;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.models.CourseRating;
+import com.example.baobab_academy.models.PlatformCounters;
+import com.example.baobab_academy.models.PlatformDailyStats;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+
+@ExtendWith(MockitoExtension.class)
+class PlatformStatsServiceTest extends MongoContainerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    private MongoTemplate listened;
+    private PlatformStatsService platformStatsService;
+
+    @BeforeEach
+    void setUp() {
+        listened = spy(mongoTemplate);
+        platformStatsService = new PlatformStatsService(listened, userRepository, courseRepository, courseStructureCache);
+
+        lenient().when(courseStructureCache.get("course-1")).thenReturn(CourseStructureCache.CourseStructure.builder()
+                .courseId("course-1")
+                .totalLessons(2)
+                .build());
+    }
+
+    @Test
+    void removedEnrollmentsAreSubtractedFromTotalsOnly() {
+        mongoTemplate.insert(PlatformCounters.builder().id(PlatformCounters.GLOBAL_ID)
+                .enrollments(3).completions(1).build());
+
+        platformStatsService.onEvents(List.of(
+                new EnrolledEvent("user-3", "course-1", "Cours"),
+                new EnrollmentRemovedEvent("user-1", "course-1", 2, 2, 0),
+                new EnrollmentRemovedEvent("user-2", "course-1", 1, 2, 0)));
+
+        PlatformCounters counters = mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class);
+        assertThat(counters.getEnrollments()).isEqualTo(2);
+        assertThat(counters.getCompletions()).isZero();
+        assertThat(mongoTemplate.findById(LocalDate.now().toString(), PlatformDailyStats.class).getEnrollments())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rebuildKeepsIncrementsAppliedWhileCounting() {
+        // Compteurs dérivés ; sources : une inscription terminée, une en cours, une note
+        mongoTemplate.insert(PlatformCounters.builder().id(PlatformCounters.GLOBAL_ID)
+                .enrollments(7).completions(4).ratings(2).build());
+        progress("user-1", "lesson-1", true);
+        progress("user-1", "lesson-2", true);
+        progress("user-2", "lesson-1", false);
+        mongoTemplate.insert(CourseRating.builder().userId("user-1").courseId("course-1").rating(5).build());
+
+        // Une inscription traitée par le listener pendant le calcul
+        doAnswer(invocation -> {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(PlatformCounters.GLOBAL_ID)),
+                    new Update().inc("enrollments", 1), PlatformCounters.class);
+            return invocation.callRealMethod();
+        }).when(listened).count(any(Query.class), eq(CourseRating.class));
+
+        platformStatsService.rebuildCounters();
+
+        PlatformCounters counters = mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class);
+        assertThat(counters.getEnrollments()).isEqualTo(3);
+        assertThat(counters.getCompletions()).isEqualTo(1);
+        assertThat(counters.getRatings()).isEqualTo(1);
+        assertThat(counters.getRebuiltAt()).isNotNull();
+    }
+
+    @Test
+    void missingCountersAreRebuiltAtStartupOnly() {
+        progress("user-1", "lesson-1", true);
+
+        platformStatsService.rebuildCountersIfMissing();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(PlatformCounters.GLOBAL_ID)),
+                new Update().inc("enrollments", 5), PlatformCounters.class);
+        platformStatsService.rebuildCountersIfMissing();
+
+        assertThat(mongoTemplate.findById(PlatformCounters.GLOBAL_ID, PlatformCounters.class).getEnrollments())
+                .isEqualTo(6);
+    }
+
+    private void progress(String userId, String lessonId, boolean completed) {
+        mongoTemplate.insert(UserProgress.builder()
+                .userId(userId)
+                .courseId("course-1")
+                .lessonId(lessonId)
+                .completed(completed)
+                .build());
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.MongoContainerTest;
+import com.example.baobab_academy.exceptions.UploadOffsetConflictException;
+import com.example.baobab_academy.models.MediaUploadJob;
+import com.example.baobab_academy.models.ResumableUpload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResumableUploadServiceTest extends MongoContainerTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @Mock
+    private MediaUploadService mediaUploadService;
+
+    @Mock
+    private MediaFileValidator mediaFileValidator;
+
+    @TempDir
+    private Path spoolDir;
+
+    private ResumableUploadService resumableUploadService;
+
+    private Path spooled;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(mediaUploadService.getSpoolDir()).thenReturn(spoolDir);
+        // Tampon volontairement plus petit qu'un morceau pour exercer la boucle de lecture
+        resumableUploadService = new ResumableUploadService(mongoTemplate, mediaUploadService, mediaFileValidator, 4, 24);
+
+        spooled = Files.createFile(spoolDir.resolve("video-1.part"));
+        mongoTemplate.insert(ResumableUpload.builder()
+                .id("upload-1")
+                .lessonId("lesson-1")
+                .courseId("course-1")
+                .instructorId("instructor-1")
+                .extension(".mp4")
+                .length(CONTENT.length)
+                .offset(0)
+                .spoolPath(spooled.toString())
+                .build());
+
+        lenient().when(mediaUploadService.submitSpooledLessonVideo(anyString(), anyString(), anyString(), any(Path.class),
+                anyLong())).thenReturn(MediaUploadJob.builder().id("job-1").build());
+    }
+
+    @Test
+    void chunkAtWrongOffsetIsRejected() {
+        assertThatThrownBy(() -> resumableUploadService.append("upload-1", "instructor-1", 3, body(0, 4)))
+                .isInstanceOf(UploadOffsetConflictException.class);
+
+        assertThat(stored().getOffset()).isZero();
+    }
+
+    @Test
+    void interruptedChunkKeepsReceivedBytesAndResumesFromOffset() throws IOException {
+        InputStream broken = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (position == 6) {
+                    throw new IOException("Connexion réinitialisée");
+                }
+                int n = Math.min(length, 6 - position);
+                System.arraycopy(CONTENT, position, buffer, offset, n);
+                position += n;
+                return n;
+            }
+        };
+
+        assertThatThrownBy(() -> resumableUploadService.append("upload-1", "instructor-1", 0, broken))
+                .isInstanceOf(IOException.class);
+        assertThat(stored().getOffset()).isEqualTo(6);
+        assertThat(Files.size(spooled)).isEqualTo(6);
+
+        ResumableUpload completed = resumableUploadService.append("upload-1", "instructor-1", 6, body(6, 10));
+
+        assertThat(completed.getJobId()).isEqualTo("job-1");
+        assertThat(stored().getOffset()).isEqualTo(CONTENT.length);
+        assertThat(Files.readAllBytes(spooled)).isEqualTo(CONTENT);
+        verify(mediaFileValidator).validateSignature(spooled, ".mp4");
+    }
+
+    @Test
+    void unconfirmedBytesBeyondOffsetAreTruncated() throws IOException {
+        // Arrêt après l'écriture sur disque mais avant l'enregistrement de l'offset
+        Files.write(spooled, "0123XXXX".getBytes());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is("upload-1")), new Update().set("offset", 4L),
+                ResumableUpload.class);
+
+        ResumableUpload updated = resumableUploadService.append("upload-1", "instructor-1", 4, body(4, 8));
+
+        assertThat(updated.getOffset()).isEqualTo(8);
+        assertThat(Files.readAllBytes(spooled)).isEqualTo(Arrays.copyOfRange(CONTENT, 0, 8));
+        verify(mediaUploadService, never()).submitSpooledLessonVideo(anyString(), anyString(), anyString(),
+                any(Path.class), anyLong());
+    }
+
+    @Test
+    void chunkExceedingDeclaredLengthIsDiscarded() throws IOException {
+        InputStream oversized = new ByteArrayInputStream("0123456789AB".getBytes());
+
+        assertThatThrownBy(() -> resumableUploadService.append("upload-1", "instructor-1", 0, oversized))
+                .isInstanceOf(IOException.class);
+
+        assertThat(stored().getOffset()).isZero();
+        assertThat(Files.size(spooled)).isZero();
+    }
+
+    private static InputStream body(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(CONTENT, from, to));
+    }
+
+    private ResumableUpload stored() {
+        return mongoTemplate.findById("upload-1", ResumableUpload.class);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.MongoContainerTest;
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.EnrollmentRemovedEvent;
+import com.example.baobab_academy.events.RatingChangedEvent;
+import com.example.baobab_academy.models.CleanupJob;
+import com.example.baobab_academy.models.Course;
+import com.example.baobab_academy.models.CourseEnrollment;
+import com.example.baobab_academy.models.CourseRating;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.models.enums.CleanupJobType;
+import com.example.baobab_academy.repositories.CourseRatingRepository;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.repositories.UserProgressRepository;
+import com.example.baobab_academy.repositories.UserRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserDeletionHandlerTest extends MongoContainerTest {
+
+    @Mock
+    private CourseRatingRepository courseRatingRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserProgressRepository userProgressRepository;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    private MongoTemplate interruptible;
+    private CleanupJobService cleanupJobService;
+    private UserDeletionHandler userDeletionHandler;
+    private CleanupJob job;
+
+    @BeforeEach
+    void setUp() {
+        interruptible = spy(mongoTemplate);
+        CourseRatingService courseRatingService = new CourseRatingService(courseRatingRepository, courseRepository,
+                userRepository, userProgressRepository, new ModelMapper(), interruptible, domainEventBus);
+        userDeletionHandler = new UserDeletionHandler(interruptible, domainEventBus, courseRatingService,
+                courseStructureCache);
+        ReflectionTestUtils.setField(userDeletionHandler, "batchSize", 1);
+        cleanupJobService = new CleanupJobService(mongoTemplate, List.of());
+        lenient().when(courseStructureCache.getAll(any())).thenReturn(Map.of("course-1",
+                CourseStructureCache.CourseStructure.builder().courseId("course-1").totalLessons(3).build()));
+
+        job = mongoTemplate.insert(CleanupJob.builder().type(CleanupJobType.USER_DELETION).targetId("user-1").build());
+
+        mongoTemplate.insert(Course.builder().id("course-1").title("Cours 1").students(10).rating(4.5).build());
+        mongoTemplate.insert(Course.builder().id("course-2").title("Cours 2").students(2).rating(3.0).build());
+        rating("user-1", "course-1", 5);
+        rating("user-2", "course-1", 4);
+        rating("user-1", "course-2", 3);
+        progress("user-1", "course-1", "lesson-1");
+        progress("user-1", "course-1", "lesson-2");
+        progress("user-1", "course-2", "lesson-9");
+        progress("user-2", "course-1", "lesson-1");
+        mongoTemplate.insert(CourseEnrollment.builder().userId("user-1").courseId("course-1").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanupJobService.shutdown();
+    }
+
+    @Test
+    void averagesAreRecomputedByReplayEvenAfterRatingsWereDeleted() {
+        // Arrêt juste après la suppression des notes : les événements publiés sont perdus avec le bus en mémoire
+        doThrow(new IllegalStateException("Arrêt")).doCallRealMethod()
+                .when(interruptible).aggregate(any(TypedAggregation.class), eq(Document.class));
+
+        assertThatThrownBy(this::run).isInstanceOf(IllegalStateException.class);
+        assertThat(mongoTemplate.count(Query.query(Criteria.where("userId").is("user-1")), CourseRating.class)).isZero();
+        run();
+
+        assertThat(course("course-1").getRating()).isEqualTo(4.0);
+        assertThat(course("course-2").getRating()).isEqualTo(0.0);
+        verify(domainEventBus).publish(new RatingChangedEvent("course-1", "user-1", 5, null));
+        verify(domainEventBus).publish(new RatingChangedEvent("course-2", "user-1", 3, null));
+    }
+
+    @Test
+    void replayAfterProgressRemovalNeitherLosesNorRepeatsStudentDecrements() {
+        // Arrêt après la phase de progression : tout est décrémenté et supprimé, la reprise ne doit rien refaire
+        doThrow(new IllegalStateException("Arrêt")).doCallRealMethod()
+                .when(interruptible).remove(any(Query.class), eq(CourseEnrollment.class));
+
+        assertThatThrownBy(this::run).isInstanceOf(IllegalStateException.class);
+        assertThat(mongoTemplate.count(Query.query(Criteria.where("userId").is("user-1")), UserProgress.class)).isZero();
+        run();
+
+        assertThat(course("course-1").getStudents()).isEqualTo(9);
+        assertThat(course("course-2").getStudents()).isEqualTo(1);
+        assertThat(mongoTemplate.findAll(UserProgress.class)).extracting(UserProgress::getUserId)
+                .containsExactly("user-2");
+        assertThat(mongoTemplate.count(new Query(), CourseEnrollment.class)).isZero();
+        verify(domainEventBus).publish(new EnrollmentRemovedEvent("user-1", "course-1", 0, 3, 0));
+    }
+
+    @Test
+    void replayAfterDecrementDoesNotDecrementTheSameCourseAgain() {
+        // Arrêt après le décrément noté du premier cours, avant la suppression de sa progression
+        doThrow(new IllegalStateException("Arrêt")).doCallRealMethod()
+                .when(interruptible).remove(any(Query.class), eq(UserProgress.class));
+
+        assertThatThrownBy(this::run).isInstanceOf(IllegalStateException.class);
+        run();
+
+        assertThat(course("course-1").getStudents()).isEqualTo(9);
+        assertThat(course("course-2").getStudents()).isEqualTo(1);
+        assertThat(mongoTemplate.findById(job.getId(), CleanupJob.class).getCheckpoints())
+                .containsKeys("rated-courses", "progress-courses", "decremented-courses");
+    }
+
+    private void run() {
+        userDeletionHandler.run(job, cleanupJobService.new Progress(job.getId()));
+    }
+
+    private Course course(String courseId) {
+        return mongoTemplate.findById(courseId, Course.class);
+    }
+
+    private void rating(String userId, String courseId, int rating) {
+        mongoTemplate.insert(CourseRating.builder().userId(userId).courseId(courseId).rating(rating).build());
+    }
+
+    private void progress(String userId, String courseId, String lessonId) {
+        mongoTemplate.insert(UserProgress.builder().userId(userId).courseId(courseId).lessonId(lessonId).build());
+    }
+}
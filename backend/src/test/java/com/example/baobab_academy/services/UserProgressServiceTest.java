@@ -0,0 +1,145 @@
+package com.example.baobab_academy.services;
+
+import com.example.baobab_academy.events.DomainEvent;
+import com.example.baobab_academy.events.DomainEventBus;
+import com.example.baobab_academy.events.LessonProgressUpdatedEvent;
+import com.example.baobab_academy.models.Chapter;
+import com.example.baobab_academy.models.Lesson;
+import com.example.baobab_academy.models.MediaDescriptor;
+import com.example.baobab_academy.models.UserProgress;
+import com.example.baobab_academy.repositories.ChapterRepository;
+import com.example.baobab_academy.repositories.CourseRepository;
+import com.example.baobab_academy.repositories.LessonRepository;
+import com.example.baobab_academy.repositories.UserProgressRepository;
+import com.example.baobab_academy.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserProgressServiceTest {
+
+    @Mock
+    private UserProgressRepository userProgressRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    @Mock
+    private ChapterRepository chapterRepository;
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CourseStructureCache courseStructureCache;
+
+    @Mock
+    private CourseEnrollmentService courseEnrollmentService;
+
+    @Mock
+    private DomainEventBus domainEventBus;
+
+    @InjectMocks
+    private UserProgressService userProgressService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(userProgressService, "maxWatchedRuns", 32);
+        ReflectionTestUtils.setField(userProgressService, "maxSegmentSeconds", 120);
+
+        when(chapterRepository.findById("chapter-1")).thenReturn(Optional.of(Chapter.builder()
+                .id("chapter-1")
+                .courseId("course-1")
+                .build()));
+        when(userProgressRepository.findByUserIdAndLessonId("user-1", "lesson-1")).thenReturn(Optional.empty());
+        when(userProgressRepository.save(any(UserProgress.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(courseStructureCache.get("course-1")).thenReturn(CourseStructureCache.CourseStructure.builder()
+                .courseId("course-1")
+                .totalLessons(1)
+                .build());
+    }
+
+    @Test
+    void clientDurationCannotForgeCompletionOfHostedVideo() {
+        givenLesson(600.0);
+
+        UserProgress progress = userProgressService.updateLessonProgress("user-1", "lesson-1", 100, 1, 0, 1, 1);
+
+        assertThat(progress.isCompleted()).isFalse();
+        assertThat(progress.getDurationSeconds()).isEqualTo(600);
+        assertThat(progress.getProgressPercentage()).isZero();
+        verify(courseEnrollmentService, never()).markLessonCompleted(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void reportedPercentageNeverCompletesWithoutKnownDuration() {
+        givenLesson(null);
+
+        UserProgress progress = userProgressService.updateLessonProgress("user-1", "lesson-1", 100, 600);
+
+        assertThat(progress.isCompleted()).isFalse();
+        assertThat(progress.getProgressPercentage()).isEqualTo(100);
+    }
+
+    @Test
+    void coverageOfServerDurationCompletesLesson() {
+        givenLesson(100.0);
+
+        UserProgress progress = userProgressService.updateLessonProgress("user-1", "lesson-1", 0, 0, 0, 85, null);
+
+        assertThat(progress.getWatchedSeconds()).isEqualTo(85);
+        assertThat(progress.isCompleted()).isTrue();
+        verify(courseEnrollmentService).markLessonCompleted("user-1", "course-1", 7);
+    }
+
+    @Test
+    void manualCompletionPublishesProgressUpToFullCompletion() {
+        givenLesson(100.0);
+
+        userProgressService.markLessonAsCompleted("user-1", "lesson-1");
+
+        ArgumentCaptor<DomainEvent> events = ArgumentCaptor.forClass(DomainEvent.class);
+        verify(domainEventBus, atLeastOnce()).publish(events.capture());
+        assertThat(events.getAllValues())
+                .filteredOn(LessonProgressUpdatedEvent.class::isInstance)
+                .map(LessonProgressUpdatedEvent.class::cast)
+                .singleElement()
+                .satisfies(progress -> {
+                    assertThat(progress.previousPercentage()).isZero();
+                    assertThat(progress.progressPercentage()).isEqualTo(100);
+                    assertThat(progress.watchTimeDeltaSeconds()).isZero();
+                });
+    }
+
+    private void givenLesson(Double videoDurationSeconds) {
+        when(lessonRepository.findById("lesson-1")).thenReturn(Optional.of(Lesson.builder()
+                .id("lesson-1")
+                .chapterId("chapter-1")
+                .ordinal(7)
+                .videoMedia(videoDurationSeconds != null
+                        ? MediaDescriptor.builder().resourceType("video").durationSeconds(videoDurationSeconds).build()
+                        : null)
+                .build()));
+    }
+}